@@ -0,0 +1,39 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.services.kendraranking.KendraRankingClient;
+
+/**
+ * Compares the client lookup every handler invocation performs against building a fresh
+ * client, which is what each invocation used to pay for.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientBuilderBenchmark {
+
+  private static final String REGION = "us-west-2";
+
+  @Benchmark
+  public KendraRankingClient newClientPerInvocation() {
+    return ClientBuilder.newClient(REGION, ClientBuilder.endpoint(REGION));
+  }
+
+  @Benchmark
+  public KendraRankingClient cachedClient() {
+    return ClientBuilder.getClient(REGION);
+  }
+}
@@ -0,0 +1,53 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+/**
+ * The arn every read, update and list model carries, built with {@link String#format} by
+ * {@link ExecutionPlanPlanArn}. Plain concatenation is kept as the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecutionPlanArnBenchmark {
+
+  private final ExecutionPlanArnBuilder executionPlanArnBuilder = new ExecutionPlanPlanArn();
+
+  private ResourceHandlerRequest<ResourceModel> request;
+
+  @Setup
+  public void setup() {
+    request = ResourceHandlerRequest.<ResourceModel>builder()
+        .awsPartition("aws")
+        .region("us-west-2")
+        .awsAccountId("123456789012")
+        .desiredResourceState(ResourceModel.builder().id("0a1b2c3d-4e5f-6789-abcd-ef0123456789").build())
+        .build();
+  }
+
+  @Benchmark
+  public String executionPlanPlanArn() {
+    return executionPlanArnBuilder.build(request);
+  }
+
+  @Benchmark
+  public String concatenation() {
+    return "arn:" + request.getAwsPartition() + ":kendra-ranking:" + request.getRegion() + ":"
+        + request.getAwsAccountId() + ":rescore-execution-plan/" + request.getDesiredResourceState().getId();
+  }
+}
@@ -0,0 +1,97 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.services.kendraranking.model.ListRescoreExecutionPlansResponse;
+import software.amazon.awssdk.services.kendraranking.model.RescoreExecutionPlanStatus;
+import software.amazon.awssdk.services.kendraranking.model.RescoreExecutionPlanSummary;
+
+/**
+ * The {@link ListConverter} loops on tag lists, and the translation of list pages of up to the
+ * 100 summaries ListRescoreExecutionPlans returns at most. The stream* benchmarks are the
+ * pipelines they replaced, kept as a baseline for -prof gc.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListConverterBenchmark {
+
+  @Param({"0", "1", "10", "100"})
+  public int size;
+
+  private List<Tag> modelTags;
+  private List<software.amazon.awssdk.services.kendraranking.model.Tag> sdkTags;
+  private ListRescoreExecutionPlansResponse listResponse;
+
+  @Setup
+  public void setup() {
+    modelTags = new ArrayList<>(size);
+    sdkTags = new ArrayList<>(size);
+    List<RescoreExecutionPlanSummary> summaries = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      modelTags.add(Tag.builder().key("key" + i).value("value" + i).build());
+      sdkTags.add(software.amazon.awssdk.services.kendraranking.model.Tag.builder()
+          .key("key" + i).value("value" + i).build());
+      summaries.add(RescoreExecutionPlanSummary.builder()
+          .id("id" + i)
+          .name("plan" + i)
+          .createdAt(Instant.EPOCH)
+          .updatedAt(Instant.EPOCH)
+          .status(RescoreExecutionPlanStatus.ACTIVE)
+          .build());
+    }
+    listResponse = ListRescoreExecutionPlansResponse.builder().summaryItems(summaries).build();
+  }
+
+  @Benchmark
+  public List<software.amazon.awssdk.services.kendraranking.model.Tag> toSdk() {
+    return ListConverter.toSdk(modelTags, x -> software.amazon.awssdk.services.kendraranking.model.Tag.builder()
+        .key(x.getKey()).value(x.getValue()).build());
+  }
+
+  @Benchmark
+  public List<Tag> toModel() {
+    return ListConverter.toModel(sdkTags, x -> Tag.builder().key(x.key()).value(x.value()).build());
+  }
+
+  @Benchmark
+  public List<ResourceModel> translateFromListResponse() {
+    return Translator.translateFromListResponse(listResponse);
+  }
+
+  @Benchmark
+  public List<software.amazon.awssdk.services.kendraranking.model.Tag> streamToSdk() {
+    return modelTags.stream()
+        .map(x -> software.amazon.awssdk.services.kendraranking.model.Tag.builder()
+            .key(x.getKey()).value(x.getValue()).build())
+        .collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public List<ResourceModel> streamTranslateFromListResponse() {
+    return listResponse.summaryItems().stream()
+        .map(resource -> ResourceModel.builder()
+            .id(resource.id())
+            .name(resource.name())
+            .build())
+        .collect(Collectors.toList());
+  }
+}
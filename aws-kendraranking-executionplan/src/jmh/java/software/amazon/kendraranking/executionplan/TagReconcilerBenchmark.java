@@ -0,0 +1,69 @@
+package software.amazon.kendraranking.executionplan;
+
+import com.google.common.collect.Sets;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Tag diff at the schema's maximum of 200 tags: a quarter of the tags get a new value, a quarter
+ * is replaced by new keys and the rest is unchanged. The whole-tag set difference UpdateHandler
+ * used before is kept as the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TagReconcilerBenchmark {
+
+  private static final int TAG_COUNT = 200;
+
+  private List<Tag> previousTags;
+  private List<Tag> desiredTags;
+
+  @Setup
+  public void setup() {
+    previousTags = new ArrayList<>(TAG_COUNT);
+    desiredTags = new ArrayList<>(TAG_COUNT);
+    for (int i = 0; i < TAG_COUNT; i++) {
+      previousTags.add(Tag.builder().key("key" + i).value("value" + i).build());
+      if (i < TAG_COUNT / 4) {
+        desiredTags.add(Tag.builder().key("key" + i).value("changed" + i).build());
+      } else if (i < TAG_COUNT / 2) {
+        desiredTags.add(Tag.builder().key("new" + i).value("value" + i).build());
+      } else {
+        desiredTags.add(Tag.builder().key("key" + i).value("value" + i).build());
+      }
+    }
+  }
+
+  @Benchmark
+  public TagReconciler.TagDiff keyIndexedDiff() {
+    return TagReconciler.diff(desiredTags, previousTags);
+  }
+
+  @Benchmark
+  public void wholeTagSetDifference(Blackhole blackhole) {
+    Set<Tag> current = new HashSet<>(desiredTags);
+    Set<Tag> existing = new HashSet<>(previousTags);
+    blackhole.consume(new HashSet<>(Sets.difference(current, existing)));
+    blackhole.consume(new HashSet<>(Sets.difference(existing, current)));
+  }
+}
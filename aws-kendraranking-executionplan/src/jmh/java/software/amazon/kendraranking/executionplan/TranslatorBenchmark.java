@@ -0,0 +1,100 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.services.kendraranking.model.CreateRescoreExecutionPlanRequest;
+import software.amazon.awssdk.services.kendraranking.model.DescribeRescoreExecutionPlanResponse;
+import software.amazon.awssdk.services.kendraranking.model.ListTagsForResourceResponse;
+import software.amazon.awssdk.services.kendraranking.model.RescoreExecutionPlanStatus;
+import software.amazon.awssdk.services.kendraranking.model.TagResourceRequest;
+
+/**
+ * Translations every invocation runs, from no tags up to the schema's maximum of 200.
+ * Run with {@code -prof gc} (the profile's default) to see the bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TranslatorBenchmark {
+
+  private static final String ARN = "arn:aws:kendra-ranking:us-west-2:123456789012:rescore-execution-plan/id";
+
+  @Param({"0", "1", "10", "50", "200"})
+  public int tagCount;
+
+  private ResourceModel model;
+  private List<Tag> tags;
+  private Map<String, String> stackTags;
+  private DescribeRescoreExecutionPlanResponse describeResponse;
+  private ListTagsForResourceResponse listTagsResponse;
+
+  @Setup
+  public void setup() {
+    tags = new ArrayList<>(tagCount);
+    stackTags = new LinkedHashMap<>();
+    List<software.amazon.awssdk.services.kendraranking.model.Tag> sdkTags = new ArrayList<>(tagCount);
+    for (int i = 0; i < tagCount; i++) {
+      tags.add(Tag.builder().key("key" + i).value("value" + i).build());
+      stackTags.put("key" + i, "value" + i);
+      sdkTags.add(software.amazon.awssdk.services.kendraranking.model.Tag.builder()
+          .key("key" + i).value("value" + i).build());
+    }
+    model = ResourceModel.builder()
+        .name("plan")
+        .description("description")
+        .capacityUnits(CapacityUnitsConfiguration.builder().rescoreCapacityUnits(1).build())
+        .tags(tags.isEmpty() ? null : tags)
+        .build();
+    describeResponse = DescribeRescoreExecutionPlanResponse.builder()
+        .id("id")
+        .arn(ARN)
+        .name("plan")
+        .description("description")
+        .capacityUnits(software.amazon.awssdk.services.kendraranking.model.CapacityUnitsConfiguration.builder()
+            .rescoreCapacityUnits(1).build())
+        .createdAt(Instant.EPOCH)
+        .updatedAt(Instant.EPOCH)
+        .status(RescoreExecutionPlanStatus.ACTIVE)
+        .build();
+    listTagsResponse = ListTagsForResourceResponse.builder().tags(sdkTags).build();
+  }
+
+  @Benchmark
+  public ResourceModel translateFromReadResponse() {
+    return Translator.translateFromReadResponse(describeResponse, listTagsResponse, ARN);
+  }
+
+  @Benchmark
+  public TagResourceRequest translateToTagResourceRequest() {
+    return Translator.translateToTagResourceRequest(tags, ARN);
+  }
+
+  @Benchmark
+  public List<Tag> transformTags() {
+    return Translator.transformTags(stackTags);
+  }
+
+  @Benchmark
+  public CreateRescoreExecutionPlanRequest translateToCreateRequest() {
+    return Translator.translateToCreateRequest(model, "token");
+  }
+}
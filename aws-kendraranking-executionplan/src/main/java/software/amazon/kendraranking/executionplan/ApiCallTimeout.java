@@ -0,0 +1,40 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+import software.amazon.awssdk.awscore.AwsRequest;
+import software.amazon.awssdk.awscore.AwsRequestOverrideConfiguration;
+
+/**
+ * Limits how long one service call may take, retries and their backoff included, for calls that must be
+ * over by a deadline. The proxy sets the request's override configuration when it injects the caller's
+ * credentials, so the limit is added in the call function, to the request the proxy hands it.
+ */
+class ApiCallTimeout {
+
+  private ApiCallTimeout() {
+  }
+
+  /**
+   * @param call the client method to invoke, e.g. {@code proxyClient.client()::describeRescoreExecutionPlan}
+   * @param timeout the longest the call may take, the SDK throws an ApiCallTimeoutException past it
+   * @param <RequestT> request type
+   * @param <ResponseT> response type
+   * @return call function that invokes the client method with the timeout on top of the proxy's configuration
+   */
+  static <RequestT extends AwsRequest, ResponseT> Function<RequestT, ResponseT> limit(
+      Function<RequestT, ResponseT> call, Duration timeout) {
+    return request -> call.apply(withTimeout(request, timeout));
+  }
+
+  @SuppressWarnings("unchecked")
+  static <RequestT extends AwsRequest> RequestT withTimeout(RequestT request, Duration timeout) {
+    AwsRequestOverrideConfiguration.Builder configuration = request.overrideConfiguration()
+        .map(AwsRequestOverrideConfiguration::toBuilder)
+        .orElseGet(AwsRequestOverrideConfiguration::builder);
+    return (RequestT) request.toBuilder()
+        .overrideConfiguration(configuration.apiCallTimeout(timeout).build())
+        .build();
+  }
+}
@@ -1,10 +1,27 @@
 package software.amazon.kendraranking.executionplan;
 
+import software.amazon.awssdk.awscore.AwsRequest;
+
 public class ApiName {
   static final String CREATE_EXECUTION_PLAN = "CreateRescoreExecutionPlan";
   static final String UPDATE_EXECUTION_PLAN = "UpdateRescoreExecutionPlan";
   static final String DELETE_EXECUTION_PLAN = "DeleteRescoreExecutionPlan";
   static final String DESCRIBE_EXECUTION_PLAN = "DescribeRescoreExecutionPlan";
+  static final String LIST_EXECUTION_PLANS = "ListRescoreExecutionPlans";
   static final String LIST_TAGS_FOR_RESOURCE = "ListTagsForResource";
-}
+  static final String TAG_RESOURCE = "TagResource";
+  static final String UNTAG_RESOURCE = "UntagResource";
 
+  private static final String REQUEST_SUFFIX = "Request";
+
+  /**
+   * SDK request classes are named after the operation, e.g. DescribeRescoreExecutionPlanRequest,
+   * so this yields the same names as the constants above.
+   * @param request the aws service request
+   * @return name of the api the request is for
+   */
+  static String of(AwsRequest request) {
+    String name = request.getClass().getSimpleName();
+    return name.endsWith(REQUEST_SUFFIX) ? name.substring(0, name.length() - REQUEST_SUFFIX.length()) : name;
+  }
+}
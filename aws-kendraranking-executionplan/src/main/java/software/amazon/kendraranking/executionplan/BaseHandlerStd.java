@@ -2,6 +2,7 @@ package software.amazon.kendraranking.executionplan;
 
 import software.amazon.awssdk.services.kendraranking.KendraRankingClient;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.HandlerErrorCode;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
@@ -16,15 +17,103 @@ public abstract class BaseHandlerStd extends BaseHandler<CallbackContext> {
     final ResourceHandlerRequest<ResourceModel> request,
     final CallbackContext callbackContext,
     final Logger logger) {
-    return handleRequest(
+    StartupProfile.get().firstInvocation();
+    return handleInstrumentedRequest(
       proxy,
       request,
-      callbackContext != null ? callbackContext : new CallbackContext(),
+      callbackContext,
       proxy.newProxy(() -> ClientBuilder.getClient(request.getRegion())),
+      CircuitBreaker.forRegion(request.getRegion()),
       logger
     );
   }
 
+  /**
+   * Runs the handler with its calls recorded and guarded by the circuit breaker. An open breaker makes create,
+   * update and delete call back once it may let calls through again, and fails read and list.
+   * @param proxy the aws service proxy
+   * @param request the handler request
+   * @param callbackContext callback context, null on the first invocation
+   * @param proxyClient the aws service client to make the calls, not instrumented yet
+   * @param circuitBreaker breaker of the request's region, null when disabled
+   * @param logger logger
+   * @return progress event
+   */
+  final ProgressEvent<ResourceModel, CallbackContext> handleInstrumentedRequest(
+    final AmazonWebServicesClientProxy proxy,
+    final ResourceHandlerRequest<ResourceModel> request,
+    final CallbackContext callbackContext,
+    final ProxyClient<KendraRankingClient> proxyClient,
+    final CircuitBreaker circuitBreaker,
+    final Logger logger) {
+    final CallbackContext context = callbackContext != null ? callbackContext : new CallbackContext();
+
+    // The context carries the stabilization counters across invocations, only this invocation's share is recorded
+    final HandlerMetrics metrics = HandlerMetrics.forOperation(operationName());
+    // Without a trace the calls aren't timed per attempt at all
+    final CallTrace trace = CallTrace.isEnabledByEnvironment() ? new CallTrace(operationName()) : null;
+    final int stabilizationPolls = context.getStabilizationPolls();
+    final int stabilizationThrottles = context.getStabilizationThrottles();
+    try {
+      return handleRequest(
+        proxy,
+        request,
+        context,
+        new InstrumentedProxyClient(proxyClient, metrics, trace, circuitBreaker),
+        logger
+      );
+    } catch (RuntimeException e) {
+      final CircuitBreakerOpenException circuitBreakerOpen = circuitBreakerOpen(e);
+      if (circuitBreakerOpen == null) {
+        throw e;
+      }
+      logger.log(String.format("%s %s", ResourceModel.TYPE_NAME, circuitBreakerOpen.getMessage()));
+      if (!canCallBack()) {
+        return ProgressEvent.defaultFailureHandler(circuitBreakerOpen, HandlerErrorCode.ServiceInternalError);
+      }
+      // Calls that already went through are kept in the context, the callback picks up where this left off
+      return ProgressEvent.defaultInProgressHandler(context,
+        (int) Math.max(1L, circuitBreakerOpen.getRetryAfter().getSeconds()), request.getDesiredResourceState());
+    } finally {
+      if (HandlerMetrics.isEnabledByEnvironment()) {
+        metrics.recordStabilization(context.getStabilizationPolls() - stabilizationPolls,
+          context.getStabilizationThrottles() - stabilizationThrottles);
+        metrics.emit(logger);
+      }
+      if (trace != null) {
+        logger.log(trace.summary());
+      }
+      final String startupProfile = StartupProfile.get().report();
+      if (startupProfile != null) {
+        logger.log(startupProfile);
+      }
+    }
+  }
+
+  /**
+   * @return whether the handler may return IN_PROGRESS to be called back later, which read and list handlers may not
+   */
+  boolean canCallBack() {
+    return true;
+  }
+
+  // The breaker's exception may come back wrapped, e.g. by a call made on the shared pool
+  private static CircuitBreakerOpenException circuitBreakerOpen(Throwable e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof CircuitBreakerOpenException) {
+        return (CircuitBreakerOpenException) cause;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return operation the metrics of this handler are dimensioned by, e.g. Create for the CreateHandler
+   */
+  String operationName() {
+    return getClass().getSimpleName().replace("Handler", "");
+  }
+
   protected abstract ProgressEvent<ResourceModel, CallbackContext> handleRequest(
     final AmazonWebServicesClientProxy proxy,
     final ResourceHandlerRequest<ResourceModel> request,
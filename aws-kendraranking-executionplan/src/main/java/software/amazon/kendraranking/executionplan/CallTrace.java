@@ -0,0 +1,237 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Spans of the Kendra Ranking calls made during one handler invocation, one per call and one per SDK attempt
+ * of it, labelled with the call graph the call was made in. The summary tells apart time spent on the wire,
+ * time the SDK spent around it (marshalling, signing and retry backoff) and the rest of the invocation,
+ * which is the handler's own work and waiting. Off unless KENDRA_RANKING_TRACE_ENABLED=true, the summary is
+ * then logged at the end of every invocation.
+ */
+class CallTrace {
+
+  static final String ENABLED_ENV = "KENDRA_RANKING_TRACE_ENABLED";
+
+  // Call in progress on this thread, set by InstrumentedProxyClient for the TracingInterceptor. Sync SDK
+  // clients run the interceptors on the calling thread, including calls made from the shared pool.
+  private static final ThreadLocal<Call> CURRENT = new ThreadLocal<>();
+
+  static final class Attempt {
+    private final long startNanos;
+    private long endNanos;
+    private boolean open = true;
+    // 0 when the attempt failed before a response came back
+    private int statusCode;
+    // -1 when the Content-Length isn't known
+    private final long requestBytes;
+    private long responseBytes = -1;
+
+    private Attempt(long startNanos, long requestBytes) {
+      this.startNanos = startNanos;
+      this.requestBytes = requestBytes;
+    }
+
+    private void close(long nanos) {
+      endNanos = nanos;
+      open = false;
+    }
+  }
+
+  static final class Call {
+    private final CallTrace trace;
+    private final String callGraph;
+    private final String api;
+    private final long startNanos;
+    private long endNanos;
+    private boolean failed;
+    private final List<Attempt> attempts = new ArrayList<>();
+
+    private Call(CallTrace trace, String callGraph, String api, long startNanos) {
+      this.trace = trace;
+      this.callGraph = callGraph;
+      this.api = api;
+      this.startNanos = startNanos;
+    }
+
+    /**
+     * @param requestBytes Content-Length of the request, -1 when unknown
+     */
+    void beginAttempt(long requestBytes) {
+      long now = trace.nanoTime.getAsLong();
+      // An attempt that failed without a response is only noticed once the SDK retries
+      closeOpenAttempt(now);
+      attempts.add(new Attempt(now, requestBytes));
+    }
+
+    /**
+     * @param statusCode http status of the response
+     * @param responseBytes Content-Length of the response, -1 when unknown
+     */
+    void endAttempt(int statusCode, long responseBytes) {
+      if (attempts.isEmpty() || !last().open) {
+        return;
+      }
+      Attempt attempt = last();
+      attempt.close(trace.nanoTime.getAsLong());
+      attempt.statusCode = statusCode;
+      attempt.responseBytes = responseBytes;
+    }
+
+    List<Attempt> getAttempts() {
+      return attempts;
+    }
+
+    String getCallGraph() {
+      return callGraph;
+    }
+
+    String getApi() {
+      return api;
+    }
+
+    private long wireNanos() {
+      long wireNanos = 0L;
+      for (Attempt attempt : attempts) {
+        wireNanos += attempt.endNanos - attempt.startNanos;
+      }
+      return wireNanos;
+    }
+
+    private void closeOpenAttempt(long now) {
+      if (!attempts.isEmpty() && last().open) {
+        last().close(now);
+      }
+    }
+
+    private Attempt last() {
+      return attempts.get(attempts.size() - 1);
+    }
+  }
+
+  private final String operation;
+  private final LongSupplier nanoTime;
+  private final long startNanos;
+  private final List<Call> calls = Collections.synchronizedList(new ArrayList<>());
+
+  CallTrace(String operation) {
+    this(operation, System::nanoTime);
+  }
+
+  CallTrace(String operation, LongSupplier nanoTime) {
+    this.operation = operation;
+    this.nanoTime = nanoTime;
+    this.startNanos = nanoTime.getAsLong();
+  }
+
+  static boolean isEnabledByEnvironment() {
+    return Boolean.parseBoolean(System.getenv(ENABLED_ENV));
+  }
+
+  /**
+   * @return call in progress on this thread, null outside of a traced call
+   */
+  static Call current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Starts a call and makes it the current one of this thread.
+   * @param callGraph call graph the call is made in, the operation when made outside of one
+   * @param api name of the api, one of {@link ApiName}
+   * @return the call
+   */
+  Call begin(String callGraph, String api) {
+    Call call = new Call(this, callGraph == null ? operation : callGraph, api, nanoTime.getAsLong());
+    calls.add(call);
+    CURRENT.set(call);
+    return call;
+  }
+
+  /**
+   * @param call call started by {@link #begin}
+   * @param failed whether the call threw
+   */
+  void end(Call call, boolean failed) {
+    long now = nanoTime.getAsLong();
+    call.closeOpenAttempt(now);
+    call.endNanos = now;
+    call.failed = failed;
+    CURRENT.remove();
+  }
+
+  List<Call> getCalls() {
+    synchronized (calls) {
+      return new ArrayList<>(calls);
+    }
+  }
+
+  /**
+   * @return one line summary of the invocation, followed by one group per call graph and api
+   */
+  String summary() {
+    long elapsed = nanoTime.getAsLong() - startNanos;
+    Map<String, Group> groups = new LinkedHashMap<>();
+    long inSdk = 0L;
+    long onWire = 0L;
+    int attempts = 0;
+    int callCount = 0;
+    for (Call call : getCalls()) {
+      callCount++;
+      Group group = groups.computeIfAbsent(call.callGraph + " " + call.api, key -> new Group());
+      group.add(call);
+      inSdk += call.endNanos - call.startNanos;
+      onWire += call.wireNanos();
+      attempts += call.attempts.size();
+    }
+
+    StringBuilder summary = new StringBuilder(String.format(
+        "%s %s trace: elapsedMillis=%d inSdkMillis=%d onWireMillis=%d handlerMillis=%d calls=%d attempts=%d retries=%d",
+        ResourceModel.TYPE_NAME, operation, millis(elapsed), millis(inSdk), millis(onWire), millis(elapsed - inSdk),
+        callCount, attempts, Math.max(0, attempts - callCount)));
+    groups.forEach((name, group) -> summary.append(" | ").append(name).append(' ').append(group));
+    return summary.toString();
+  }
+
+  private static long millis(long nanos) {
+    return TimeUnit.NANOSECONDS.toMillis(nanos);
+  }
+
+  private static final class Group {
+    private int calls;
+    private int failures;
+    private int attempts;
+    private long sdkNanos;
+    private long wireNanos;
+    private long requestBytes;
+    private long responseBytes;
+    private final Map<Integer, Integer> statusCodes = new LinkedHashMap<>();
+
+    private void add(Call call) {
+      calls++;
+      failures += call.failed ? 1 : 0;
+      attempts += call.attempts.size();
+      sdkNanos += call.endNanos - call.startNanos;
+      wireNanos += call.wireNanos();
+      for (Attempt attempt : call.attempts) {
+        requestBytes += Math.max(0L, attempt.requestBytes);
+        responseBytes += Math.max(0L, attempt.responseBytes);
+        statusCodes.merge(attempt.statusCode, 1, Integer::sum);
+      }
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder status = new StringBuilder();
+      statusCodes.forEach((code, count) -> status.append(status.length() == 0 ? "" : ",").append(code).append('x').append(count));
+      return String.format("calls=%d failures=%d attempts=%d sdkMillis=%d wireMillis=%d status=%s bytesOut=%d bytesIn=%d",
+          calls, failures, attempts, millis(sdkNanos), millis(wireNanos), status, requestBytes, responseBytes);
+    }
+  }
+}
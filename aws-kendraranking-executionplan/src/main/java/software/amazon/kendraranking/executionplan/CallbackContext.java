@@ -8,4 +8,14 @@ import software.amazon.cloudformation.proxy.StdCallbackContext;
 @lombok.EqualsAndHashCode(callSuper = true)
 public class CallbackContext extends StdCallbackContext {
   private boolean isDeleteWorkflow = false;
+  // Last RescoreExecutionPlanStatus seen while stabilizing, drives the StabilizationSchedule
+  private String lastObservedStatus;
+  // Client token of the create call, reused by every re-invocation so a retried create can't start a second plan
+  private String clientToken;
+  // Stabilization metrics, kept across re-invocations by the StabilizationEngine
+  private int stabilizationPolls;
+  private int stabilizationThrottles;
+  private long stabilizationStartedAt;
+  // Tags are written outside of the proxy's call graphs, so re-invocations check this instead of tagging again
+  private boolean tagsReconciled;
 }
@@ -0,0 +1,209 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+
+/**
+ * Circuit breaker around one regional Kendra Ranking endpoint, shared by the invocations of a warm container.
+ * It opens once the share of 5xx and client side (connection, timeout) errors among the last calls reaches
+ * the threshold. While open, calls fail fast with a {@link CircuitBreakerOpenException} instead of waiting
+ * out SDK timeouts. After the open duration a single probe call is let through: HALF_OPEN. It closes the
+ * breaker if it succeeds and opens it again if it fails.
+ */
+class CircuitBreaker {
+
+  enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  /**
+   * Told about every state change, e.g. to record it as a metric.
+   */
+  interface Listener {
+    void stateChanged(State from, State to);
+  }
+
+  static final String ENABLED_ENV = "KENDRA_RANKING_BREAKER_ENABLED";
+  static final String FAILURE_RATE_PERCENT_ENV = "KENDRA_RANKING_BREAKER_FAILURE_RATE_PERCENT";
+  static final String WINDOW_SIZE_ENV = "KENDRA_RANKING_BREAKER_WINDOW_SIZE";
+  static final String MINIMUM_CALLS_ENV = "KENDRA_RANKING_BREAKER_MINIMUM_CALLS";
+  static final String OPEN_SECONDS_ENV = "KENDRA_RANKING_BREAKER_OPEN_SECONDS";
+
+  static final int DEFAULT_FAILURE_RATE_PERCENT = 50;
+  static final int DEFAULT_WINDOW_SIZE = 20;
+  static final int DEFAULT_MINIMUM_CALLS = 10;
+  static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(30);
+
+  // How long a call turned away while the probe is in flight is told to wait
+  static final Duration PROBE_RETRY_AFTER = Duration.ofSeconds(5);
+
+  private static final ConcurrentMap<String, CircuitBreaker> BY_REGION = new ConcurrentHashMap<>();
+
+  private final String region;
+  private final int failureRatePercent;
+  private final int minimumCalls;
+  private final Duration openDuration;
+  private final Clock clock;
+
+  // Outcomes of the last calls, true for a failure, used as a ring buffer
+  private final boolean[] window;
+  private int windowNext;
+  private int windowCalls;
+  private int windowFailures;
+
+  private State state = State.CLOSED;
+  private long openedAt;
+  private boolean probeInFlight;
+
+  CircuitBreaker(String region, int failureRatePercent, int windowSize, int minimumCalls, Duration openDuration,
+      Clock clock) {
+    this.region = region;
+    this.failureRatePercent = failureRatePercent;
+    this.window = new boolean[windowSize];
+    this.minimumCalls = minimumCalls;
+    this.openDuration = openDuration;
+    this.clock = clock;
+  }
+
+  /**
+   * @param region region of the endpoint
+   * @return breaker of the region's endpoint, configured by the environment, null when breakers are disabled
+   */
+  static CircuitBreaker forRegion(String region) {
+    String enabled = System.getenv(ENABLED_ENV);
+    if (enabled != null && !Boolean.parseBoolean(enabled)) {
+      return null;
+    }
+    return BY_REGION.computeIfAbsent(String.valueOf(region), CircuitBreaker::fromEnvironment);
+  }
+
+  static void resetAll() {
+    BY_REGION.clear();
+  }
+
+  private static CircuitBreaker fromEnvironment(String region) {
+    String openSeconds = System.getenv(OPEN_SECONDS_ENV);
+    return new CircuitBreaker(region,
+        intFromEnvironment(FAILURE_RATE_PERCENT_ENV, DEFAULT_FAILURE_RATE_PERCENT),
+        intFromEnvironment(WINDOW_SIZE_ENV, DEFAULT_WINDOW_SIZE),
+        intFromEnvironment(MINIMUM_CALLS_ENV, DEFAULT_MINIMUM_CALLS),
+        openSeconds == null ? DEFAULT_OPEN_DURATION : Duration.ofSeconds(Long.parseLong(openSeconds)),
+        Clock.systemUTC());
+  }
+
+  /**
+   * A failure is an error that says the endpoint itself is unhealthy. Throttling and other 4xx errors
+   * are answers from a healthy endpoint.
+   * @param error what the call threw
+   * @return whether the error counts towards opening the breaker
+   */
+  static boolean isFailure(Throwable error) {
+    if (error instanceof SdkServiceException) {
+      SdkServiceException serviceException = (SdkServiceException) error;
+      return serviceException.statusCode() >= 500 && !serviceException.isThrottlingException();
+    }
+    return error instanceof SdkClientException;
+  }
+
+  /**
+   * @param listener told when the open duration is over and the breaker goes HALF_OPEN
+   * @return whether the call may go ahead, in which case its outcome has to be recorded
+   */
+  synchronized boolean tryAcquire(Listener listener) {
+    if (state == State.OPEN) {
+      if (clock.millis() - openedAt < openDuration.toMillis()) {
+        return false;
+      }
+      transition(State.HALF_OPEN, listener);
+    }
+    if (state == State.HALF_OPEN) {
+      if (probeInFlight) {
+        return false;
+      }
+      probeInFlight = true;
+    }
+    return true;
+  }
+
+  synchronized void recordSuccess(Listener listener) {
+    if (state == State.HALF_OPEN) {
+      probeInFlight = false;
+      resetWindow();
+      transition(State.CLOSED, listener);
+    } else if (state == State.CLOSED) {
+      record(false);
+    }
+  }
+
+  synchronized void recordFailure(Listener listener) {
+    if (state == State.HALF_OPEN) {
+      probeInFlight = false;
+      open(listener);
+    } else if (state == State.CLOSED) {
+      record(true);
+      if (windowCalls >= minimumCalls && windowFailures * 100 >= failureRatePercent * windowCalls) {
+        open(listener);
+      }
+    }
+  }
+
+  /**
+   * @return how long a caller turned away should wait before trying again
+   */
+  synchronized Duration retryAfter() {
+    if (state == State.OPEN) {
+      long remaining = openDuration.toMillis() - (clock.millis() - openedAt);
+      return Duration.ofMillis(Math.max(remaining, PROBE_RETRY_AFTER.toMillis()));
+    }
+    return PROBE_RETRY_AFTER;
+  }
+
+  synchronized State getState() {
+    return state;
+  }
+
+  String getRegion() {
+    return region;
+  }
+
+  private void record(boolean failure) {
+    if (windowCalls == window.length) {
+      windowFailures -= window[windowNext] ? 1 : 0;
+    } else {
+      windowCalls++;
+    }
+    window[windowNext] = failure;
+    windowFailures += failure ? 1 : 0;
+    windowNext = (windowNext + 1) % window.length;
+  }
+
+  private void resetWindow() {
+    windowNext = 0;
+    windowCalls = 0;
+    windowFailures = 0;
+  }
+
+  private void open(Listener listener) {
+    openedAt = clock.millis();
+    resetWindow();
+    transition(State.OPEN, listener);
+  }
+
+  private void transition(State to, Listener listener) {
+    State from = state;
+    state = to;
+    listener.stateChanged(from, to);
+  }
+
+  private static int intFromEnvironment(String name, int defaultValue) {
+    String value = System.getenv(name);
+    return value == null ? defaultValue : Integer.parseInt(value);
+  }
+}
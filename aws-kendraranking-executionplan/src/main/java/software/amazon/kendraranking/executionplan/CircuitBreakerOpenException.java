@@ -0,0 +1,23 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.time.Duration;
+
+/**
+ * Thrown instead of making a call while the region's {@link CircuitBreaker} is open.
+ */
+class CircuitBreakerOpenException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  private final Duration retryAfter;
+
+  CircuitBreakerOpenException(String region, Duration retryAfter) {
+    super(String.format("Kendra Ranking endpoint in %s is failing, calls are paused for %d seconds",
+        region, retryAfter.getSeconds()));
+    this.retryAfter = retryAfter;
+  }
+
+  Duration getRetryAfter() {
+    return retryAfter;
+  }
+}
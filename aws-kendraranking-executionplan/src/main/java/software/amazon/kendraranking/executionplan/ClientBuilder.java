@@ -3,55 +3,101 @@ package software.amazon.kendraranking.executionplan;
 import com.google.common.collect.ImmutableMap;
 
 import java.net.URI;
-import java.time.Duration;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.BiFunction;
 
 import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.kendraranking.KendraRankingClient;
 import software.amazon.cloudformation.LambdaWrapper;
-import software.amazon.awssdk.core.retry.RetryPolicy;
-import software.amazon.awssdk.core.retry.backoff.BackoffStrategy;
-import software.amazon.awssdk.core.retry.backoff.EqualJitterBackoffStrategy;
-import software.amazon.awssdk.core.retry.conditions.RetryCondition;
 
 public class ClientBuilder {
 
-//  private static final BackoffStrategy KENDRA_RANKING_BACKOFF_THROTTLING_STRATEGY =
-//      EqualJitterBackoffStrategy.builder()
-//          .baseDelay(Duration.ofMinutes(1))
-//          .maxBackoffTime(Duration.ofMinutes(2))
-//          .build();
-//
-//  private static final RetryPolicy KENDRA_RANKING_RETRY_POLICY =
-//      RetryPolicy.builder()
-//          .numRetries(3)
-//          .retryCondition(RetryCondition.defaultRetryCondition())
-//          .throttlingBackoffStrategy(KENDRA_RANKING_BACKOFF_THROTTLING_STRATEGY)
-//          .build();
+  // Warm containers keep serving the same few regions, so a handful of clients is plenty.
+  // Least recently used clients are dropped once the bound is reached.
+  static final int MAX_CACHED_CLIENTS = 8;
+
+  // Clients are keyed by endpoint, which already encodes the region. They all share
+  // LambdaWrapper.HTTP_CLIENT, so an evicted client holds no connections of its own and is
+  // simply left to the garbage collector rather than closed underneath a concurrent caller.
+  private static final Map<String, KendraRankingClient> CLIENTS =
+      new LinkedHashMap<String, KendraRankingClient>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, KendraRankingClient> eldest) {
+          return size() > MAX_CACHED_CLIENTS;
+        }
+      };
+
+  // Stateless, shared by every cached client
+  private static final TracingInterceptor TRACING_INTERCEPTOR = new TracingInterceptor();
+
+  // Adaptive retries with client side rate limiting, see RetrySettings
+  private static final RetrySettings RETRY_SETTINGS = RetrySettings.fromEnvironment();
+
+  /**
+   * Returns the client for the region, building it on first use and reusing it for every
+   * subsequent handler invocation served by this container.
+   * @param region region the request targets
+   * @return shared client for the region's endpoint
+   */
   public static KendraRankingClient getClient(String region) {
-    return KendraRankingClient.builder().httpClient(LambdaWrapper.HTTP_CLIENT)
+    return getClient(region, ClientBuilder::newClient);
+  }
+
+  // The factory lets tests check the caching without building real clients
+  static KendraRankingClient getClient(String region, BiFunction<String, String, KendraRankingClient> factory) {
+    final String endpoint = endpoint(region);
+    synchronized (CLIENTS) {
+      return CLIENTS.computeIfAbsent(endpoint, key -> factory.apply(region, key));
+    }
+  }
+
+  static KendraRankingClient newClient(String region, String endpoint) {
+    final long start = System.nanoTime();
+    final KendraRankingClient client = KendraRankingClient.builder().httpClient(LambdaWrapper.HTTP_CLIENT)
         // TODO remove region after opensearch launch
-        .endpointOverride(URI.create("https://kendra-ranking." + region + ".api.aws"))
+        .endpointOverride(URI.create(endpoint))
         .overrideConfiguration(ClientOverrideConfiguration.builder()
-            //.retryPolicy(KENDRA_RANKING_RETRY_POLICY)
+            .retryPolicy(RETRY_SETTINGS.toRetryPolicy())
+            .addExecutionInterceptor(TRACING_INTERCEPTOR)
             .build())
-        .region(REGIONS.get(region))
+        .region(Regions.REGIONS.get(region))
         .build();
+    StartupProfile.get().record(StartupProfile.Phase.CLIENT, start);
+    return client;
   }
 
-  // TODO remove after opensearch launch
-  static final Map<String, Region> REGIONS = ImmutableMap.<String, Region>builder()
-      .put("us-west-2", Region.US_WEST_2)
-      .put("us-east-1", Region.US_EAST_1)
-      .put("us-east-2", Region.US_EAST_2)
-      .put("eu-west-1", Region.EU_WEST_1)
-      .put("ap-south-1", Region.AP_SOUTH_1)
-      .put("ap-southeast-1", Region.AP_SOUTHEAST_1)
-      .put("ap-southeast-2", Region.AP_SOUTHEAST_2)
-      .put("ca-central-1", Region.CA_CENTRAL_1)
-      .build();
+  static String endpoint(String region) {
+    return "https://kendra-ranking." + region + ".api.aws";
+  }
 
+  static int cachedClientCount() {
+    synchronized (CLIENTS) {
+      return CLIENTS.size();
+    }
+  }
 
+  static void clearCachedClients() {
+    synchronized (CLIENTS) {
+      CLIENTS.clear();
+    }
+  }
 
+  // TODO remove after opensearch launch
+  // In a holder class, so the map is only built, and Guava's collections only loaded, with the first client
+  private static final class Regions {
+    static final Map<String, Region> REGIONS = ImmutableMap.<String, Region>builder()
+        .put("us-west-2", Region.US_WEST_2)
+        .put("us-east-1", Region.US_EAST_1)
+        .put("us-east-2", Region.US_EAST_2)
+        .put("eu-west-1", Region.EU_WEST_1)
+        .put("ap-south-1", Region.AP_SOUTH_1)
+        .put("ap-southeast-1", Region.AP_SOUTHEAST_1)
+        .put("ap-southeast-2", Region.AP_SOUTHEAST_2)
+        .put("ca-central-1", Region.CA_CENTRAL_1)
+        .build();
+  }
 }
@@ -0,0 +1,67 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Small bounded pool shared by all handlers to issue independent service calls of one invocation
+ * at the same time, e.g. DescribeRescoreExecutionPlan and ListTagsForResource in the ReadHandler.
+ */
+class ConcurrentCalls {
+
+  // Lambda runs one invocation per container at a time, a few threads cover every fan out we do
+  static final int POOL_SIZE = 4;
+
+  private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(POOL_SIZE, new DaemonThreadFactory());
+
+  static Executor executor() {
+    return EXECUTOR;
+  }
+
+  /**
+   * Waits for the future and rethrows the exception the call failed with, so callers can keep
+   * mapping service exceptions exactly like they do for synchronous calls.
+   * @param future future of the service call
+   * @param <T> response type
+   * @return response of the call
+   */
+  static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Waits for the future to finish without caring about its outcome, used to make sure a concurrent
+   * call doesn't outlive an invocation that is already failing for another reason.
+   * @param future future of the service call
+   */
+  static void awaitQuietly(CompletableFuture<?> future) {
+    future.handle((response, e) -> null).join();
+  }
+
+  private static class DaemonThreadFactory implements ThreadFactory {
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "kendra-ranking-call-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
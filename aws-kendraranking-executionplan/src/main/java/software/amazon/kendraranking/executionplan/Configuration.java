@@ -1,8 +1,49 @@
 package software.amazon.kendraranking.executionplan;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
 class Configuration extends BaseConfiguration {
 
+    static final String SCHEMA_FILENAME = "aws-kendraranking-executionplan.json";
+
+    // Parsed once per container rather than per wrapper instance, see schema()
+    private static final class Schema {
+        static final JSONObject JSON = load();
+    }
+
     public Configuration() {
-        super("aws-kendraranking-executionplan.json");
+        super(SCHEMA_FILENAME);
+        // The wrapper is built while the container initializes, so the schema is parsed then
+        // instead of in the first create or update request that validates against it
+        schema();
+        SnapStartPriming.register();
+    }
+
+    @Override
+    public JSONObject resourceSchemaJSONObject() {
+        return schema();
+    }
+
+    static JSONObject schema() {
+        return Schema.JSON;
+    }
+
+    private static JSONObject load() {
+        final long start = System.nanoTime();
+        try (InputStream schema = Configuration.class.getClassLoader().getResourceAsStream(SCHEMA_FILENAME)) {
+            if (schema == null) {
+                throw new IllegalStateException(SCHEMA_FILENAME + " is missing from the classpath");
+            }
+            final JSONObject json = new JSONObject(new JSONTokener(schema));
+            StartupProfile.get().record(StartupProfile.Phase.SCHEMA, start);
+            return json;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
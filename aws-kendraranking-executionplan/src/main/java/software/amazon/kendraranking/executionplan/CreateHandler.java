@@ -2,15 +2,15 @@ package software.amazon.kendraranking.executionplan;
 
 import static software.amazon.kendraranking.executionplan.ApiName.CREATE_EXECUTION_PLAN;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
-import java.util.function.BiFunction;
-import java.util.function.Function;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
 
 import software.amazon.awssdk.awscore.exception.AwsServiceException;
 import software.amazon.awssdk.core.exception.RetryableException;
 import software.amazon.awssdk.services.kendraranking.model.AccessDeniedException;
 import software.amazon.awssdk.services.kendraranking.model.ConflictException;
-import software.amazon.awssdk.services.kendraranking.model.DescribeRescoreExecutionPlanRequest;
 import software.amazon.awssdk.services.kendraranking.model.DescribeRescoreExecutionPlanResponse;
 import software.amazon.awssdk.services.kendraranking.model.RescoreExecutionPlanStatus;
 import software.amazon.awssdk.services.kendraranking.model.ServiceQuotaExceededException;
@@ -22,7 +22,6 @@ import software.amazon.awssdk.services.kendraranking.model.CreateRescoreExecutio
 import software.amazon.cloudformation.exceptions.CfnAccessDeniedException;
 import software.amazon.cloudformation.exceptions.CfnGeneralServiceException;
 import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
-import software.amazon.cloudformation.exceptions.CfnNotStabilizedException;
 import software.amazon.cloudformation.exceptions.CfnResourceConflictException;
 import software.amazon.cloudformation.exceptions.CfnServiceLimitExceededException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
@@ -31,35 +30,57 @@ import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
-import software.amazon.cloudformation.proxy.delay.Constant;
 
 public class CreateHandler extends BaseHandlerStd {
 
-    private static final Constant STABILIZATION_DELAY = Constant.of()
-        // Set the timeout to something silly/way too high, because
-        // we already set the timeout in the schema https://github.com/aws-cloudformation/aws-cloudformation-resource-schema
-        .timeout(Duration.ofDays(365L))
-        // Set the delay to two minutes so the stabilization code only calls
-        // DescribeRescoreExecutionPlan every one minute
-        .delay(Duration.ofMinutes(2))
+    private static final String CREATE_CALL_GRAPH = "AWS-KendraRanking-ExecutionPlan::Create";
+
+    static final StabilizationSchedule STABILIZATION_SCHEDULE = StabilizationSchedule.builder(
+            ExponentialJitterDelay.of()
+                // Set the timeout to something silly/way too high, because
+                // we already set the timeout in the schema https://github.com/aws-cloudformation/aws-cloudformation-resource-schema
+                .timeout(Duration.ofDays(365L))
+                // Poll quickly at first so plans that go ACTIVE early don't wait out a full cycle,
+                // then back off to the previous two minute interval
+                .initialDelay(Duration.ofSeconds(10))
+                .maxDelay(Duration.ofMinutes(2))
+                .build())
+        .status(RescoreExecutionPlanStatus.CREATING, ExponentialJitterDelay.of()
+            .timeout(Duration.ofDays(365L))
+            .initialDelay(Duration.ofSeconds(15))
+            .maxDelay(Duration.ofMinutes(2))
+            .build())
         .build();
 
-    private Delay delay;
-
-    private static final BiFunction<ResourceModel, ProxyClient<KendraRankingClient>, ResourceModel> EMPTY_CALL =
-        (model, proxyClient) -> model;
-
+    private StabilizationEngine stabilizationEngine;
 
   private ExecutionPlanArnBuilder executionPlanArnBuilder;
 
+  private DescribeCache describeCache;
+
   public CreateHandler() {
-    this(new ExecutionPlanPlanArn(), STABILIZATION_DELAY);
+    this(new ExecutionPlanPlanArn(), STABILIZATION_SCHEDULE, InProcessWait.fromEnvironment(), DescribeCache.shared());
   }
 
   public CreateHandler(ExecutionPlanArnBuilder executionPlanArnBuilder, Delay delay) {
+    this(executionPlanArnBuilder, StabilizationSchedule.uniform(delay));
+  }
+
+  public CreateHandler(ExecutionPlanArnBuilder executionPlanArnBuilder, StabilizationSchedule stabilizationSchedule) {
+    this(executionPlanArnBuilder, stabilizationSchedule, InProcessWait.disabled());
+  }
+
+  CreateHandler(ExecutionPlanArnBuilder executionPlanArnBuilder, StabilizationSchedule stabilizationSchedule,
+      InProcessWait inProcessWait) {
+    this(executionPlanArnBuilder, stabilizationSchedule, inProcessWait, DescribeCache.disabled());
+  }
+
+  CreateHandler(ExecutionPlanArnBuilder executionPlanArnBuilder, StabilizationSchedule stabilizationSchedule,
+      InProcessWait inProcessWait, DescribeCache describeCache) {
     super();
     this.executionPlanArnBuilder = executionPlanArnBuilder;
-    this.delay = delay;
+    this.describeCache = describeCache;
+    this.stabilizationEngine = new StabilizationEngine(stabilizationSchedule, StabilizationEngine.Target.ACTIVE, inProcessWait);
   }
 
 
@@ -75,19 +96,64 @@ public class CreateHandler extends BaseHandlerStd {
           model.setTags(Translator.transformTags(request.getDesiredResourceTags()));
         }
 
+        if (callbackContext.getClientToken() == null) {
+          callbackContext.setClientToken(clientToken(request));
+        }
+
+        // Last describe response seen while stabilizing, reused to build the returned model
+        final AtomicReference<DescribeRescoreExecutionPlanResponse> lastDescribeResponse = new AtomicReference<>();
+
         return ProgressEvent.progress(request.getDesiredResourceState(), callbackContext)
             // STEP 1 [create progress chain - required for resource creation]
             .then(progress ->
-                proxy.initiate("AWS-KendraRanking-ExecutionPlan::Create", proxyClient, request.getDesiredResourceState(), callbackContext)
-                    .translateToServiceRequest(Translator::translateToCreateRequest)
+                proxy.initiate(CREATE_CALL_GRAPH, InstrumentedProxyClient.forCallGraph(proxyClient, CREATE_CALL_GRAPH),
+                        request.getDesiredResourceState(), callbackContext)
+                    .translateToServiceRequest(resourceModel ->
+                        Translator.translateToCreateRequest(resourceModel, callbackContext.getClientToken()))
                     .makeServiceCall((createRerankingEndpointRequest, kendraRankingClientProxyClient)
-                        -> createExecutionPlan(createRerankingEndpointRequest, kendraRankingClientProxyClient, logger))
+                        -> createExecutionPlan(createRerankingEndpointRequest, kendraRankingClientProxyClient,
+                            request.getAwsAccountId(), request.getRegion(), logger))
                     .done(this::setId)
             )
             // STEP 2 stabilize
-            .then(progress -> stabilize(proxy, proxyClient, progress, "AWS-KendraRanking-ExecutionPlan::PostCreateStabilize", logger))
-            // STEP 3 [describe call/chain to return the resource model]
-            .then(progress -> new ReadHandler(executionPlanArnBuilder).handleRequest(proxy, request, callbackContext, proxyClient, logger));
+            .then(progress -> stabilizationEngine.stabilize(proxy, proxyClient, progress,
+                "AWS-KendraRanking-ExecutionPlan::PostCreateStabilize", lastDescribeResponse, logger))
+            // STEP 3 [return the resource model from the describe call that ended stabilization]
+            .then(progress -> constructResourceModel(proxy, request, callbackContext, proxyClient, lastDescribeResponse.get(), logger));
+    }
+
+    /**
+     * Derives the client token from the request rather than generating one, so an invocation that timed out
+     * before its callback context was persisted still retries with the same token. The request token is unique
+     * per stack operation, the stack and logical id tell the resources of one operation apart. Without a request
+     * token there is nothing operation specific to derive from, and a random token keeps separate creates apart.
+     * @param request the create request
+     * @return client token of the create call
+     */
+    static String clientToken(final ResourceHandlerRequest<ResourceModel> request) {
+      if (request.getClientRequestToken() == null) {
+        return UUID.randomUUID().toString();
+      }
+      String seed = request.getStackId() + ":" + request.getLogicalResourceIdentifier() + ":" + request.getClientRequestToken();
+      return UUID.nameUUIDFromBytes(seed.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    private ProgressEvent<ResourceModel, CallbackContext> constructResourceModel(
+        final AmazonWebServicesClientProxy proxy,
+        final ResourceHandlerRequest<ResourceModel> request,
+        final CallbackContext callbackContext,
+        final ProxyClient<KendraRankingClient> proxyClient,
+        final DescribeRescoreExecutionPlanResponse describeRescoreExecutionPlanResponse,
+        final Logger logger) {
+      if (describeRescoreExecutionPlanResponse == null) {
+        return new ReadHandler(executionPlanArnBuilder, ConcurrentCalls.executor(), describeCache)
+            .handleRequest(proxy, request, callbackContext, proxyClient, logger);
+      }
+      // Fresh from stabilization, the read CloudFormation usually sends next can be answered from it
+      describeCache.put(request.getAwsAccountId(), request.getRegion(), describeRescoreExecutionPlanResponse);
+      // The plan was created with exactly the desired tags, no need to list them again
+      return ProgressEvent.defaultSuccessHandler(Translator.translateFromReadResponse(describeRescoreExecutionPlanResponse,
+          request.getDesiredResourceState().getTags(), executionPlanArnBuilder.build(request)));
     }
 
     private ProgressEvent<ResourceModel, CallbackContext> setId(CreateRescoreExecutionPlanRequest createRescoreExecutionPlanRequest,
@@ -101,42 +167,11 @@ public class CreateHandler extends BaseHandlerStd {
     }
 
 
-    private ProgressEvent<ResourceModel, CallbackContext> stabilize(
-        final AmazonWebServicesClientProxy proxy,
-        final ProxyClient<KendraRankingClient> proxyClient,
-        final ProgressEvent<ResourceModel, CallbackContext> progress,
-        String callGraph,
-        final Logger logger) {
-      return proxy.initiate(callGraph, proxyClient, progress.getResourceModel(),
-              progress.getCallbackContext())
-          .translateToServiceRequest(Function.identity())
-          .backoffDelay(delay)
-          .makeServiceCall(EMPTY_CALL)
-          .stabilize((request, response, proxyInvocation, model, callbackContext) ->
-              isStabilized(proxyInvocation, model, logger)).progress();
-    }
-
-    private boolean isStabilized(final ProxyClient<KendraRankingClient> proxyClient,
-        final ResourceModel model,
-        final Logger logger) {
-      DescribeRescoreExecutionPlanRequest describeRescoreExecutionPlanRequest = DescribeRescoreExecutionPlanRequest.builder()
-          .id(model.getId())
-          .build();
-      DescribeRescoreExecutionPlanResponse describeRescoreExecutionPlanResponse =
-          proxyClient.injectCredentialsAndInvokeV2(describeRescoreExecutionPlanRequest,
-          proxyClient.client()::describeRescoreExecutionPlan);
-      RescoreExecutionPlanStatus rerankingEndpointStatus = describeRescoreExecutionPlanResponse.status();
-      if (RescoreExecutionPlanStatus.FAILED.equals(rerankingEndpointStatus)) {
-        throw new CfnNotStabilizedException(ResourceModel.TYPE_NAME, model.getId());
-      }
-      boolean stabilized = RescoreExecutionPlanStatus.ACTIVE.equals(rerankingEndpointStatus);
-      logger.log(String.format("%s [%s] create has stabilized: %s", ResourceModel.TYPE_NAME, model.getPrimaryIdentifier(), stabilized));
-      return stabilized;
-    }
-
     private CreateRescoreExecutionPlanResponse createExecutionPlan(
         final CreateRescoreExecutionPlanRequest createRerankingEndpointRequest,
         final ProxyClient<KendraRankingClient> proxyClient,
+        final String accountId,
+        final String region,
         final Logger logger) {
       CreateRescoreExecutionPlanResponse createRescoreExecutionPlanResponse;
       try {
@@ -162,6 +197,7 @@ public class CreateHandler extends BaseHandlerStd {
          */
         throw new CfnGeneralServiceException(CREATE_EXECUTION_PLAN, e);
       }
+      describeCache.invalidate(accountId, region, createRescoreExecutionPlanResponse.id());
 
     logger.log(String.format("%s successfully called CreateRescoreExecutionPlan and received ID %s. " +
         "Still need to stabilize.", ResourceModel.TYPE_NAME, createRescoreExecutionPlanResponse.id()));
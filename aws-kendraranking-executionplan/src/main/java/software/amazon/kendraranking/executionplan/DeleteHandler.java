@@ -3,15 +3,15 @@ package software.amazon.kendraranking.executionplan;
 import static software.amazon.kendraranking.executionplan.ApiName.DELETE_EXECUTION_PLAN;
 
 import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
 
 import software.amazon.awssdk.awscore.exception.AwsServiceException;
 import software.amazon.awssdk.services.kendraranking.KendraRankingClient;
 import software.amazon.awssdk.services.kendraranking.model.ConflictException;
 import software.amazon.awssdk.services.kendraranking.model.DeleteRescoreExecutionPlanRequest;
 import software.amazon.awssdk.services.kendraranking.model.DeleteRescoreExecutionPlanResponse;
-import software.amazon.awssdk.services.kendraranking.model.DescribeRescoreExecutionPlanRequest;
+import software.amazon.awssdk.services.kendraranking.model.RescoreExecutionPlanStatus;
 import software.amazon.awssdk.services.kendraranking.model.ResourceNotFoundException;
-import software.amazon.awssdk.services.kendraranking.model.ThrottlingException;
 import software.amazon.cloudformation.exceptions.CfnGeneralServiceException;
 import software.amazon.cloudformation.exceptions.CfnNotFoundException;
 import software.amazon.cloudformation.exceptions.CfnResourceConflictException;
@@ -21,26 +21,50 @@ import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
-import software.amazon.cloudformation.proxy.delay.Constant;
 public class DeleteHandler extends BaseHandlerStd {
-  private static final Constant STABILIZATION_DELAY = Constant.of()
-      // Set the timeout to something silly/way too high, because
-      // we already set the timeout in the schema https://github.com/aws-cloudformation/aws-cloudformation-resource-schema
-      .timeout(Duration.ofDays(365L))
-      // Set the delay to two minutes so the stabilization code only calls
-      // DescribeRescoreExecutionPlan every one minute
-      .delay(Duration.ofMinutes(2))
+  private static final String DELETE_CALL_GRAPH = "AWS-KendraRanking-ExecutionPlan::Delete";
+
+  static final StabilizationSchedule STABILIZATION_SCHEDULE = StabilizationSchedule.builder(
+          ExponentialJitterDelay.of()
+              // Set the timeout to something silly/way too high, because
+              // we already set the timeout in the schema https://github.com/aws-cloudformation/aws-cloudformation-resource-schema
+              .timeout(Duration.ofDays(365L))
+              // Poll quickly at first so fast deletes return early, then back off to the
+              // previous two minute interval
+              .initialDelay(Duration.ofSeconds(10))
+              .maxDelay(Duration.ofMinutes(2))
+              .build())
+      .status(RescoreExecutionPlanStatus.DELETING, ExponentialJitterDelay.of()
+          .timeout(Duration.ofDays(365L))
+          .initialDelay(Duration.ofSeconds(20))
+          .maxDelay(Duration.ofMinutes(2))
+          .build())
       .build();
 
-    private Delay delay;
+    private StabilizationEngine stabilizationEngine;
+
+    private DescribeCache describeCache;
 
     public DeleteHandler() {
-      this(STABILIZATION_DELAY);
+      this(STABILIZATION_SCHEDULE, InProcessWait.fromEnvironment(), DescribeCache.shared());
     }
 
     public DeleteHandler(Delay delay) {
+      this(StabilizationSchedule.uniform(delay));
+    }
+
+    public DeleteHandler(StabilizationSchedule stabilizationSchedule) {
+      this(stabilizationSchedule, InProcessWait.disabled());
+    }
+
+    DeleteHandler(StabilizationSchedule stabilizationSchedule, InProcessWait inProcessWait) {
+      this(stabilizationSchedule, inProcessWait, DescribeCache.disabled());
+    }
+
+    DeleteHandler(StabilizationSchedule stabilizationSchedule, InProcessWait inProcessWait, DescribeCache describeCache) {
       super();
-      this.delay = delay;
+      this.describeCache = describeCache;
+      this.stabilizationEngine = new StabilizationEngine(stabilizationSchedule, StabilizationEngine.Target.DELETED, inProcessWait);
     }
 
   protected ProgressEvent<ResourceModel, CallbackContext> handleRequest(
@@ -66,23 +90,23 @@ public class DeleteHandler extends BaseHandlerStd {
         .then(progress ->
             // If your service API throws 'ResourceNotFoundException' for delete requests then DeleteHandler can return just proxy.initiate construction
             // STEP 2.0 [initialize a proxy context]
-            proxy.initiate("AWS-KendraRanking-ExecutionPlan::Delete", proxyClient, model, callbackContext)
+            proxy.initiate(DELETE_CALL_GRAPH, InstrumentedProxyClient.forCallGraph(proxyClient, DELETE_CALL_GRAPH), model, callbackContext)
                 // STEP 2.1 [TODO: construct a body of a request]
                 .translateToServiceRequest(Translator::translateToDeleteRequest)
-                .backoffDelay(delay)
+                .backoffDelay(stabilizationEngine.backoffDelay(callbackContext))
                 // STEP 2.2 [TODO: make an api call]
-                .makeServiceCall((awsRequest, sdkProxyClient) -> deleteExecutionPlan(awsRequest, sdkProxyClient, callbackContext, logger))
+                .makeServiceCall((awsRequest, sdkProxyClient) -> deleteExecutionPlan(awsRequest, sdkProxyClient, callbackContext,
+                    request.getAwsAccountId(), request.getRegion(), logger))
                 // STEP 2.3 [TODO: stabilize step is not necessarily required but typically involves describing the resource until it is in a certain status, though it can take many forms]
                 // for more information -> https://docs.aws.amazon.com/cloudformation-cli/latest/userguide/resource-type-test-contract.html
                 .stabilize((deleteRescoreExecutionPlanRequest,
                     deleteRescoreExecutionPlanResponse,
                     kendrarankingProxyClient,
                     modelStabilize,
-                    callbackContextStablize) -> stabilizedOnDelete(deleteRescoreExecutionPlanRequest,
-                    deleteRescoreExecutionPlanResponse,
-                    kendrarankingProxyClient,
+                    callbackContextStablize) -> stabilizationEngine.isStabilized(kendrarankingProxyClient,
                     modelStabilize,
                     callbackContextStablize,
+                    new AtomicReference<>(),
                     logger))
                 .done(this::setResourceModelToNullAndReturnSuccess));
   }
@@ -108,14 +132,18 @@ public class DeleteHandler extends BaseHandlerStd {
       final DeleteRescoreExecutionPlanRequest deleteRescoreExecutionPlanRequest,
       final ProxyClient<KendraRankingClient> proxyClient,
       final CallbackContext callbackContext,
+      final String accountId,
+      final String region,
       final Logger logger) {
     DeleteRescoreExecutionPlanResponse deleteRescoreExecutionPlanResponse;
     try {
       deleteRescoreExecutionPlanResponse = proxyClient.injectCredentialsAndInvokeV2(
           deleteRescoreExecutionPlanRequest, proxyClient.client()::deleteRescoreExecutionPlan);
       callbackContext.setDeleteWorkflow(true);
+      describeCache.invalidate(accountId, region, deleteRescoreExecutionPlanRequest.id());
     } catch (ResourceNotFoundException e) {
       // If the plan didn't exist before the delete request
+      describeCache.invalidate(accountId, region, deleteRescoreExecutionPlanRequest.id());
       throw new CfnNotFoundException(ResourceModel.TYPE_NAME, deleteRescoreExecutionPlanRequest.id(), e);
     } catch (ConflictException e) {
       // Execution plan must be in ACTIVE state before initiating delete
@@ -134,39 +162,4 @@ public class DeleteHandler extends BaseHandlerStd {
         ResourceModel.TYPE_NAME, deleteRescoreExecutionPlanRequest.id()));
     return deleteRescoreExecutionPlanResponse;
   }
-
-  /**
-   * If deletion of your resource requires some form of stabilization (e.g. propagation delay)
-   * for more information -> https://docs.aws.amazon.com/cloudformation-cli/latest/userguide/resource-type-test-contract.html
-   * @param deleteRescoreExecutionPlanRequest the aws service request to delete a resource
-   * @param deleteRescoreExecutionPlanResponse the aws service response to delete a resource
-   * @param proxyClient the aws service client to make the call
-   * @param model resource model
-   * @param callbackContext callback context
-   * @return boolean state of stabilized or not
-   */
-  private boolean stabilizedOnDelete(
-      final DeleteRescoreExecutionPlanRequest deleteRescoreExecutionPlanRequest,
-      final DeleteRescoreExecutionPlanResponse deleteRescoreExecutionPlanResponse,
-      final ProxyClient<KendraRankingClient> proxyClient,
-      final ResourceModel model,
-      final CallbackContext callbackContext,
-      final Logger logger) {
-
-    DescribeRescoreExecutionPlanRequest describeRescoreExecutionPlanRequest = DescribeRescoreExecutionPlanRequest.builder()
-        .id(model.getId())
-        .build();
-    boolean stabilized;
-    try {
-      proxyClient.injectCredentialsAndInvokeV2(describeRescoreExecutionPlanRequest,
-          proxyClient.client()::describeRescoreExecutionPlan);
-      stabilized = false;
-    } catch (ResourceNotFoundException e) {
-      stabilized = true;
-    } catch (ThrottlingException e) {
-      stabilized = false;
-    }
-    logger.log(String.format("%s [%s] deletion has stabilized: %s", ResourceModel.TYPE_NAME, model.getPrimaryIdentifier(), stabilized));
-    return stabilized;
-  }
 }
@@ -0,0 +1,179 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import software.amazon.awssdk.services.kendraranking.model.DescribeRescoreExecutionPlanResponse;
+import software.amazon.cloudformation.exceptions.CfnNotFoundException;
+
+/**
+ * Short lived cache of describe responses, shared by the handlers of a warm container. The same plan
+ * is described by create, update, the read that follows and drift checks within seconds of each other.
+ * Entries expire after the ttl, the least recently used one is evicted once the cache is full, and the
+ * handlers invalidate a plan whenever they write to it or find it gone. Stabilization polls never read from it.
+ * <p>
+ * A container serves any account and region, so entries are kept by account, region and plan id. Within
+ * those, an entry is shared by every caller: the read and the update's existence check can be answered
+ * with a describe made with another caller's credentials, e.g. another stack's role in the same account,
+ * within the ttl. Setting KENDRA_RANKING_DESCRIBE_CACHE_TTL_SECONDS=0 turns the cache off, so every
+ * handler describes the plan with the credentials of its own request.
+ */
+class DescribeCache {
+
+  static final String TTL_SECONDS_ENV = "KENDRA_RANKING_DESCRIBE_CACHE_TTL_SECONDS";
+  static final String MAX_ENTRIES_ENV = "KENDRA_RANKING_DESCRIBE_CACHE_SIZE";
+
+  // Short enough that a change made outside CloudFormation shows up on the next drift check
+  static final Duration DEFAULT_TTL = Duration.ofSeconds(5);
+  static final int DEFAULT_MAX_ENTRIES = 256;
+
+  private static final DescribeCache SHARED = fromEnvironment();
+
+  private static final class Entry {
+    private final DescribeRescoreExecutionPlanResponse response;
+    private final long expiresAt;
+
+    private Entry(DescribeRescoreExecutionPlanResponse response, long expiresAt) {
+      this.response = response;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+  private final Duration ttl;
+  private final int maxEntries;
+  private final Clock clock;
+  private final Map<String, Entry> entries;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  DescribeCache(Duration ttl, int maxEntries, Clock clock) {
+    this.ttl = ttl;
+    this.maxEntries = maxEntries;
+    this.clock = clock;
+    // Access order, so the eldest entry is the least recently used one
+    this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        return size() > DescribeCache.this.maxEntries;
+      }
+    };
+  }
+
+  /**
+   * @return cache shared by the handlers of this container
+   */
+  static DescribeCache shared() {
+    return SHARED;
+  }
+
+  /**
+   * @return cache that never holds anything, every describe goes to the service
+   */
+  static DescribeCache disabled() {
+    return new DescribeCache(Duration.ZERO, 0, Clock.systemUTC());
+  }
+
+  static DescribeCache fromEnvironment() {
+    String ttlSeconds = System.getenv(TTL_SECONDS_ENV);
+    String maxEntries = System.getenv(MAX_ENTRIES_ENV);
+    return new DescribeCache(ttlSeconds == null ? DEFAULT_TTL : Duration.ofSeconds(Long.parseLong(ttlSeconds)),
+        maxEntries == null ? DEFAULT_MAX_ENTRIES : Integer.parseInt(maxEntries),
+        Clock.systemUTC());
+  }
+
+  boolean isEnabled() {
+    return !ttl.isZero() && maxEntries > 0;
+  }
+
+  /**
+   * @param accountId account the plan belongs to
+   * @param region region the plan is in
+   * @param id id of the plan
+   * @return cached describe response, null when there is none or it expired
+   */
+  synchronized DescribeRescoreExecutionPlanResponse get(String accountId, String region, String id) {
+    if (!isEnabled()) {
+      return null;
+    }
+    String key = key(accountId, region, id);
+    Entry entry = entries.get(key);
+    if (entry == null || entry.expiresAt <= clock.millis()) {
+      if (entry != null) {
+        entries.remove(key);
+      }
+      misses.incrementAndGet();
+      return null;
+    }
+    hits.incrementAndGet();
+    return entry.response;
+  }
+
+  /**
+   * @param accountId account the plan belongs to
+   * @param region region the plan is in
+   * @param response describe response to cache under the plan's id
+   */
+  synchronized void put(String accountId, String region, DescribeRescoreExecutionPlanResponse response) {
+    if (!isEnabled() || response == null || response.id() == null) {
+      return;
+    }
+    entries.put(key(accountId, region, response.id()), new Entry(response, clock.millis() + ttl.toMillis()));
+  }
+
+  /**
+   * Drops the plan's entry, called after every write to the plan.
+   * @param accountId account the plan belongs to
+   * @param region region the plan is in
+   * @param id id of the plan
+   */
+  synchronized void invalidate(String accountId, String region, String id) {
+    if (id != null) {
+      entries.remove(key(accountId, region, id));
+    }
+  }
+
+  /**
+   * Runs a call on the plan and drops the plan's entry when the call finds the plan gone, so a plan
+   * deleted outside CloudFormation isn't answered from the cache again.
+   * @param accountId account the plan belongs to
+   * @param region region the plan is in
+   * @param id id of the plan
+   * @param call call that throws {@link CfnNotFoundException} when the plan doesn't exist
+   * @param <T> result type
+   * @return result of the call
+   */
+  <T> T invalidatingOnNotFound(String accountId, String region, String id, Supplier<T> call) {
+    try {
+      return call.get();
+    } catch (CfnNotFoundException e) {
+      invalidate(accountId, region, id);
+      throw e;
+    }
+  }
+
+  synchronized void clear() {
+    entries.clear();
+  }
+
+  synchronized int size() {
+    return entries.size();
+  }
+
+  long hits() {
+    return hits.get();
+  }
+
+  long misses() {
+    return misses.get();
+  }
+
+  private static String key(String accountId, String region, String id) {
+    return accountId + "/" + region + "/" + id;
+  }
+}
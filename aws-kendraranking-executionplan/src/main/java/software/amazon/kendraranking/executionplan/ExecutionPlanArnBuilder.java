@@ -4,5 +4,10 @@ import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 
 public interface ExecutionPlanArnBuilder {
   String build(ResourceHandlerRequest<ResourceModel> request);
-}
 
+  /**
+   * Builds the arn of another execution plan in the request's partition, region and account,
+   * e.g. for each plan returned by the list call
+   */
+  String build(ResourceHandlerRequest<ResourceModel> request, String executionPlanId);
+}
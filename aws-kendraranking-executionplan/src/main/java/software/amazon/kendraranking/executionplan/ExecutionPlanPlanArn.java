@@ -8,8 +8,13 @@ public class ExecutionPlanPlanArn implements ExecutionPlanArnBuilder {
 
   @Override
   public String build(ResourceHandlerRequest<ResourceModel> request) {
+    return build(request, request.getDesiredResourceState().getId());
+  }
+
+  @Override
+  public String build(ResourceHandlerRequest<ResourceModel> request, String executionPlanId) {
     return build(request.getAwsPartition(), request.getRegion(),
-        request.getAwsAccountId(), request.getDesiredResourceState().getId());
+        request.getAwsAccountId(), executionPlanId);
   }
 
   private String build(@NonNull String partition, @NonNull String region,
@@ -17,4 +22,3 @@ public class ExecutionPlanPlanArn implements ExecutionPlanArnBuilder {
     return String.format(planArnFormat, partition, region, accountId, executionPlanId);
   }
 }
-
@@ -0,0 +1,134 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Random;
+import java.util.function.DoubleSupplier;
+
+import com.google.common.base.Preconditions;
+import software.amazon.cloudformation.proxy.Delay;
+
+/**
+ * Stabilization delay that starts with short polls and grows exponentially up to a cap.
+ * Each delay is jittered downwards by up to {@code jitter} of its value so that stacks
+ * started together do not keep polling in lock step. Once the un-jittered delays handed out
+ * so far add up to the timeout, {@link Duration#ZERO} is returned to signal the proxy to stop
+ * waiting, matching the contract of the delays in {@code software.amazon.cloudformation.proxy.delay}.
+ */
+public class ExponentialJitterDelay implements Delay {
+
+  // Rather than ThreadLocalRandom, whose seeds a SnapStart snapshot would hand to every restored container
+  // alike. Reseeded after a restore, see SnapStartPriming
+  private static final Random JITTER_RANDOM = new Random();
+
+  private final long initialDelayMillis;
+  private final long maxDelayMillis;
+  private final long timeoutMillis;
+  private final double multiplier;
+  private final double jitter;
+  private final DoubleSupplier random;
+
+  private ExponentialJitterDelay(Builder builder) {
+    Preconditions.checkArgument(!builder.initialDelay.isNegative() && !builder.initialDelay.isZero(),
+        "initialDelay must be positive");
+    Preconditions.checkArgument(builder.maxDelay.compareTo(builder.initialDelay) >= 0,
+        "maxDelay must not be shorter than initialDelay");
+    Preconditions.checkArgument(builder.multiplier >= 1.0, "multiplier must be at least 1");
+    Preconditions.checkArgument(builder.jitter >= 0.0 && builder.jitter <= 1.0, "jitter must be between 0 and 1");
+    this.initialDelayMillis = builder.initialDelay.toMillis();
+    this.maxDelayMillis = builder.maxDelay.toMillis();
+    this.timeoutMillis = builder.timeout.toMillis();
+    this.multiplier = builder.multiplier;
+    this.jitter = builder.jitter;
+    this.random = builder.random;
+  }
+
+  public static Builder of() {
+    return new Builder();
+  }
+
+  @Override
+  public Duration nextDelay(int attempt) {
+    // Treat attempts as 1-based whether the proxy starts counting at zero or one
+    final int step = Math.max(attempt, 1);
+    if (elapsedBefore(step) >= timeoutMillis) {
+      return Duration.ZERO;
+    }
+    final long delay = delayFor(step);
+    final long jittered = delay - (long) (delay * jitter * random.getAsDouble());
+    return Duration.ofMillis(Math.max(jittered, 1L));
+  }
+
+  private long delayFor(int step) {
+    double delay = initialDelayMillis;
+    for (int i = 1; i < step && delay < maxDelayMillis; i++) {
+      delay *= multiplier;
+    }
+    return (long) Math.min(delay, maxDelayMillis);
+  }
+
+  private long elapsedBefore(int step) {
+    long elapsed = 0L;
+    double delay = initialDelayMillis;
+    for (int i = 1; i < step; i++) {
+      if (delay >= maxDelayMillis) {
+        // Every remaining step waits the cap, no need to keep iterating
+        return elapsed + (step - i) * maxDelayMillis;
+      }
+      elapsed += (long) delay;
+      delay *= multiplier;
+    }
+    return elapsed;
+  }
+
+  /**
+   * Reseeds the jitter of every delay from the operating system's entropy, so restored containers don't all
+   * jitter the same way.
+   */
+  static void reseedJitter() {
+    JITTER_RANDOM.setSeed(new SecureRandom().nextLong());
+  }
+
+  public static class Builder {
+    private Duration initialDelay = Duration.ofSeconds(5);
+    private Duration maxDelay = Duration.ofMinutes(2);
+    private Duration timeout = Duration.ofDays(365L);
+    private double multiplier = 2.0;
+    private double jitter = 0.5;
+    private DoubleSupplier random = JITTER_RANDOM::nextDouble;
+
+    public Builder initialDelay(Duration initialDelay) {
+      this.initialDelay = initialDelay;
+      return this;
+    }
+
+    public Builder maxDelay(Duration maxDelay) {
+      this.maxDelay = maxDelay;
+      return this;
+    }
+
+    public Builder timeout(Duration timeout) {
+      this.timeout = timeout;
+      return this;
+    }
+
+    public Builder multiplier(double multiplier) {
+      this.multiplier = multiplier;
+      return this;
+    }
+
+    public Builder jitter(double jitter) {
+      this.jitter = jitter;
+      return this;
+    }
+
+    Builder random(DoubleSupplier random) {
+      this.random = random;
+      return this;
+    }
+
+    public ExponentialJitterDelay build() {
+      return new ExponentialJitterDelay(this);
+    }
+  }
+}
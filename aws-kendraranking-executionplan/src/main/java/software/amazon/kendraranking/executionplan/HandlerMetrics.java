@@ -0,0 +1,205 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.services.kendraranking.model.ThrottlingException;
+import software.amazon.cloudformation.proxy.Logger;
+
+/**
+ * Metrics of one handler invocation: latency, error and throttle counts of every Kendra Ranking API call,
+ * the stabilization polls the invocation made and what the circuit breaker did. Off unless
+ * KENDRA_RANKING_METRICS_ENABLED=true, they are then written through the handler logger as one CloudWatch
+ * Embedded Metric Format document per invocation, which CloudWatch Logs turns into metrics without an agent.
+ * Calls can be recorded from the shared pool, so recording is synchronized.
+ */
+class HandlerMetrics {
+
+  static final String ENABLED_ENV = "KENDRA_RANKING_METRICS_ENABLED";
+  static final String NAMESPACE_ENV = "KENDRA_RANKING_METRICS_NAMESPACE";
+
+  static final String DEFAULT_NAMESPACE = "KendraRanking/ExecutionPlan";
+
+  // Embedded Metric Format accepts at most 100 values per metric in one document, latencies past that are
+  // left out of the distribution but still counted in the api's Calls
+  static final int MAX_VALUES_PER_METRIC = 100;
+
+  private static final class ApiStats {
+    private final List<Long> latencies = new ArrayList<>();
+    private final Map<String, Integer> errorsByType = new LinkedHashMap<>();
+    private int errors;
+    private int throttles;
+  }
+
+  private static final class CircuitBreakerStats {
+    private CircuitBreaker.State state = CircuitBreaker.State.CLOSED;
+    private int opened;
+    private int halfOpened;
+    private int closed;
+    private int rejections;
+  }
+
+  private final String namespace;
+  private final String operation;
+  private final Clock clock;
+  private final Map<String, ApiStats> apis = new LinkedHashMap<>();
+  // An invocation only calls the endpoint of its request's region, so there is one breaker at most
+  private String circuitBreakerRegion;
+  private CircuitBreakerStats circuitBreaker;
+  private int stabilizationPolls;
+  private int stabilizationThrottles;
+
+  HandlerMetrics(String namespace, String operation, Clock clock) {
+    this.namespace = namespace;
+    this.operation = operation;
+    this.clock = clock;
+  }
+
+  /**
+   * @param operation handler operation the metrics are dimensioned by, e.g. Create
+   * @return metrics in the namespace configured by the environment
+   */
+  static HandlerMetrics forOperation(String operation) {
+    String namespace = System.getenv(NAMESPACE_ENV);
+    return new HandlerMetrics(namespace == null ? DEFAULT_NAMESPACE : namespace, operation, Clock.systemUTC());
+  }
+
+  static boolean isEnabledByEnvironment() {
+    return Boolean.parseBoolean(System.getenv(ENABLED_ENV));
+  }
+
+  /**
+   * @param api name of the api, one of {@link ApiName}
+   * @param latencyMillis how long the call took
+   * @param error what the call threw, null when it succeeded
+   */
+  synchronized void recordCall(String api, long latencyMillis, Throwable error) {
+    ApiStats stats = apis.computeIfAbsent(api, key -> new ApiStats());
+    stats.latencies.add(latencyMillis);
+    if (error == null) {
+      return;
+    }
+    stats.errors++;
+    stats.errorsByType.merge(error.getClass().getSimpleName(), 1, Integer::sum);
+    if (error instanceof ThrottlingException
+        || error instanceof AwsServiceException && ((AwsServiceException) error).isThrottlingException()) {
+      stats.throttles++;
+    }
+  }
+
+  /**
+   * @param polls stabilization polls made by this invocation
+   * @param throttles how many of them were throttled
+   */
+  synchronized void recordStabilization(int polls, int throttles) {
+    stabilizationPolls += polls;
+    stabilizationThrottles += throttles;
+  }
+
+  synchronized void recordCircuitBreakerState(String region, CircuitBreaker.State state) {
+    circuitBreaker(region).state = state;
+  }
+
+  synchronized void recordCircuitBreakerTransition(String region, CircuitBreaker.State to) {
+    CircuitBreakerStats stats = circuitBreaker(region);
+    stats.state = to;
+    switch (to) {
+      case OPEN:
+        stats.opened++;
+        break;
+      case HALF_OPEN:
+        stats.halfOpened++;
+        break;
+      default:
+        stats.closed++;
+        break;
+    }
+  }
+
+  synchronized void recordCircuitBreakerRejection(String region) {
+    CircuitBreakerStats stats = circuitBreaker(region);
+    stats.state = CircuitBreaker.State.OPEN;
+    stats.rejections++;
+  }
+
+  /**
+   * @return Embedded Metric Format document of the invocation. The api metrics are named after their api,
+   *     e.g. DescribeRescoreExecutionPlan.Latency, and dimensioned by the operation like the totals, the
+   *     circuit breaker's are dimensioned by its region
+   */
+  synchronized String toEmf() {
+    JSONArray operationMetrics = new JSONArray();
+    JSONObject document = new JSONObject().put("Operation", operation);
+    int calls = 0;
+    for (Map.Entry<String, ApiStats> api : apis.entrySet()) {
+      ApiStats stats = api.getValue();
+      String prefix = api.getKey() + ".";
+      calls += stats.latencies.size();
+      operationMetrics.put(metric(prefix + "Latency", "Milliseconds"));
+      document.put(prefix + "Latency",
+          new JSONArray(stats.latencies.subList(0, Math.min(stats.latencies.size(), MAX_VALUES_PER_METRIC))));
+      addMetric(document, operationMetrics, prefix + "Calls", stats.latencies.size());
+      addMetric(document, operationMetrics, prefix + "Errors", stats.errors);
+      addMetric(document, operationMetrics, prefix + "Throttles", stats.throttles);
+      for (Map.Entry<String, Integer> error : stats.errorsByType.entrySet()) {
+        addMetric(document, operationMetrics, prefix + "Errors." + error.getKey(), error.getValue());
+      }
+    }
+    addMetric(document, operationMetrics, "ApiCalls", calls);
+    addMetric(document, operationMetrics, "StabilizationPolls", stabilizationPolls);
+    addMetric(document, operationMetrics, "StabilizationThrottles", stabilizationThrottles);
+
+    JSONArray directives = new JSONArray().put(directive(operationMetrics, "Operation"));
+    if (circuitBreaker != null) {
+      JSONArray circuitBreakerMetrics = new JSONArray();
+      document.put("Region", circuitBreakerRegion);
+      // 0 while CLOSED, 1 while HALF_OPEN and 2 while OPEN, so the maximum shows the worst state of a period
+      addMetric(document, circuitBreakerMetrics, "CircuitBreakerState", circuitBreaker.state == CircuitBreaker.State.OPEN ? 2
+          : circuitBreaker.state == CircuitBreaker.State.HALF_OPEN ? 1 : 0);
+      addMetric(document, circuitBreakerMetrics, "CircuitBreakerOpened", circuitBreaker.opened);
+      addMetric(document, circuitBreakerMetrics, "CircuitBreakerHalfOpened", circuitBreaker.halfOpened);
+      addMetric(document, circuitBreakerMetrics, "CircuitBreakerClosed", circuitBreaker.closed);
+      addMetric(document, circuitBreakerMetrics, "CircuitBreakerRejections", circuitBreaker.rejections);
+      directives.put(directive(circuitBreakerMetrics, "Region"));
+    }
+    return document
+        .put("_aws", new JSONObject()
+            .put("Timestamp", clock.millis())
+            .put("CloudWatchMetrics", directives))
+        .toString();
+  }
+
+  void emit(Logger logger) {
+    logger.log(toEmf());
+  }
+
+  private CircuitBreakerStats circuitBreaker(String region) {
+    if (circuitBreaker == null) {
+      circuitBreakerRegion = region;
+      circuitBreaker = new CircuitBreakerStats();
+    }
+    return circuitBreaker;
+  }
+
+  private JSONObject directive(JSONArray metrics, String dimension) {
+    return new JSONObject()
+        .put("Namespace", namespace)
+        .put("Dimensions", new JSONArray().put(new JSONArray().put(dimension)))
+        .put("Metrics", metrics);
+  }
+
+  private static JSONObject metric(String name, String unit) {
+    return new JSONObject().put("Name", name).put("Unit", unit);
+  }
+
+  private static void addMetric(JSONObject document, JSONArray metrics, String name, int value) {
+    metrics.put(metric(name, "Count"));
+    document.put(name, value);
+  }
+}
@@ -0,0 +1,91 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.time.Duration;
+
+import lombok.Getter;
+
+/**
+ * How long a stabilization poll may keep re-polling inside the current invocation before handing
+ * control back to CloudFormation with a callback delay. Short transitions, e.g. a brief UPDATING,
+ * then finish without paying for a re-invocation round trip. The budget never goes past the function's
+ * timeout less a safety margin, and every poll within it gives up after {@link #POLL_TIMEOUT}, so neither
+ * a long budget nor a throttled poll can get the invocation killed mid-poll.
+ */
+@Getter
+class InProcessWait {
+
+  static final String BUDGET_SECONDS_ENV = "KENDRA_RANKING_IN_PROCESS_WAIT_SECONDS";
+  static final String INTERVAL_SECONDS_ENV = "KENDRA_RANKING_IN_PROCESS_POLL_SECONDS";
+  // Lambda doesn't expose the function's timeout to the runtime, the template sets it next to Timeout
+  static final String FUNCTION_TIMEOUT_SECONDS_ENV = "KENDRA_RANKING_FUNCTION_TIMEOUT_SECONDS";
+
+  static final Duration DEFAULT_BUDGET = Duration.ofSeconds(30);
+  static final Duration DEFAULT_INTERVAL = Duration.ofSeconds(5);
+  // Assumed when the timeout isn't set, which caps the default budget at its own value
+  static final Duration DEFAULT_FUNCTION_TIMEOUT = Duration.ofSeconds(60);
+  // Longest an in-process poll may take, retries included. A throttled describe could otherwise spend over
+  // half a minute in backoff, see RetrySettings, and a poll cut short only counts as not stabilized yet
+  static final Duration POLL_TIMEOUT = Duration.ofSeconds(10);
+  // Room for the calls after the stabilization, the tag reconciliation and the response
+  static final Duration AFTER_STABILIZATION = Duration.ofSeconds(20);
+  // The last in-process poll may start right at the end of the budget, the calls after it follow
+  static final Duration SAFETY_MARGIN = POLL_TIMEOUT.plus(AFTER_STABILIZATION);
+
+  /**
+   * Sleeps between in-process polls, swapped out in tests.
+   */
+  interface Sleeper {
+    void sleep(Duration duration) throws InterruptedException;
+  }
+
+  private static final Sleeper THREAD_SLEEPER = duration -> Thread.sleep(duration.toMillis());
+
+  private final Duration budget;
+  private final Duration interval;
+  private final Sleeper sleeper;
+
+  InProcessWait(Duration budget, Duration interval, Sleeper sleeper) {
+    this.budget = budget;
+    this.interval = interval;
+    this.sleeper = sleeper;
+  }
+
+  static InProcessWait of(Duration budget, Duration interval) {
+    return new InProcessWait(budget, interval, THREAD_SLEEPER);
+  }
+
+  /**
+   * @return wait that polls once per invocation, as the proxy's stabilize loop always did
+   */
+  static InProcessWait disabled() {
+    return of(Duration.ZERO, Duration.ZERO);
+  }
+
+  static InProcessWait fromEnvironment() {
+    String budgetSeconds = System.getenv(BUDGET_SECONDS_ENV);
+    String intervalSeconds = System.getenv(INTERVAL_SECONDS_ENV);
+    String functionTimeoutSeconds = System.getenv(FUNCTION_TIMEOUT_SECONDS_ENV);
+    Duration budget = budgetSeconds == null ? DEFAULT_BUDGET : Duration.ofSeconds(Long.parseLong(budgetSeconds));
+    Duration functionTimeout = functionTimeoutSeconds == null
+        ? DEFAULT_FUNCTION_TIMEOUT : Duration.ofSeconds(Long.parseLong(functionTimeoutSeconds));
+    return of(cap(budget, functionTimeout),
+        intervalSeconds == null ? DEFAULT_INTERVAL : Duration.ofSeconds(Long.parseLong(intervalSeconds)));
+  }
+
+  /**
+   * @param budget configured budget
+   * @param functionTimeout timeout of the function the handler runs in
+   * @return the budget, cut down to the timeout less the safety margin and no wait at all when none is left
+   */
+  static Duration cap(Duration budget, Duration functionTimeout) {
+    Duration available = functionTimeout.minus(SAFETY_MARGIN);
+    if (available.isNegative()) {
+      return Duration.ZERO;
+    }
+    return budget.compareTo(available) > 0 ? available : budget;
+  }
+
+  boolean isEnabled() {
+    return !budget.isZero() && !interval.isZero();
+  }
+}
@@ -0,0 +1,147 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import software.amazon.awssdk.awscore.AwsRequest;
+import software.amazon.awssdk.awscore.AwsResponse;
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.pagination.sync.SdkIterable;
+import software.amazon.awssdk.services.kendraranking.KendraRankingClient;
+import software.amazon.cloudformation.proxy.ProxyClient;
+
+/**
+ * Records the latency and outcome of every call made through the wrapped proxy client in {@link HandlerMetrics},
+ * and with a {@link CallTrace} traces it under the call graph the client was handed to. With a
+ * {@link CircuitBreaker}, calls are turned away with a {@link CircuitBreakerOpenException} while it is open.
+ */
+class InstrumentedProxyClient implements ProxyClient<KendraRankingClient> {
+
+  private final ProxyClient<KendraRankingClient> proxyClient;
+  private final HandlerMetrics metrics;
+  // Trace of the invocation, null when disabled
+  private final CallTrace trace;
+  // Breaker of the region's endpoint, null when disabled
+  private final CircuitBreaker circuitBreaker;
+  // Call graph the calls are made in, null outside of one
+  private final String callGraph;
+
+  InstrumentedProxyClient(ProxyClient<KendraRankingClient> proxyClient, HandlerMetrics metrics, CallTrace trace) {
+    this(proxyClient, metrics, trace, null);
+  }
+
+  InstrumentedProxyClient(ProxyClient<KendraRankingClient> proxyClient, HandlerMetrics metrics, CallTrace trace,
+      CircuitBreaker circuitBreaker) {
+    this(proxyClient, metrics, trace, circuitBreaker, null);
+  }
+
+  private InstrumentedProxyClient(ProxyClient<KendraRankingClient> proxyClient, HandlerMetrics metrics, CallTrace trace,
+      CircuitBreaker circuitBreaker, String callGraph) {
+    this.proxyClient = proxyClient;
+    this.metrics = metrics;
+    this.trace = trace;
+    this.circuitBreaker = circuitBreaker;
+    this.callGraph = callGraph;
+  }
+
+  /**
+   * @param proxyClient the aws service client the handler was given
+   * @param callGraph name of the call graph the client is handed to
+   * @return client whose calls are traced under the call graph, the same client when it isn't instrumented
+   */
+  static ProxyClient<KendraRankingClient> forCallGraph(ProxyClient<KendraRankingClient> proxyClient, String callGraph) {
+    if (!(proxyClient instanceof InstrumentedProxyClient)) {
+      return proxyClient;
+    }
+    InstrumentedProxyClient instrumented = (InstrumentedProxyClient) proxyClient;
+    return new InstrumentedProxyClient(instrumented.proxyClient, instrumented.metrics, instrumented.trace,
+        instrumented.circuitBreaker, callGraph);
+  }
+
+  @Override
+  public <RequestT extends AwsRequest, ResponseT extends AwsResponse> ResponseT
+  injectCredentialsAndInvokeV2(RequestT request, Function<RequestT, ResponseT> requestFunction) {
+    String api = ApiName.of(request);
+    if (circuitBreaker != null && !circuitBreaker.tryAcquire(this::circuitBreakerStateChanged)) {
+      metrics.recordCircuitBreakerRejection(circuitBreaker.getRegion());
+      throw new CircuitBreakerOpenException(circuitBreaker.getRegion(), circuitBreaker.retryAfter());
+    }
+    CallTrace.Call call = trace == null ? null : trace.begin(callGraph, api);
+    long start = System.nanoTime();
+    Throwable error = null;
+    try {
+      return proxyClient.injectCredentialsAndInvokeV2(request, requestFunction);
+    } catch (RuntimeException | Error e) {
+      error = e;
+      throw e;
+    } finally {
+      // Whatever the call threw, a HALF_OPEN breaker would otherwise keep its probe slot taken for good
+      metrics.recordCall(api, millisSince(start), error);
+      endTrace(call, error != null);
+      recordCircuitBreakerOutcome(error);
+    }
+  }
+
+  @Override
+  public <RequestT extends AwsRequest, ResponseT extends AwsResponse> CompletableFuture<ResponseT>
+  injectCredentialsAndInvokeV2Async(RequestT request, Function<RequestT, CompletableFuture<ResponseT>> requestFunction) {
+    long start = System.nanoTime();
+    return proxyClient.injectCredentialsAndInvokeV2Async(request, requestFunction)
+        .whenComplete((response, error) -> metrics.recordCall(ApiName.of(request), millisSince(start),
+            error instanceof CompletionException && error.getCause() != null ? error.getCause() : error));
+  }
+
+  // Pages are fetched lazily while iterating, after this returns, so there is no latency to record here
+  @Override
+  public <RequestT extends AwsRequest, ResponseT extends AwsResponse, IterableT extends SdkIterable<ResponseT>> IterableT
+  injectCredentialsAndInvokeIterableV2(RequestT request, Function<RequestT, IterableT> requestFunction) {
+    return proxyClient.injectCredentialsAndInvokeIterableV2(request, requestFunction);
+  }
+
+  @Override
+  public <RequestT extends AwsRequest, ResponseT extends AwsResponse> ResponseInputStream<ResponseT>
+  injectCredentialsAndInvokeV2InputStream(RequestT request, Function<RequestT, ResponseInputStream<ResponseT>> requestFunction) {
+    return proxyClient.injectCredentialsAndInvokeV2InputStream(request, requestFunction);
+  }
+
+  @Override
+  public <RequestT extends AwsRequest, ResponseT extends AwsResponse> ResponseBytes<ResponseT>
+  injectCredentialsAndInvokeV2Bytes(RequestT request, Function<RequestT, ResponseBytes<ResponseT>> requestFunction) {
+    return proxyClient.injectCredentialsAndInvokeV2Bytes(request, requestFunction);
+  }
+
+  @Override
+  public KendraRankingClient client() {
+    return proxyClient.client();
+  }
+
+  private void recordCircuitBreakerOutcome(Throwable error) {
+    if (circuitBreaker == null) {
+      return;
+    }
+    // An Error says nothing good about the endpoint, a probe that died with one opens the breaker again
+    if (error instanceof Error || error != null && CircuitBreaker.isFailure(error)) {
+      circuitBreaker.recordFailure(this::circuitBreakerStateChanged);
+    } else {
+      circuitBreaker.recordSuccess(this::circuitBreakerStateChanged);
+    }
+    metrics.recordCircuitBreakerState(circuitBreaker.getRegion(), circuitBreaker.getState());
+  }
+
+  private void endTrace(CallTrace.Call call, boolean failed) {
+    if (call != null) {
+      trace.end(call, failed);
+    }
+  }
+
+  private void circuitBreakerStateChanged(CircuitBreaker.State from, CircuitBreaker.State to) {
+    metrics.recordCircuitBreakerTransition(circuitBreaker.getRegion(), to);
+  }
+
+  private static long millisSince(long startNanos) {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+  }
+}
@@ -1,6 +1,7 @@
 package software.amazon.kendraranking.executionplan;
 
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.function.Function;
 
@@ -14,7 +15,7 @@ public class ListConverter {
     if (list == null) {
       return null;
     }
-    return list.stream().map(x -> func.apply(x)).collect(Collectors.toList());
+    return map(list, func);
   }
 
     // When we translate to a resource model from an SDK object, check if the list is null OR if it's empty
@@ -27,7 +28,16 @@ public class ListConverter {
     if (list == null || list.isEmpty()) {
       return null;
     }
-    return list.stream().map(x -> func.apply(x)).collect(Collectors.toList());
+    return map(list, func);
+  }
+
+    // A presized loop rather than a stream pipeline, these run on every tag list of every invocation
+    static <I, O> List<O> map(Collection<I> collection, Function<I, O> func) {
+    final List<O> mapped = new ArrayList<>(collection.size());
+    for (I item : collection) {
+      mapped.add(func.apply(item));
+    }
+    return mapped;
   }
 
 }
@@ -1,6 +1,19 @@
 package software.amazon.kendraranking.executionplan;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
 import software.amazon.awssdk.services.kendraranking.KendraRankingClient;
+import software.amazon.awssdk.services.kendraranking.model.DescribeRescoreExecutionPlanResponse;
 import software.amazon.awssdk.services.kendraranking.model.ListRescoreExecutionPlansRequest;
 import software.amazon.awssdk.services.kendraranking.model.ListRescoreExecutionPlansResponse;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
@@ -12,6 +25,32 @@ import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 
 public class ListHandler extends BaseHandlerStd {
 
+    private ListOptions listOptions;
+
+    private ExecutionPlanArnBuilder executionPlanArnBuilder;
+
+    private Executor executor;
+
+    public ListHandler() {
+        this(ListOptions.fromEnvironment(), new ExecutionPlanPlanArn());
+    }
+
+    public ListHandler(ListOptions listOptions, ExecutionPlanArnBuilder executionPlanArnBuilder) {
+        this(listOptions, executionPlanArnBuilder, ConcurrentCalls.executor());
+    }
+
+    public ListHandler(ListOptions listOptions, ExecutionPlanArnBuilder executionPlanArnBuilder, Executor executor) {
+        super();
+        this.listOptions = listOptions;
+        this.executionPlanArnBuilder = executionPlanArnBuilder;
+        this.executor = executor;
+    }
+
+    @Override
+    boolean canCallBack() {
+        return false;
+    }
+
     @Override
     public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
         final AmazonWebServicesClientProxy proxy,
@@ -20,23 +59,132 @@ public class ListHandler extends BaseHandlerStd {
         final ProxyClient<KendraRankingClient> proxyClient,
         final Logger logger) {
 
-        // STEP 1 [TODO: construct a body of a request]
-        final ListRescoreExecutionPlansRequest listRescoreExecutionPlansRequest = Translator.translateToListRequest(request.getNextToken());
+        final Instant deadline = listOptions.getClock().instant().plus(listOptions.getTimeBudget());
+        final List<ResourceModel> summaryModels = new ArrayList<>();
+        String nextToken = request.getNextToken();
+        int pages = 0;
+        do {
+            // STEP 1 [TODO: construct a body of a request]
+            final ListRescoreExecutionPlansRequest listRescoreExecutionPlansRequest =
+                Translator.translateToListRequest(nextToken, pageSize());
+
+            // STEP 2 [TODO: make an api call]
+            ListRescoreExecutionPlansResponse listRescoreExecutionPlansResponse = proxyClient.injectCredentialsAndInvokeV2(listRescoreExecutionPlansRequest,
+                proxyClient.client()::listRescoreExecutionPlans);
+            pages++;
 
-        // STEP 2 [TODO: make an api call]
-        ListRescoreExecutionPlansResponse listRescoreExecutionPlansResponse = proxy.injectCredentialsAndInvokeV2(listRescoreExecutionPlansRequest,
-            proxyClient.client()::listRescoreExecutionPlans);
+            // STEP 3 [TODO: get a token for the next page]
+            nextToken = listRescoreExecutionPlansResponse.nextToken();
 
-        // STEP 3 [TODO: get a token for the next page]
-        String nextToken = listRescoreExecutionPlansResponse.nextToken();
+            // STEP 4 [TODO: construct resource models]
+            // e.g. https://github.com/aws-cloudformation/aws-cloudformation-resource-providers-logs/blob/master/aws-logs-loggroup/src/main/java/software/amazon/logs/loggroup/ListHandler.java#L19-L21
+            summaryModels.addAll(Translator.translateFromListResponse(listRescoreExecutionPlansResponse));
+        } while (nextToken != null && hasBudgetForNextPage(summaryModels.size(), deadline));
 
-        // STEP 4 [TODO: construct resource models]
-        // e.g. https://github.com/aws-cloudformation/aws-cloudformation-resource-providers-logs/blob/master/aws-logs-loggroup/src/main/java/software/amazon/logs/loggroup/ListHandler.java#L19-L21
+        if (listOptions.isAggregatePages()) {
+            logger.log(String.format("Listed %d execution plans in %d pages, more remaining: %s",
+                summaryModels.size(), pages, nextToken != null));
+        }
+
+        List<ResourceModel> resourceModels = summaryModels;
+        if (listOptions.isHydrate()) {
+            resourceModels = hydrate(resourceModels, request, proxyClient, deadline, logger);
+        }
 
         return ProgressEvent.<ResourceModel, CallbackContext>builder()
-            .resourceModels(Translator.translateFromListResponse(listRescoreExecutionPlansResponse))
+            .resourceModels(resourceModels)
             .nextToken(nextToken)
             .status(OperationStatus.SUCCESS)
             .build();
     }
+
+    private int pageSize() {
+        return Math.min(listOptions.getPageSize(), ListOptions.MAX_PAGE_SIZE);
+    }
+
+    private boolean hasBudgetForNextPage(int resultCount, Instant deadline) {
+        return listOptions.isAggregatePages()
+            && resultCount < listOptions.getResultBudget()
+            && listOptions.getClock().instant().isBefore(deadline);
+    }
+
+    /**
+     * Describes the listed plans in parallel on the shared bounded pool, keeping the list order. Hydration
+     * shares the deadline of the page loop: a plan that can't be described before it, or whose describe
+     * fails, e.g. throttled or deleted since it was listed, is returned as its summary. No describe is
+     * left running or queued past the deadline.
+     * @param summaryModels models built from the list summaries
+     * @param request the list request, providing partition, region and account for the arns
+     * @param proxyClient the aws service client to make the calls
+     * @param deadline when the list's time budget runs out
+     * @param logger logger of the invocation
+     * @return hydrated resource models, summary models where hydration didn't succeed
+     */
+    private List<ResourceModel> hydrate(
+        final List<ResourceModel> summaryModels,
+        final ResourceHandlerRequest<ResourceModel> request,
+        final ProxyClient<KendraRankingClient> proxyClient,
+        final Instant deadline,
+        final Logger logger) {
+
+        List<CompletableFuture<ResourceModel>> hydratedModels = summaryModels.stream()
+            .map(summaryModel -> CompletableFuture.supplyAsync(
+                () -> hydrate(summaryModel, request, proxyClient, deadline), executor))
+            .collect(Collectors.toList());
+
+        try {
+            CompletableFuture.allOf(hydratedModels.toArray(new CompletableFuture<?>[0]))
+                .get(Math.max(0L, Duration.between(listOptions.getClock().instant(), deadline).toMillis()),
+                    TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // Whatever didn't finish in time is reported as its summary below
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Describes still queued never start, so they don't hold the shared pool after the list has returned.
+        // Those already running give up by the deadline on their own, see the api call timeout below
+        hydratedModels.forEach(hydratedModel -> hydratedModel.cancel(false));
+
+        final List<ResourceModel> resourceModels = new ArrayList<>(summaryModels.size());
+        int hydrated = 0;
+        for (int i = 0; i < summaryModels.size(); i++) {
+            final CompletableFuture<ResourceModel> hydratedModel = hydratedModels.get(i);
+            final ResourceModel resourceModel = hydratedModel.isCompletedExceptionally() ? null : hydratedModel.getNow(null);
+            if (resourceModel == null || resourceModel == summaryModels.get(i)) {
+                resourceModels.add(summaryModels.get(i));
+            } else {
+                resourceModels.add(resourceModel);
+                hydrated++;
+            }
+        }
+        if (hydrated < summaryModels.size()) {
+            logger.log(String.format("Hydrated %d of %d execution plans, the rest are returned as summaries",
+                hydrated, summaryModels.size()));
+        }
+        return resourceModels;
+    }
+
+    private ResourceModel hydrate(
+        final ResourceModel summaryModel,
+        final ResourceHandlerRequest<ResourceModel> request,
+        final ProxyClient<KendraRankingClient> proxyClient,
+        final Instant deadline) {
+        final Duration timeLeft = Duration.between(listOptions.getClock().instant(), deadline);
+        if (timeLeft.isNegative() || timeLeft.isZero()) {
+            return summaryModel;
+        }
+        DescribeRescoreExecutionPlanResponse describeRescoreExecutionPlanResponse;
+        try {
+            // Retries included, the describe is over by the deadline and doesn't outlive the invocation
+            describeRescoreExecutionPlanResponse = ReadHandler.describeExecutionPlan(
+                Translator.translateToReadRequest(summaryModel), proxyClient, timeLeft);
+        } catch (RuntimeException e) {
+            // Deleted since it was listed, throttled or failing: one plan doesn't fail the whole list,
+            // the summary is all there is to report for it
+            return summaryModel;
+        }
+        return Translator.translateFromReadResponse(describeRescoreExecutionPlanResponse,
+            Collections.<Tag>emptyList(),
+            executionPlanArnBuilder.build(request, summaryModel.getId()));
+    }
 }
@@ -0,0 +1,75 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Controls how much work the ListHandler does per invocation.
+ */
+@Getter
+@Builder
+@ToString
+class ListOptions {
+
+  static final String HYDRATE_ENV = "KENDRA_RANKING_LIST_HYDRATE";
+  static final String AGGREGATE_PAGES_ENV = "KENDRA_RANKING_LIST_AGGREGATE_PAGES";
+  static final String PAGE_SIZE_ENV = "KENDRA_RANKING_LIST_PAGE_SIZE";
+  static final String TIME_BUDGET_SECONDS_ENV = "KENDRA_RANKING_LIST_TIME_BUDGET_SECONDS";
+  static final String RESULT_BUDGET_ENV = "KENDRA_RANKING_LIST_RESULT_BUDGET";
+
+  // Largest maxResults ListRescoreExecutionPlans accepts
+  static final int MAX_PAGE_SIZE = 100;
+
+  // Describe every listed plan to fill in the fields the summary doesn't carry (arn, capacity units, description).
+  // Off by default, the summary alone answers most discovery callers with a single call per page.
+  private final boolean hydrate;
+
+  // maxResults of each list call, capped at MAX_PAGE_SIZE. The largest page by default, so every list
+  // call returns as many plans as the service allows
+  @Builder.Default
+  private final int pageSize = MAX_PAGE_SIZE;
+
+  // Keep following nextToken within one invocation while both budgets last. Without it a single
+  // page is returned, as before. The budgets are checked between pages, so the last page is always
+  // returned whole and the resume token stays exact.
+  private final boolean aggregatePages;
+
+  @Builder.Default
+  private final Duration timeBudget = Duration.ofSeconds(30);
+
+  @Builder.Default
+  private final int resultBudget = 1000;
+
+  @Builder.Default
+  private final Clock clock = Clock.systemUTC();
+
+  static ListOptions defaults() {
+    return ListOptions.builder().build();
+  }
+
+  static ListOptions fromEnvironment() {
+    ListOptionsBuilder builder = ListOptions.builder()
+        .hydrate(Boolean.parseBoolean(System.getenv(HYDRATE_ENV)));
+    String pageSize = System.getenv(PAGE_SIZE_ENV);
+    if (pageSize != null) {
+      builder.pageSize(Integer.parseInt(pageSize));
+    }
+    String aggregatePages = System.getenv(AGGREGATE_PAGES_ENV);
+    String timeBudgetSeconds = System.getenv(TIME_BUDGET_SECONDS_ENV);
+    String resultBudget = System.getenv(RESULT_BUDGET_ENV);
+    // Setting a budget implies aggregation unless it is turned off explicitly
+    builder.aggregatePages(aggregatePages != null ? Boolean.parseBoolean(aggregatePages)
+        : timeBudgetSeconds != null || resultBudget != null);
+    if (timeBudgetSeconds != null) {
+      builder.timeBudget(Duration.ofSeconds(Long.parseLong(timeBudgetSeconds)));
+    }
+    if (resultBudget != null) {
+      builder.resultBudget(Integer.parseInt(resultBudget));
+    }
+    return builder.build();
+  }
+}
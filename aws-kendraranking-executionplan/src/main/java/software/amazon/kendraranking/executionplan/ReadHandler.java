@@ -1,5 +1,10 @@
 package software.amazon.kendraranking.executionplan;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
 import software.amazon.awssdk.awscore.exception.AwsServiceException;
 import software.amazon.awssdk.core.exception.RetryableException;
 import software.amazon.awssdk.services.kendraranking.model.DescribeRescoreExecutionPlanResponse;
@@ -24,13 +29,32 @@ public class ReadHandler extends BaseHandlerStd {
 
   private ExecutionPlanArnBuilder executionPlanArnBuilder;
 
+  private Executor executor;
+
+  private DescribeCache describeCache;
+
   public ReadHandler() {
-    this(new ExecutionPlanPlanArn());
+    this(new ExecutionPlanPlanArn(), ConcurrentCalls.executor(), DescribeCache.shared());
   }
 
   public ReadHandler(ExecutionPlanArnBuilder executionPlanArnBuilder) {
+    this(executionPlanArnBuilder, ConcurrentCalls.executor());
+  }
+
+  public ReadHandler(ExecutionPlanArnBuilder executionPlanArnBuilder, Executor executor) {
+    this(executionPlanArnBuilder, executor, DescribeCache.disabled());
+  }
+
+  ReadHandler(ExecutionPlanArnBuilder executionPlanArnBuilder, Executor executor, DescribeCache describeCache) {
     super();
     this.executionPlanArnBuilder = executionPlanArnBuilder;
+    this.executor = executor;
+    this.describeCache = describeCache;
+  }
+
+  @Override
+  boolean canCallBack() {
+    return false;
   }
 
   protected ProgressEvent<ResourceModel, CallbackContext> handleRequest(
@@ -42,10 +66,67 @@ public class ReadHandler extends BaseHandlerStd {
 
     final ResourceModel model = request.getDesiredResourceState();
     final DescribeRescoreExecutionPlanRequest describeRescoreExecutionPlanRequest = Translator.translateToReadRequest(model);
+
+    // The arn only depends on the request, so the tags are listed while the plan is being described
+    String executionPlanArn = executionPlanArnBuilder.build(request);
+    CompletableFuture<ListTagsForResourceResponse> listTagsForResourceFuture =
+        CompletableFuture.supplyAsync(() -> listTags(executionPlanArn, proxyClient), executor);
+
     DescribeRescoreExecutionPlanResponse describeRescoreExecutionPlanResponse;
     try {
-      describeRescoreExecutionPlanResponse = proxyClient.injectCredentialsAndInvokeV2(
-          describeRescoreExecutionPlanRequest, proxyClient.client()::describeRescoreExecutionPlan);
+      describeRescoreExecutionPlanResponse = describeExecutionPlan(describeRescoreExecutionPlanRequest, proxyClient,
+          describeCache, request.getAwsAccountId(), request.getRegion());
+    } catch (RuntimeException e) {
+      ConcurrentCalls.awaitQuietly(listTagsForResourceFuture);
+      throw e;
+    }
+    // A cached describe can outlive the plan, the tags then find it gone
+    ListTagsForResourceResponse listTagsForResourceResponse = describeCache.invalidatingOnNotFound(
+        request.getAwsAccountId(), request.getRegion(), describeRescoreExecutionPlanRequest.id(), () -> ConcurrentCalls.join(listTagsForResourceFuture));
+    if (describeCache.isEnabled()) {
+      logger.log(String.format("%s describe cache hits=%d misses=%d", ResourceModel.TYPE_NAME,
+          describeCache.hits(), describeCache.misses()));
+    }
+
+    return constructResourceModelFromResponse(describeRescoreExecutionPlanResponse, listTagsForResourceResponse, executionPlanArn);
+  }
+
+  /**
+   * Describes the execution plan, mapping service exceptions to the handler contract
+   * @param describeRescoreExecutionPlanRequest the aws service request to describe a resource
+   * @param proxyClient the aws service client to make the call
+   * @return describe resource response
+   */
+  static DescribeRescoreExecutionPlanResponse describeExecutionPlan(
+      final DescribeRescoreExecutionPlanRequest describeRescoreExecutionPlanRequest,
+      final ProxyClient<KendraRankingClient> proxyClient) {
+    return describeExecutionPlan(describeRescoreExecutionPlanRequest, proxyClient,
+        proxyClient.client()::describeRescoreExecutionPlan);
+  }
+
+  /**
+   * Describes the execution plan in a call that gives up after the timeout
+   * @param describeRescoreExecutionPlanRequest the aws service request to describe a resource
+   * @param proxyClient the aws service client to make the call
+   * @param apiCallTimeout the longest the call may take, retries included
+   * @return describe resource response
+   */
+  static DescribeRescoreExecutionPlanResponse describeExecutionPlan(
+      final DescribeRescoreExecutionPlanRequest describeRescoreExecutionPlanRequest,
+      final ProxyClient<KendraRankingClient> proxyClient,
+      final Duration apiCallTimeout) {
+    final Function<DescribeRescoreExecutionPlanRequest, DescribeRescoreExecutionPlanResponse> describeCall =
+        proxyClient.client()::describeRescoreExecutionPlan;
+    return describeExecutionPlan(describeRescoreExecutionPlanRequest, proxyClient,
+        ApiCallTimeout.limit(describeCall, apiCallTimeout));
+  }
+
+  private static DescribeRescoreExecutionPlanResponse describeExecutionPlan(
+      final DescribeRescoreExecutionPlanRequest describeRescoreExecutionPlanRequest,
+      final ProxyClient<KendraRankingClient> proxyClient,
+      final Function<DescribeRescoreExecutionPlanRequest, DescribeRescoreExecutionPlanResponse> describeCall) {
+    try {
+      return proxyClient.injectCredentialsAndInvokeV2(describeRescoreExecutionPlanRequest, describeCall);
     } catch (ResourceNotFoundException e) {
       throw new CfnNotFoundException(ResourceModel.TYPE_NAME, describeRescoreExecutionPlanRequest.id(), e);
     } catch (ThrottlingException e) {
@@ -59,18 +140,50 @@ public class ReadHandler extends BaseHandlerStd {
        */
       throw new CfnGeneralServiceException(DESCRIBE_EXECUTION_PLAN, e); // e.g. https://github.com/aws-cloudformation/aws-cloudformation-resource-providers-logs/commit/2077c92299aeb9a68ae8f4418b5e932b12a8b186#diff-5761e3a9f732dc1ef84103dc4bc93399R56-R63
     }
+  }
 
-    String executionPlanArn = executionPlanArnBuilder.build(request);
+  /**
+   * Describes the execution plan, answering from the cache while its entry is fresh
+   * @param describeRescoreExecutionPlanRequest the aws service request to describe a resource
+   * @param proxyClient the aws service client to make the call
+   * @param describeCache cache of describe responses
+   * @param accountId account the plan belongs to
+   * @param region region the plan is in
+   * @return describe resource response
+   */
+  static DescribeRescoreExecutionPlanResponse describeExecutionPlan(
+      final DescribeRescoreExecutionPlanRequest describeRescoreExecutionPlanRequest,
+      final ProxyClient<KendraRankingClient> proxyClient,
+      final DescribeCache describeCache,
+      final String accountId,
+      final String region) {
+    DescribeRescoreExecutionPlanResponse cached = describeCache.get(accountId, region, describeRescoreExecutionPlanRequest.id());
+    if (cached != null) {
+      return cached;
+    }
+    DescribeRescoreExecutionPlanResponse describeRescoreExecutionPlanResponse = describeCache.invalidatingOnNotFound(
+        accountId, region, describeRescoreExecutionPlanRequest.id(), () -> describeExecutionPlan(describeRescoreExecutionPlanRequest, proxyClient));
+    describeCache.put(accountId, region, describeRescoreExecutionPlanResponse);
+    return describeRescoreExecutionPlanResponse;
+  }
+
+  /**
+   * Lists the tags of the execution plan, shared with the handlers that already hold a describe response
+   * @param executionPlanArn arn of the execution plan
+   * @param proxyClient the aws service client to make the call
+   * @return list tags response
+   */
+  static ListTagsForResourceResponse listTags(final String executionPlanArn,
+      final ProxyClient<KendraRankingClient> proxyClient) {
     final ListTagsForResourceRequest listTagsForResourceRequest = Translator.translateToListTagsRequest(executionPlanArn);
-    ListTagsForResourceResponse listTagsForResourceResponse;
     try {
-      listTagsForResourceResponse = proxyClient.injectCredentialsAndInvokeV2(listTagsForResourceRequest,
+      return proxyClient.injectCredentialsAndInvokeV2(listTagsForResourceRequest,
           proxyClient.client()::listTagsForResource);
+    } catch (ResourceNotFoundException e) {
+      throw new CfnNotFoundException(ResourceModel.TYPE_NAME, executionPlanArn, e);
     } catch (AwsServiceException e) {
       throw new CfnGeneralServiceException(LIST_TAGS_FOR_RESOURCE, e);
     }
-
-    return constructResourceModelFromResponse(describeRescoreExecutionPlanResponse, listTagsForResourceResponse, executionPlanArn);
   }
 
   /**
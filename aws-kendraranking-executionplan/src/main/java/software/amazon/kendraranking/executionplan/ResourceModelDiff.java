@@ -0,0 +1,102 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Field level comparison of the desired and previous resource models of an update, used to
+ * run only the API calls and waits the change actually needs.
+ */
+class ResourceModelDiff {
+
+  enum ChangeType {
+    // Nothing changed, the update only has to confirm the plan exists
+    NO_OP,
+    // Only tags changed, tagging does not require UpdateRescoreExecutionPlan or stabilization
+    TAG_ONLY,
+    // Name and/or description changed
+    METADATA_ONLY,
+    // Capacity changed, or the previous model is unknown and everything is assumed changed
+    CAPACITY
+  }
+
+  private final boolean nameChanged;
+  private final boolean descriptionChanged;
+  private final boolean capacityChanged;
+  private final boolean tagsChanged;
+
+  private ResourceModelDiff(boolean nameChanged, boolean descriptionChanged, boolean capacityChanged,
+      boolean tagsChanged) {
+    this.nameChanged = nameChanged;
+    this.descriptionChanged = descriptionChanged;
+    this.capacityChanged = capacityChanged;
+    this.tagsChanged = tagsChanged;
+  }
+
+  /**
+   * @param desiredModel desired resource state of the update
+   * @param previousModel previous resource state, may be null when CloudFormation did not send it
+   * @return diff of the two models
+   */
+  static ResourceModelDiff between(final ResourceModel desiredModel, final ResourceModel previousModel) {
+    if (previousModel == null) {
+      return new ResourceModelDiff(true, true, true, true);
+    }
+    return new ResourceModelDiff(
+        !Objects.equals(nullToEmpty(desiredModel.getName()), nullToEmpty(previousModel.getName())),
+        !Objects.equals(nullToEmpty(desiredModel.getDescription()), nullToEmpty(previousModel.getDescription())),
+        capacityUnits(desiredModel) != capacityUnits(previousModel),
+        !tagSet(desiredModel.getTags()).equals(tagSet(previousModel.getTags())));
+  }
+
+  ChangeType changeType() {
+    if (capacityChanged) {
+      return ChangeType.CAPACITY;
+    }
+    if (nameChanged || descriptionChanged) {
+      return ChangeType.METADATA_ONLY;
+    }
+    return tagsChanged ? ChangeType.TAG_ONLY : ChangeType.NO_OP;
+  }
+
+  boolean requiresUpdateCall() {
+    return nameChanged || descriptionChanged || capacityChanged;
+  }
+
+  boolean isNameChanged() {
+    return nameChanged;
+  }
+
+  boolean isDescriptionChanged() {
+    return descriptionChanged;
+  }
+
+  boolean isCapacityChanged() {
+    return capacityChanged;
+  }
+
+  boolean isTagsChanged() {
+    return tagsChanged;
+  }
+
+  // Null equivalents match the ones Translator sends for partial updates
+  private static String nullToEmpty(String value) {
+    return value == null ? "" : value;
+  }
+
+  private static int capacityUnits(ResourceModel model) {
+    CapacityUnitsConfiguration capacityUnits = model.getCapacityUnits();
+    if (capacityUnits == null || capacityUnits.getRescoreCapacityUnits() == null) {
+      return 0;
+    }
+    return capacityUnits.getRescoreCapacityUnits();
+  }
+
+  // Tags are declared with insertionOrder false in the schema, so order doesn't matter
+  private static Set<Tag> tagSet(List<Tag> tags) {
+    return tags == null ? Collections.emptySet() : new HashSet<>(tags);
+  }
+}
@@ -0,0 +1,89 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.time.Duration;
+
+import lombok.Getter;
+import lombok.ToString;
+import software.amazon.awssdk.core.retry.RetryMode;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.core.retry.backoff.FullJitterBackoffStrategy;
+
+/**
+ * Retry policy of the Kendra Ranking clients. The adaptive mode adds a client side token bucket that slows
+ * down our own call rate once throttles show up, e.g. when many stacks deploy at once, and full jitter
+ * spreads the retries out, so most throttles are absorbed inside one invocation instead of going back
+ * through CloudFormation.
+ */
+@Getter
+@ToString
+class RetrySettings {
+
+  static final String MODE_ENV = "KENDRA_RANKING_RETRY_MODE";
+  static final String MAX_RETRIES_ENV = "KENDRA_RANKING_MAX_RETRIES";
+  static final String BASE_DELAY_MILLIS_ENV = "KENDRA_RANKING_RETRY_BASE_DELAY_MILLIS";
+  static final String THROTTLING_BASE_DELAY_MILLIS_ENV = "KENDRA_RANKING_THROTTLING_BASE_DELAY_MILLIS";
+  static final String MAX_BACKOFF_MILLIS_ENV = "KENDRA_RANKING_RETRY_MAX_BACKOFF_MILLIS";
+
+  static final RetryMode DEFAULT_MODE = RetryMode.ADAPTIVE;
+  static final int DEFAULT_MAX_RETRIES = 6;
+  static final Duration DEFAULT_BASE_DELAY = Duration.ofMillis(100);
+  // Throttles come from the account level limit, so they back off from a longer base than other errors
+  static final Duration DEFAULT_THROTTLING_BASE_DELAY = Duration.ofMillis(500);
+  // With the defaults no backoff reaches the cap: the waits between the throttled retries of one call add up to
+  // at most 31.5 seconds (0.5 + 1 + 2 + 4 + 8 + 16), 6.3 seconds for other errors. That comes on top of the
+  // attempts themselves and of whatever the adaptive mode's token bucket holds the call back, which has no
+  // bound, so calls that must be over by a deadline set an api call timeout, see ApiCallTimeout
+  static final Duration DEFAULT_MAX_BACKOFF = Duration.ofSeconds(20);
+
+  private final RetryMode mode;
+  private final int maxRetries;
+  private final Duration baseDelay;
+  private final Duration throttlingBaseDelay;
+  private final Duration maxBackoff;
+
+  RetrySettings(RetryMode mode, int maxRetries, Duration baseDelay, Duration throttlingBaseDelay, Duration maxBackoff) {
+    this.mode = mode;
+    this.maxRetries = maxRetries;
+    this.baseDelay = baseDelay;
+    this.throttlingBaseDelay = throttlingBaseDelay;
+    this.maxBackoff = maxBackoff;
+  }
+
+  static RetrySettings defaults() {
+    return new RetrySettings(DEFAULT_MODE, DEFAULT_MAX_RETRIES, DEFAULT_BASE_DELAY, DEFAULT_THROTTLING_BASE_DELAY,
+        DEFAULT_MAX_BACKOFF);
+  }
+
+  static RetrySettings fromEnvironment() {
+    String mode = System.getenv(MODE_ENV);
+    String maxRetries = System.getenv(MAX_RETRIES_ENV);
+    return new RetrySettings(
+        mode == null ? DEFAULT_MODE : RetryMode.valueOf(mode.trim().toUpperCase()),
+        maxRetries == null ? DEFAULT_MAX_RETRIES : Integer.parseInt(maxRetries),
+        millisFromEnvironment(BASE_DELAY_MILLIS_ENV, DEFAULT_BASE_DELAY),
+        millisFromEnvironment(THROTTLING_BASE_DELAY_MILLIS_ENV, DEFAULT_THROTTLING_BASE_DELAY),
+        millisFromEnvironment(MAX_BACKOFF_MILLIS_ENV, DEFAULT_MAX_BACKOFF));
+  }
+
+  /**
+   * @return retry policy of the mode, with full jitter backoff for both throttled and other retryable errors
+   */
+  RetryPolicy toRetryPolicy() {
+    return RetryPolicy.builder(mode)
+        .numRetries(maxRetries)
+        .backoffStrategy(FullJitterBackoffStrategy.builder()
+            .baseDelay(baseDelay)
+            .maxBackoffTime(maxBackoff)
+            .build())
+        .throttlingBackoffStrategy(FullJitterBackoffStrategy.builder()
+            .baseDelay(throttlingBaseDelay)
+            .maxBackoffTime(maxBackoff)
+            .build())
+        .build();
+  }
+
+  private static Duration millisFromEnvironment(String name, Duration defaultValue) {
+    String millis = System.getenv(name);
+    return millis == null ? defaultValue : Duration.ofMillis(Long.parseLong(millis));
+  }
+}
@@ -0,0 +1,146 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.kendraranking.KendraRankingClient;
+import software.amazon.awssdk.services.kendraranking.model.DescribeRescoreExecutionPlanRequest;
+import software.amazon.awssdk.services.kendraranking.model.DescribeRescoreExecutionPlanResponse;
+import software.amazon.awssdk.services.kendraranking.model.ListRescoreExecutionPlansResponse;
+import software.amazon.awssdk.services.kendraranking.model.ListTagsForResourceResponse;
+import software.amazon.awssdk.services.kendraranking.model.RescoreExecutionPlanStatus;
+import software.amazon.awssdk.services.kendraranking.model.RescoreExecutionPlanSummary;
+import software.amazon.cloudformation.resource.Serializer;
+
+/**
+ * Checkpoint/restore hooks for Lambda SnapStart. Before the snapshot, the code paths of the first invocation
+ * are run once, so their classes are loaded and initialized in the snapshot instead of in a restored
+ * container: the Translator with the SDK model classes, the wrapper's JSON serialization of the model and
+ * callback context, and a describe through the client of the function's region and the shared
+ * LambdaWrapper.HTTP_CLIENT. The describe is signed with made-up credentials and is expected to be turned
+ * away, it still goes through signing, DNS, TLS and error unmarshalling. It asks for its connection to be
+ * closed, so no pooled connection is captured in the snapshot and a restored container opens fresh ones.
+ * <p>
+ * Priming must not leave anything in the snapshot that every restored container would share. The jitter's
+ * random numbers are reseeded after restore. The time based state of the circuit breakers and describe cache
+ * is dropped before the snapshot and again after restore, when their clocks have jumped.
+ * <p>
+ * The hooks only run where SnapStart is enabled, on functions deployed from template.yml. Handlers the
+ * CloudFormation registry runs for a registered type don't get SnapStart, and never call them.
+ */
+class SnapStartPriming implements Resource {
+
+  private static final String REGION_ENV = "AWS_REGION";
+
+  private static final String PRIMING_ID = "snapstart-priming";
+  private static final AwsCredentialsProvider PRIMING_CREDENTIALS =
+      StaticCredentialsProvider.create(AwsBasicCredentials.create("priming", "priming"));
+  // Long enough for a connection and TLS handshake, short enough not to hold up the snapshot
+  static final Duration PRIMING_TIMEOUT = Duration.ofSeconds(5);
+
+  // The global context only keeps weak references to its resources
+  private static final SnapStartPriming INSTANCE = new SnapStartPriming(System.getenv(REGION_ENV), ClientBuilder::getClient);
+  private static final AtomicBoolean REGISTERED = new AtomicBoolean();
+
+  private final String region;
+  private final Function<String, KendraRankingClient> clientForRegion;
+
+  /**
+   * @param region region whose client is built and called before the snapshot, none when null
+   * @param clientForRegion the cached client of a region
+   */
+  SnapStartPriming(String region, Function<String, KendraRankingClient> clientForRegion) {
+    this.region = region;
+    this.clientForRegion = clientForRegion;
+  }
+
+  /**
+   * Registers the hooks once per container, called while the wrapper is built.
+   */
+  static void register() {
+    if (REGISTERED.compareAndSet(false, true)) {
+      Core.getGlobalContext().register(INSTANCE);
+    }
+  }
+
+  @Override
+  public void beforeCheckpoint(Context<? extends Resource> context) throws Exception {
+    prime();
+    reset();
+  }
+
+  @Override
+  public void afterRestore(Context<? extends Resource> context) {
+    ExponentialJitterDelay.reseedJitter();
+    reset();
+  }
+
+  void prime() throws Exception {
+    final Tag tag = Tag.builder().key("priming").value("priming").build();
+    final ResourceModel model = ResourceModel.builder()
+        .id("priming")
+        .name("priming")
+        .description("priming")
+        .capacityUnits(CapacityUnitsConfiguration.builder().rescoreCapacityUnits(1).build())
+        .tags(Collections.singletonList(tag))
+        .build();
+    Translator.translateToCreateRequest(model, "priming");
+    Translator.translateToReadRequest(model);
+    Translator.translateToUpdateRequest(model, null);
+    Translator.translateToDeleteRequest(model);
+    Translator.translateToListRequest(null);
+    Translator.translateToTagResourceRequest(model.getTags(), "priming");
+    Translator.translateToUntagResourceRequest(Collections.singletonList(tag.getKey()), "priming");
+    Translator.translateFromReadResponse(DescribeRescoreExecutionPlanResponse.builder()
+            .id("priming")
+            .status(RescoreExecutionPlanStatus.ACTIVE)
+            .build(),
+        ListTagsForResourceResponse.builder()
+            .tags(software.amazon.awssdk.services.kendraranking.model.Tag.builder().key("priming").value("priming").build())
+            .build(),
+        "priming");
+    Translator.translateFromListResponse(ListRescoreExecutionPlansResponse.builder()
+        .summaryItems(RescoreExecutionPlanSummary.builder().id("priming").name("priming").build())
+        .build());
+
+    final Serializer serializer = new Serializer();
+    serializer.deserialize(serializer.serialize(model), new TypeReference<ResourceModel>() {});
+    final CallbackContext callbackContext = new CallbackContext();
+    callbackContext.setLastObservedStatus(RescoreExecutionPlanStatus.ACTIVE.toString());
+    serializer.deserialize(serializer.serialize(callbackContext), new TypeReference<CallbackContext>() {});
+
+    if (region != null) {
+      // Kept in the cache, it holds no connections or credentials of its own
+      primeHttp(clientForRegion.apply(region));
+    }
+  }
+
+  private static void primeHttp(KendraRankingClient client) {
+    try {
+      client.describeRescoreExecutionPlan(DescribeRescoreExecutionPlanRequest.builder()
+          .id(PRIMING_ID)
+          .overrideConfiguration(configuration -> configuration
+              .credentialsProvider(PRIMING_CREDENTIALS)
+              .apiCallTimeout(PRIMING_TIMEOUT)
+              .putHeader("Connection", "close"))
+          .build());
+    } catch (SdkException e) {
+      // Expected, the credentials are made up
+    }
+  }
+
+  static void reset() {
+    CircuitBreaker.resetAll();
+    DescribeCache.shared().clear();
+  }
+}
@@ -0,0 +1,212 @@
+package software.amazon.kendraranking.executionplan;
+
+import static software.amazon.kendraranking.executionplan.ApiName.DESCRIBE_EXECUTION_PLAN;
+
+import java.time.Clock;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
+import software.amazon.awssdk.services.kendraranking.KendraRankingClient;
+import software.amazon.awssdk.services.kendraranking.model.DescribeRescoreExecutionPlanRequest;
+import software.amazon.awssdk.services.kendraranking.model.DescribeRescoreExecutionPlanResponse;
+import software.amazon.awssdk.services.kendraranking.model.RescoreExecutionPlanStatus;
+import software.amazon.awssdk.services.kendraranking.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.kendraranking.model.ThrottlingException;
+import software.amazon.cloudformation.exceptions.CfnGeneralServiceException;
+import software.amazon.cloudformation.exceptions.CfnNotFoundException;
+import software.amazon.cloudformation.exceptions.CfnNotStabilizedException;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Delay;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ProxyClient;
+
+/**
+ * Describe polling shared by the create, update and delete handlers. Every poll is handled the same way:
+ * a throttled or timed out describe counts as not stabilized yet, a FAILED plan fails a create or update, and the poll count,
+ * throttle count and elapsed time are tracked in the {@link CallbackContext} and logged as metrics.
+ * Within the {@link InProcessWait} budget the plan is re-polled in-process before the proxy falls back
+ * to the {@link StabilizationSchedule} and a callback.
+ */
+class StabilizationEngine {
+
+  /**
+   * What the plan has to reach for the operation to be stabilized.
+   */
+  static final class Target {
+    static final Target ACTIVE = new Target("ACTIVE",
+        RescoreExecutionPlanStatus.ACTIVE::equals, RescoreExecutionPlanStatus.FAILED::equals, false);
+
+    // The plan is gone once describe stops finding it, and only then. Deleting a FAILED plan is the usual
+    // rollback of a failed create, and describe can still report FAILED right after the delete call
+    static final Target DELETED = new Target("DELETED",
+        status -> false, status -> false, true);
+
+    private final String name;
+    private final Predicate<RescoreExecutionPlanStatus> reached;
+    private final Predicate<RescoreExecutionPlanStatus> failed;
+    private final boolean reachedWhenNotFound;
+
+    Target(String name, Predicate<RescoreExecutionPlanStatus> reached, Predicate<RescoreExecutionPlanStatus> failed,
+        boolean reachedWhenNotFound) {
+      this.name = name;
+      this.reached = reached;
+      this.failed = failed;
+      this.reachedWhenNotFound = reachedWhenNotFound;
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+
+  private static final BiFunction<ResourceModel, ProxyClient<KendraRankingClient>, ResourceModel> EMPTY_CALL =
+      (model, proxyClient) -> model;
+
+  private final StabilizationSchedule stabilizationSchedule;
+  private final Target target;
+  private final InProcessWait inProcessWait;
+  private final Clock clock;
+
+  StabilizationEngine(StabilizationSchedule stabilizationSchedule, Target target, InProcessWait inProcessWait) {
+    this(stabilizationSchedule, target, inProcessWait, Clock.systemUTC());
+  }
+
+  StabilizationEngine(StabilizationSchedule stabilizationSchedule, Target target, InProcessWait inProcessWait,
+      Clock clock) {
+    this.stabilizationSchedule = stabilizationSchedule;
+    this.target = target;
+    this.inProcessWait = inProcessWait;
+    this.clock = clock;
+  }
+
+  /**
+   * @param callbackContext context the polls record the observed status in
+   * @return delay to wait between polls
+   */
+  Delay backoffDelay(CallbackContext callbackContext) {
+    return stabilizationSchedule.forContext(callbackContext);
+  }
+
+  /**
+   * Waits for the plan of the progress' model to reach the target in its own call graph.
+   * @param proxy the aws service proxy
+   * @param proxyClient the aws service client to make the calls
+   * @param progress progress of the operation
+   * @param callGraph name of the call graph
+   * @param lastDescribeResponse receives the last describe response seen
+   * @param logger logger
+   * @return progress event
+   */
+  ProgressEvent<ResourceModel, CallbackContext> stabilize(
+      final AmazonWebServicesClientProxy proxy,
+      final ProxyClient<KendraRankingClient> proxyClient,
+      final ProgressEvent<ResourceModel, CallbackContext> progress,
+      final String callGraph,
+      final AtomicReference<DescribeRescoreExecutionPlanResponse> lastDescribeResponse,
+      final Logger logger) {
+    return proxy.initiate(callGraph, InstrumentedProxyClient.forCallGraph(proxyClient, callGraph),
+            progress.getResourceModel(), progress.getCallbackContext())
+        .translateToServiceRequest(Function.identity())
+        .backoffDelay(backoffDelay(progress.getCallbackContext()))
+        .makeServiceCall(EMPTY_CALL)
+        .stabilize((request, response, proxyInvocation, model, callbackContext) ->
+            isStabilized(proxyInvocation, model, callbackContext, lastDescribeResponse, logger))
+        .progress();
+  }
+
+  /**
+   * Polls the plan, re-polling in-process at short intervals while the in-process budget lasts.
+   * @param proxyClient the aws service client to make the calls
+   * @param model resource model of the plan
+   * @param callbackContext callback context the metrics are kept in
+   * @param lastDescribeResponse receives the describe response, unless the poll was throttled or the plan is gone
+   * @param logger logger
+   * @return whether the plan reached the target
+   */
+  boolean isStabilized(final ProxyClient<KendraRankingClient> proxyClient,
+      final ResourceModel model,
+      final CallbackContext callbackContext,
+      final AtomicReference<DescribeRescoreExecutionPlanResponse> lastDescribeResponse,
+      final Logger logger) {
+    final long deadline = clock.millis() + inProcessWait.getBudget().toMillis();
+    while (true) {
+      if (poll(proxyClient, model, callbackContext, lastDescribeResponse, logger)) {
+        return true;
+      }
+      // Hand back to the proxy, and CloudFormation, once another short wait wouldn't fit the budget
+      if (!inProcessWait.isEnabled() || clock.millis() + inProcessWait.getInterval().toMillis() > deadline) {
+        return false;
+      }
+      try {
+        inProcessWait.getSleeper().sleep(inProcessWait.getInterval());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+  }
+
+  private boolean poll(final ProxyClient<KendraRankingClient> proxyClient,
+      final ResourceModel model,
+      final CallbackContext callbackContext,
+      final AtomicReference<DescribeRescoreExecutionPlanResponse> lastDescribeResponse,
+      final Logger logger) {
+    if (callbackContext.getStabilizationStartedAt() == 0L) {
+      callbackContext.setStabilizationStartedAt(clock.millis());
+    }
+    callbackContext.setStabilizationPolls(callbackContext.getStabilizationPolls() + 1);
+
+    DescribeRescoreExecutionPlanRequest describeRescoreExecutionPlanRequest = DescribeRescoreExecutionPlanRequest.builder()
+        .id(model.getId())
+        .build();
+    Function<DescribeRescoreExecutionPlanRequest, DescribeRescoreExecutionPlanResponse> describeCall =
+        proxyClient.client()::describeRescoreExecutionPlan;
+    if (inProcessWait.isEnabled()) {
+      // The safety margin only has room for a poll this long past the end of the budget
+      describeCall = ApiCallTimeout.limit(describeCall, InProcessWait.POLL_TIMEOUT);
+    }
+    boolean stabilized;
+    try {
+      DescribeRescoreExecutionPlanResponse describeRescoreExecutionPlanResponse = proxyClient.injectCredentialsAndInvokeV2(
+          describeRescoreExecutionPlanRequest, describeCall);
+      lastDescribeResponse.set(describeRescoreExecutionPlanResponse);
+      callbackContext.setLastObservedStatus(describeRescoreExecutionPlanResponse.statusAsString());
+      RescoreExecutionPlanStatus status = describeRescoreExecutionPlanResponse.status();
+      if (target.failed.test(status)) {
+        log(model, callbackContext, false, logger);
+        throw new CfnNotStabilizedException(ResourceModel.TYPE_NAME, model.getId());
+      }
+      stabilized = target.reached.test(status);
+    } catch (ResourceNotFoundException e) {
+      if (!target.reachedWhenNotFound) {
+        throw new CfnNotFoundException(ResourceModel.TYPE_NAME, model.getId(), e);
+      }
+      stabilized = true;
+    } catch (ThrottlingException e) {
+      // Try again on the next poll rather than failing a long running operation
+      callbackContext.setStabilizationThrottles(callbackContext.getStabilizationThrottles() + 1);
+      stabilized = false;
+    } catch (ApiCallTimeoutException e) {
+      // Retrying for longer than the poll timeout, most likely throttled, the next poll or callback tries again
+      stabilized = false;
+    } catch (AwsServiceException e) {
+      throw new CfnGeneralServiceException(DESCRIBE_EXECUTION_PLAN, e);
+    }
+    log(model, callbackContext, stabilized, logger);
+    return stabilized;
+  }
+
+  private void log(final ResourceModel model, final CallbackContext callbackContext, final boolean stabilized,
+      final Logger logger) {
+    logger.log(String.format("%s [%s] stabilization to %s: stabilized=%s status=%s polls=%d throttles=%d elapsedMillis=%d",
+        ResourceModel.TYPE_NAME, model.getPrimaryIdentifier(), target, stabilized, callbackContext.getLastObservedStatus(),
+        callbackContext.getStabilizationPolls(), callbackContext.getStabilizationThrottles(),
+        clock.millis() - callbackContext.getStabilizationStartedAt()));
+  }
+}
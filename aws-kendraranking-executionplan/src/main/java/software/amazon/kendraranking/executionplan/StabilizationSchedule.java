@@ -0,0 +1,76 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import software.amazon.awssdk.services.kendraranking.model.RescoreExecutionPlanStatus;
+import software.amazon.cloudformation.proxy.Delay;
+
+/**
+ * Picks the stabilization {@link Delay} from the last {@link RescoreExecutionPlanStatus} observed
+ * while polling, so that every lifecycle operation can wait differently for CREATING, UPDATING
+ * and DELETING plans. The observed status is kept in the {@link CallbackContext} so the choice
+ * survives re-invocations.
+ */
+public class StabilizationSchedule {
+
+  private final Delay defaultDelay;
+  private final Map<RescoreExecutionPlanStatus, Delay> statusDelays;
+
+  private StabilizationSchedule(Delay defaultDelay, Map<RescoreExecutionPlanStatus, Delay> statusDelays) {
+    this.defaultDelay = defaultDelay;
+    this.statusDelays = statusDelays;
+  }
+
+  /**
+   * Schedule that waits the same way whatever the status is.
+   * @param delay delay used for every status
+   * @return schedule
+   */
+  public static StabilizationSchedule uniform(Delay delay) {
+    return new StabilizationSchedule(delay, new EnumMap<>(RescoreExecutionPlanStatus.class));
+  }
+
+  /**
+   * @param defaultDelay delay used before any status was observed or for statuses without their own delay
+   * @return schedule builder
+   */
+  public static Builder builder(Delay defaultDelay) {
+    return new Builder(defaultDelay);
+  }
+
+  Delay forStatus(RescoreExecutionPlanStatus status) {
+    return status == null ? defaultDelay : statusDelays.getOrDefault(status, defaultDelay);
+  }
+
+  /**
+   * @param callbackContext context the stabilization loop records the observed status in
+   * @return delay that resolves the status-specific delay on every attempt
+   */
+  Delay forContext(CallbackContext callbackContext) {
+    return attempt -> forStatus(observedStatus(callbackContext)).nextDelay(attempt);
+  }
+
+  private static RescoreExecutionPlanStatus observedStatus(CallbackContext callbackContext) {
+    String status = callbackContext.getLastObservedStatus();
+    return status == null ? null : RescoreExecutionPlanStatus.fromValue(status);
+  }
+
+  public static class Builder {
+    private final Delay defaultDelay;
+    private final Map<RescoreExecutionPlanStatus, Delay> statusDelays = new EnumMap<>(RescoreExecutionPlanStatus.class);
+
+    private Builder(Delay defaultDelay) {
+      this.defaultDelay = defaultDelay;
+    }
+
+    public Builder status(RescoreExecutionPlanStatus status, Delay delay) {
+      statusDelays.put(status, delay);
+      return this;
+    }
+
+    public StabilizationSchedule build() {
+      return new StabilizationSchedule(defaultDelay, new EnumMap<>(statusDelays));
+    }
+  }
+}
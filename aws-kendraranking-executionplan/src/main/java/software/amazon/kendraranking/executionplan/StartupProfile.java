@@ -0,0 +1,101 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.RuntimeMXBean;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Where the time of a cold start goes, enabled with KENDRA_RANKING_STARTUP_PROFILE=true. Every phase is
+ * timed the first time it happens in the container and the profile is logged once, at the end of the first
+ * invocation. Off by default, a disabled profile records nothing and loads no management classes.
+ */
+class StartupProfile {
+
+  static final String ENABLED_ENV = "KENDRA_RANKING_STARTUP_PROFILE";
+
+  enum Phase {
+    // JVM start to the first handler invocation, mostly class loading: the wrapper, SDK, Jackson and log4j
+    INIT,
+    // Reading and parsing the resource schema
+    SCHEMA,
+    // Building the Kendra Ranking client of a region
+    CLIENT,
+    // First attempt on the wire, which carries the connection setup and TLS handshake
+    FIRST_CALL
+  }
+
+  private static final StartupProfile INSTANCE = new StartupProfile(isEnabledByEnvironment());
+
+  private final boolean enabled;
+  private final Map<Phase, Long> nanos = new EnumMap<>(Phase.class);
+  private long loadedClasses = -1L;
+  private boolean reported;
+
+  StartupProfile(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  static StartupProfile get() {
+    return INSTANCE;
+  }
+
+  static boolean isEnabledByEnvironment() {
+    return Boolean.parseBoolean(System.getenv(ENABLED_ENV));
+  }
+
+  boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Records the phase unless an earlier occurrence already was.
+   * @param phase phase that just ended
+   * @param startNanos {@link System#nanoTime()} when it started
+   */
+  void record(Phase phase, long startNanos) {
+    if (!enabled) {
+      return;
+    }
+    final long elapsed = System.nanoTime() - startNanos;
+    synchronized (this) {
+      nanos.putIfAbsent(phase, elapsed);
+    }
+  }
+
+  /**
+   * Records the INIT phase the first time a handler is invoked.
+   */
+  void firstInvocation() {
+    if (!enabled) {
+      return;
+    }
+    synchronized (this) {
+      if (nanos.containsKey(Phase.INIT)) {
+        return;
+      }
+      final RuntimeMXBean runtime = ManagementFactory.getRuntimeMXBean();
+      nanos.put(Phase.INIT, TimeUnit.MILLISECONDS.toNanos(runtime.getUptime()));
+      loadedClasses = ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount();
+    }
+  }
+
+  /**
+   * @return the profile the first time it is asked for, null afterwards and when disabled
+   */
+  synchronized String report() {
+    if (!enabled || reported) {
+      return null;
+    }
+    reported = true;
+    final StringBuilder report = new StringBuilder(ResourceModel.TYPE_NAME).append(" startup profile:");
+    for (Phase phase : Phase.values()) {
+      final Long elapsed = nanos.get(phase);
+      // Phases the first invocation didn't go through, e.g. no schema for a read
+      report.append(' ').append(phase.name()).append("Millis=")
+          .append(elapsed == null ? "-" : String.valueOf(TimeUnit.NANOSECONDS.toMillis(elapsed)));
+    }
+    return report.append(" loadedClasses=").append(loadedClasses).toString();
+  }
+}
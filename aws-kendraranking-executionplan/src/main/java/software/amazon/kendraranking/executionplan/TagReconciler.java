@@ -0,0 +1,148 @@
+package software.amazon.kendraranking.executionplan;
+
+import static software.amazon.kendraranking.executionplan.ApiName.TAG_RESOURCE;
+import static software.amazon.kendraranking.executionplan.ApiName.UNTAG_RESOURCE;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import lombok.Getter;
+import lombok.ToString;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.RetryableException;
+import software.amazon.awssdk.services.kendraranking.KendraRankingClient;
+import software.amazon.awssdk.services.kendraranking.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.kendraranking.model.TagResourceRequest;
+import software.amazon.awssdk.services.kendraranking.model.ThrottlingException;
+import software.amazon.awssdk.services.kendraranking.model.UntagResourceRequest;
+import software.amazon.awssdk.services.kendraranking.model.ValidationException;
+import software.amazon.cloudformation.exceptions.CfnGeneralServiceException;
+import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
+import software.amazon.cloudformation.exceptions.CfnNotFoundException;
+import software.amazon.cloudformation.proxy.ProxyClient;
+
+/**
+ * Reconciles the tags of an execution plan with a key-indexed diff. A tag whose value changed is
+ * only written again with TagResource, which overwrites the value, instead of being both added
+ * and untagged.
+ */
+class TagReconciler {
+
+  /**
+   * Minimal set of changes between two tag lists.
+   */
+  @Getter
+  @ToString
+  static final class TagDiff {
+    private final List<Tag> added;
+    private final List<Tag> updated;
+    private final List<String> removedKeys;
+
+    private TagDiff(List<Tag> added, List<Tag> updated, List<String> removedKeys) {
+      this.added = added;
+      this.updated = updated;
+      this.removedKeys = removedKeys;
+    }
+
+    /**
+     * @return tags to write with TagResource, new keys and keys with a new value alike
+     */
+    List<Tag> upserts() {
+      List<Tag> upserts = new ArrayList<>(added.size() + updated.size());
+      upserts.addAll(added);
+      upserts.addAll(updated);
+      return upserts;
+    }
+
+    boolean isEmpty() {
+      return added.isEmpty() && updated.isEmpty() && removedKeys.isEmpty();
+    }
+  }
+
+  /**
+   * @param desiredTags tags the plan should have, null for none
+   * @param previousTags tags the plan has, null for none
+   * @return changes to go from the previous to the desired tags
+   */
+  static TagDiff diff(Collection<Tag> desiredTags, Collection<Tag> previousTags) {
+    Map<String, String> desired = byKey(desiredTags);
+    Map<String, String> previous = byKey(previousTags);
+
+    List<Tag> added = new ArrayList<>();
+    List<Tag> updated = new ArrayList<>();
+    for (Map.Entry<String, String> tag : desired.entrySet()) {
+      if (!previous.containsKey(tag.getKey())) {
+        added.add(Tag.builder().key(tag.getKey()).value(tag.getValue()).build());
+      } else if (!Objects.equals(previous.get(tag.getKey()), tag.getValue())) {
+        updated.add(Tag.builder().key(tag.getKey()).value(tag.getValue()).build());
+      }
+    }
+    List<String> removedKeys = previous.keySet().stream()
+        .filter(key -> !desired.containsKey(key))
+        .collect(Collectors.toList());
+    return new TagDiff(added, updated, removedKeys);
+  }
+
+  /**
+   * Applies the diff with at most one UntagResource and then one TagResource call. The schema's maxItems
+   * of 200 tags is the most either call accepts, so no diff needs more. Untagging first keeps the plan
+   * under the service's tag limit while keys are swapped, and a failed untag leaves the tags untouched.
+   * @param diff changes to apply
+   * @param arn arn of the execution plan
+   * @param proxyClient the aws service client to make the calls
+   */
+  void reconcile(final TagDiff diff, final String arn, final ProxyClient<KendraRankingClient> proxyClient) {
+    if (!diff.getRemovedKeys().isEmpty()) {
+      untagResource(Translator.translateToUntagResourceRequest(diff.getRemovedKeys(), arn), proxyClient);
+    }
+    final List<Tag> upserts = diff.upserts();
+    if (!upserts.isEmpty()) {
+      tagResource(Translator.translateToTagResourceRequest(upserts, arn), proxyClient);
+    }
+  }
+
+  private static void tagResource(final TagResourceRequest tagResourceRequest,
+      final ProxyClient<KendraRankingClient> proxyClient) {
+    try {
+      proxyClient.injectCredentialsAndInvokeV2(tagResourceRequest, proxyClient.client()::tagResource);
+    } catch (ResourceNotFoundException e) {
+      throw new CfnNotFoundException(ResourceModel.TYPE_NAME, tagResourceRequest.resourceARN(), e);
+    } catch (ValidationException e) {
+      throw new CfnInvalidRequestException(e.getMessage(), e);
+    } catch (ThrottlingException e) {
+      throw RetryableException.builder().cause(e).build();
+    } catch (AwsServiceException e) {
+      throw new CfnGeneralServiceException(TAG_RESOURCE, e);
+    }
+  }
+
+  private static void untagResource(final UntagResourceRequest untagResourceRequest,
+      final ProxyClient<KendraRankingClient> proxyClient) {
+    try {
+      proxyClient.injectCredentialsAndInvokeV2(untagResourceRequest, proxyClient.client()::untagResource);
+    } catch (ResourceNotFoundException e) {
+      throw new CfnNotFoundException(ResourceModel.TYPE_NAME, untagResourceRequest.resourceARN(), e);
+    } catch (ValidationException e) {
+      throw new CfnInvalidRequestException(e.getMessage(), e);
+    } catch (ThrottlingException e) {
+      throw RetryableException.builder().cause(e).build();
+    } catch (AwsServiceException e) {
+      throw new CfnGeneralServiceException(UNTAG_RESOURCE, e);
+    }
+  }
+
+  private static Map<String, String> byKey(Collection<Tag> tags) {
+    if (tags == null) {
+      return Collections.emptyMap();
+    }
+    Map<String, String> byKey = new LinkedHashMap<>();
+    tags.forEach(tag -> byKey.put(tag.getKey(), tag.getValue()));
+    return byKey;
+  }
+}
@@ -0,0 +1,54 @@
+package software.amazon.kendraranking.executionplan;
+
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.http.SdkHttpHeaders;
+
+/**
+ * Adds a span to the current {@link CallTrace.Call} for every attempt the SDK makes, so retries and their
+ * status codes show up in the trace, and times the container's first attempt for the {@link StartupProfile}.
+ * Stateless, one instance is shared by every cached client.
+ */
+class TracingInterceptor implements ExecutionInterceptor {
+
+  private static final String CONTENT_LENGTH = "Content-Length";
+
+  private static final ExecutionAttribute<Long> TRANSMISSION_START = new ExecutionAttribute<>("TransmissionStart");
+
+  @Override
+  public void beforeTransmission(Context.BeforeTransmission context, ExecutionAttributes executionAttributes) {
+    if (StartupProfile.get().isEnabled()) {
+      executionAttributes.putAttribute(TRANSMISSION_START, System.nanoTime());
+    }
+    CallTrace.Call call = CallTrace.current();
+    if (call != null) {
+      call.beginAttempt(contentLength(context.httpRequest()));
+    }
+  }
+
+  @Override
+  public void afterTransmission(Context.AfterTransmission context, ExecutionAttributes executionAttributes) {
+    Long transmissionStart = executionAttributes.getAttribute(TRANSMISSION_START);
+    if (transmissionStart != null) {
+      StartupProfile.get().record(StartupProfile.Phase.FIRST_CALL, transmissionStart);
+    }
+    CallTrace.Call call = CallTrace.current();
+    if (call != null) {
+      call.endAttempt(context.httpResponse().statusCode(), contentLength(context.httpResponse()));
+    }
+  }
+
+  private static long contentLength(SdkHttpHeaders headers) {
+    return headers.firstMatchingHeader(CONTENT_LENGTH)
+        .map(value -> {
+          try {
+            return Long.parseLong(value);
+          } catch (NumberFormatException e) {
+            return -1L;
+          }
+        })
+        .orElse(-1L);
+  }
+}
@@ -18,10 +18,6 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * This class is a centralized placeholder for
@@ -31,18 +27,26 @@ import java.util.stream.Stream;
  */
 
 public class Translator {
+
+  // SDK models are immutable, so the null equivalent is built once. The generated resource models are not.
+  private static final CapacityUnitsConfiguration DEFAULT_CAPACITY_UNITS = CapacityUnitsConfiguration.builder()
+      .rescoreCapacityUnits(0)
+      .build();
+
   /**
    * Request to create a resource
    * @param model resource model
+   * @param clientToken idempotency token of the create call
    * @return awsRequest the aws service request to create a resource
    */
-  static CreateRescoreExecutionPlanRequest translateToCreateRequest(final ResourceModel model) {
+  static CreateRescoreExecutionPlanRequest translateToCreateRequest(final ResourceModel model, final String clientToken) {
     final CreateRescoreExecutionPlanRequest.Builder builder = CreateRescoreExecutionPlanRequest
         .builder()
+        .clientToken(clientToken)
         .name(model.getName())
         .capacityUnits(translateToCapacityUnitsConfiguration(model.getCapacityUnits()))
         .description(model.getDescription());
-    builder.tags(ListConverter.toSdk(model.getTags(), x -> Tag.builder().key(x.getKey()).value(x.getValue()).build()));
+    builder.tags(ListConverter.toSdk(model.getTags(), Translator::toSdkTag));
     return builder.build();
   }
 
@@ -66,19 +70,39 @@ public class Translator {
   static ResourceModel translateFromReadResponse(final DescribeRescoreExecutionPlanResponse describeRescoreExecutionPlanResponse,
       ListTagsForResourceResponse listTagsForResourceResponse,
       String arn) {
+    // toModel already returns a fresh list, or null for an empty one, so it doesn't need copying
+    return toResourceModel(describeRescoreExecutionPlanResponse,
+        ListConverter.toModel(listTagsForResourceResponse.tags(), Translator::toModelTag), arn);
+  }
+
+  /**
+   * Translates resource object from sdk into a resource model when the tags are already known,
+   * e.g. because the handler has just written them
+   * @param describeRescoreExecutionPlanResponse the aws service describe resource response
+   * @param tags tags of the resource
+   * @param arn arn of the resource
+   * @return model resource model
+   */
+  static ResourceModel translateFromReadResponse(final DescribeRescoreExecutionPlanResponse describeRescoreExecutionPlanResponse,
+      List<software.amazon.kendraranking.executionplan.Tag> tags,
+      String arn) {
+    // Same null equivalent as ListConverter.toModel for an empty tag list
+    return toResourceModel(describeRescoreExecutionPlanResponse,
+        tags == null || tags.isEmpty() ? null : new ArrayList<>(tags), arn);
+  }
+
+  private static ResourceModel toResourceModel(final DescribeRescoreExecutionPlanResponse describeRescoreExecutionPlanResponse,
+      List<software.amazon.kendraranking.executionplan.Tag> tags,
+      String arn) {
     // e.g. https://github.com/aws-cloudformation/aws-cloudformation-resource-providers-logs/blob/2077c92299aeb9a68ae8f4418b5e932b12a8b186/aws-logs-loggroup/src/main/java/com/aws/logs/loggroup/Translator.java#L58-L73
-    ResourceModel.ResourceModelBuilder builder = ResourceModel.builder()
+    return ResourceModel.builder()
         .id(describeRescoreExecutionPlanResponse.id())
         .arn(arn)
         .name(describeRescoreExecutionPlanResponse.name())
         .capacityUnits(translateFromCapacityUnitsConfiguration(describeRescoreExecutionPlanResponse.capacityUnits()))
-        .description(describeRescoreExecutionPlanResponse.description());
-
-    List<software.amazon.kendraranking.executionplan.Tag> tags = ListConverter.toModel(listTagsForResourceResponse.tags(),
-        x -> software.amazon.kendraranking.executionplan.Tag.builder().key(x.key()).value(x.value()).build());
-    builder.tags(tags);
-
-    return builder.build();
+        .description(describeRescoreExecutionPlanResponse.description())
+        .tags(tags)
+        .build();
   }
 
   static software.amazon.kendraranking.executionplan.CapacityUnitsConfiguration translateFromCapacityUnitsConfiguration(
@@ -118,31 +142,39 @@ public class Translator {
    * @return awsRequest the aws service request to list resources within aws account
    */
   static ListRescoreExecutionPlansRequest translateToListRequest(final String nextToken) {
+    return translateToListRequest(nextToken, null);
+  }
+
+  /**
+   * Request to list resources with an explicit page size
+   * @param nextToken token passed to the aws service list resources request
+   * @param maxResults page size, the service default when null
+   * @return awsRequest the aws service request to list resources within aws account
+   */
+  static ListRescoreExecutionPlansRequest translateToListRequest(final String nextToken, final Integer maxResults) {
     final ListRescoreExecutionPlansRequest listRescoreExecutionPlansRequest = ListRescoreExecutionPlansRequest
         .builder()
         .nextToken(nextToken)
+        .maxResults(maxResults)
         .build();
     return listRescoreExecutionPlansRequest;
   }
 
   /**
-   * Translates resource objects from sdk into a resource model (primary identifier only)
+   * Translates resource objects from sdk into a resource model (every field the summary carries,
+   * i.e. primary identifier and name)
    * @param listRescoreExecutionPlansResponse the aws service describe resource response
    * @return list of resource models
    */
   static List<ResourceModel> translateFromListResponse(final ListRescoreExecutionPlansResponse listRescoreExecutionPlansResponse) {
     // e.g. https://github.com/aws-cloudformation/aws-cloudformation-resource-providers-logs/blob/2077c92299aeb9a68ae8f4418b5e932b12a8b186/aws-logs-loggroup/src/main/java/com/aws/logs/loggroup/Translator.java#L75-L82
-    return streamOfOrEmpty(listRescoreExecutionPlansResponse.summaryItems())
-        .map(resource -> ResourceModel.builder()
-            .id(resource.id())
-            .build())
-        .collect(Collectors.toList());
-  }
-
-  private static <T> Stream<T> streamOfOrEmpty(final Collection<T> collection) {
-    return Optional.ofNullable(collection)
-        .map(Collection::stream)
-        .orElseGet(Stream::empty);
+    if (listRescoreExecutionPlansResponse.summaryItems() == null) {
+      return new ArrayList<>();
+    }
+    return ListConverter.map(listRescoreExecutionPlansResponse.summaryItems(), resource -> ResourceModel.builder()
+        .id(resource.id())
+        .name(resource.name())
+        .build());
   }
 
   static ListTagsForResourceRequest translateToListTagsRequest(final String arn) {
@@ -152,18 +184,29 @@ public class Translator {
         .build();
   }
 
+  /**
+   * Request to update a resource, carrying only the fields that differ from the previous model.
+   * Every field is sent when the previous model is unknown.
+   * @param currModel desired resource model
+   * @param prevModel previous resource model, may be null
+   * @return awsRequest the aws service request to update a resource
+   */
   static UpdateRescoreExecutionPlanRequest translateToUpdateRequest(final ResourceModel currModel,
       final ResourceModel prevModel) throws TranslatorValidationException {
-    // Null equivalents for partial updates.
-    String description = currModel.getDescription() == null ? "" : currModel.getDescription();
-    String name = currModel.getName() == null ? "" : currModel.getName();
-
+    final ResourceModelDiff diff = ResourceModelDiff.between(currModel, prevModel);
     final UpdateRescoreExecutionPlanRequest.Builder builder = UpdateRescoreExecutionPlanRequest
         .builder()
-        .id(currModel.getId())
-        .name(name)
-        .description(description)
-        .capacityUnits(translateToCapacityUnitsConfiguration(currModel.getCapacityUnits()));
+        .id(currModel.getId());
+    // Null equivalents for partial updates, a removed value has to be sent to clear it.
+    if (diff.isNameChanged()) {
+      builder.name(currModel.getName() == null ? "" : currModel.getName());
+    }
+    if (diff.isDescriptionChanged()) {
+      builder.description(currModel.getDescription() == null ? "" : currModel.getDescription());
+    }
+    if (diff.isCapacityChanged()) {
+      builder.capacityUnits(translateToCapacityUnitsConfiguration(currModel.getCapacityUnits()));
+    }
     return builder.build();
   }
 
@@ -177,42 +220,35 @@ public class Translator {
           .build();
     } else {
       // Null equivalent.
-      return CapacityUnitsConfiguration
-          .builder()
-          .rescoreCapacityUnits(0)
-          .build();
+      return DEFAULT_CAPACITY_UNITS;
     }
   }
 
   /**
-   * Request to add tags to a resource
-   * @param tags resource model
-   * @return awsRequest the aws service request to create a resource
+   * Request to remove tags from a resource
+   * @param tagKeys keys of the tags to remove
+   * @return awsRequest the aws service request to untag a resource
    */
-  static UntagResourceRequest translateToUntagResourceRequest(Set<software.amazon.kendraranking.executionplan.Tag> tags,
+  static UntagResourceRequest translateToUntagResourceRequest(Collection<String> tagKeys,
       String arn) {
     return UntagResourceRequest
         .builder()
         .resourceARN(arn)
-        .tagKeys(tags.stream().map(x -> x.getKey()).collect(Collectors.toList()))
+        .tagKeys(tagKeys)
         .build();
   }
 
   /**
-   * Request to add tags to a resource
+   * Request to add tags to a resource, or overwrite the value of existing keys
    * @param tags resource model
    * @return awsRequest the aws service request to create a resource
    */
-  static TagResourceRequest translateToTagResourceRequest(Set<software.amazon.kendraranking.executionplan.Tag> tags,
+  static TagResourceRequest translateToTagResourceRequest(Collection<software.amazon.kendraranking.executionplan.Tag> tags,
       String arn) {
     return TagResourceRequest
         .builder()
         .resourceARN(arn)
-        .tags(tags.stream().map(x -> Tag
-                .builder()
-                .key(x.getKey())
-                .value(x.getValue()).build())
-            .collect(Collectors.toList()))
+        .tags(ListConverter.map(tags, Translator::toSdkTag))
         .build();
   }
 
@@ -222,10 +258,18 @@ public class Translator {
    */
   static List<software.amazon.kendraranking.executionplan.Tag> transformTags(final Map<String, String> tags) {
     if (tags == null) return null;
-    final List<software.amazon.kendraranking.executionplan.Tag> tags_collection =
-        tags.entrySet().stream()
-            .map(e -> software.amazon.kendraranking.executionplan.Tag.builder().key(e.getKey()).value(e.getValue()).build())
-            .collect(Collectors.toList());
+    final List<software.amazon.kendraranking.executionplan.Tag> tags_collection = new ArrayList<>(tags.size());
+    for (Map.Entry<String, String> e : tags.entrySet()) {
+      tags_collection.add(software.amazon.kendraranking.executionplan.Tag.builder().key(e.getKey()).value(e.getValue()).build());
+    }
     return tags_collection;
   }
+
+  private static Tag toSdkTag(software.amazon.kendraranking.executionplan.Tag tag) {
+    return Tag.builder().key(tag.getKey()).value(tag.getValue()).build();
+  }
+
+  private static software.amazon.kendraranking.executionplan.Tag toModelTag(Tag tag) {
+    return software.amazon.kendraranking.executionplan.Tag.builder().key(tag.key()).value(tag.value()).build();
+  }
 }
@@ -2,14 +2,8 @@ package software.amazon.kendraranking.executionplan;
 
 import static software.amazon.kendraranking.executionplan.ApiName.UPDATE_EXECUTION_PLAN;
 
-import com.google.common.collect.Sets;
-
 import java.time.Duration;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.function.BiFunction;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReference;
 
 import software.amazon.awssdk.awscore.exception.AwsServiceException;
 import software.amazon.awssdk.core.exception.RetryableException;
@@ -21,9 +15,7 @@ import software.amazon.awssdk.services.kendraranking.model.DescribeRescoreExecut
 import software.amazon.awssdk.services.kendraranking.model.RescoreExecutionPlanStatus;
 import software.amazon.awssdk.services.kendraranking.model.ResourceNotFoundException;
 import software.amazon.awssdk.services.kendraranking.model.ServiceQuotaExceededException;
-import software.amazon.awssdk.services.kendraranking.model.TagResourceRequest;
 import software.amazon.awssdk.services.kendraranking.model.ThrottlingException;
-import software.amazon.awssdk.services.kendraranking.model.UntagResourceRequest;
 import software.amazon.awssdk.services.kendraranking.model.UpdateRescoreExecutionPlanRequest;
 import software.amazon.awssdk.services.kendraranking.model.UpdateRescoreExecutionPlanResponse;
 import software.amazon.awssdk.services.kendraranking.model.ValidationException;
@@ -31,7 +23,6 @@ import software.amazon.cloudformation.exceptions.CfnAccessDeniedException;
 import software.amazon.cloudformation.exceptions.CfnGeneralServiceException;
 import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
 import software.amazon.cloudformation.exceptions.CfnNotFoundException;
-import software.amazon.cloudformation.exceptions.CfnNotStabilizedException;
 import software.amazon.cloudformation.exceptions.CfnResourceConflictException;
 import software.amazon.cloudformation.exceptions.CfnServiceLimitExceededException;
 import software.amazon.cloudformation.exceptions.CfnThrottlingException;
@@ -41,34 +32,78 @@ import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
-import software.amazon.cloudformation.proxy.delay.Constant;
 public class UpdateHandler extends BaseHandlerStd {
-  private static final Constant STABILIZATION_DELAY = Constant.of()
-      // Set the timeout to something silly/way too high, because
-      // we already set the timeout in the schema https://github.com/aws-cloudformation/aws-cloudformation-resource-schema
-      .timeout(Duration.ofDays(365L))
-      // Set the delay to two minutes so the stabilization code only calls
-      // DescribeRescoreExecutionPlan every one minute
-      .delay(Duration.ofMinutes(2))
+  private static final String VALIDATE_CALL_GRAPH = "AWS-KendraRanking-ExecutionPlan::ValidateResourceExists";
+  private static final String UPDATE_CALL_GRAPH = "AWS-KendraRanking-ExecutionPlan::Update";
+
+  static final StabilizationSchedule STABILIZATION_SCHEDULE = StabilizationSchedule.builder(
+          ExponentialJitterDelay.of()
+              // Set the timeout to something silly/way too high, because
+              // we already set the timeout in the schema https://github.com/aws-cloudformation/aws-cloudformation-resource-schema
+              .timeout(Duration.ofDays(365L))
+              // The plan is usually still ACTIVE right after the update call or only briefly UPDATING,
+              // so start with short polls and back off to the previous two minute interval
+              .initialDelay(Duration.ofSeconds(5))
+              .maxDelay(Duration.ofMinutes(2))
+              .build())
+      .status(RescoreExecutionPlanStatus.UPDATING, ExponentialJitterDelay.of()
+          .timeout(Duration.ofDays(365L))
+          .initialDelay(Duration.ofSeconds(10))
+          .maxDelay(Duration.ofMinutes(1))
+          .build())
       .build();
 
-  private Delay delay;
+  private StabilizationEngine stabilizationEngine;
 
   private ExecutionPlanArnBuilder executionPlanArnBuilder;
 
+  private TagReconciler tagReconciler = new TagReconciler();
+
+  /**
+   * When the tags are reconciled. Tagging doesn't depend on the plan being ACTIVE, so by default it
+   * overlaps with the capacity change instead of waiting for stabilization.
+   */
+  enum TagReconciliation {
+    AFTER_UPDATE_CALL,
+    AFTER_STABILIZATION
+  }
+
+  private TagReconciliation tagReconciliation;
+
+  private DescribeCache describeCache;
+
   public UpdateHandler() {
-    this(new ExecutionPlanPlanArn(), STABILIZATION_DELAY);
+    this(new ExecutionPlanPlanArn(), STABILIZATION_SCHEDULE, InProcessWait.fromEnvironment(),
+        TagReconciliation.AFTER_UPDATE_CALL, DescribeCache.shared());
   }
 
   public UpdateHandler(ExecutionPlanArnBuilder executionPlanArnBuilder, Delay delay) {
+    this(executionPlanArnBuilder, StabilizationSchedule.uniform(delay));
+  }
+
+  public UpdateHandler(ExecutionPlanArnBuilder executionPlanArnBuilder, StabilizationSchedule stabilizationSchedule) {
+    this(executionPlanArnBuilder, stabilizationSchedule, InProcessWait.disabled());
+  }
+
+  UpdateHandler(ExecutionPlanArnBuilder executionPlanArnBuilder, StabilizationSchedule stabilizationSchedule,
+      InProcessWait inProcessWait) {
+    this(executionPlanArnBuilder, stabilizationSchedule, inProcessWait, TagReconciliation.AFTER_UPDATE_CALL);
+  }
+
+  UpdateHandler(ExecutionPlanArnBuilder executionPlanArnBuilder, StabilizationSchedule stabilizationSchedule,
+      InProcessWait inProcessWait, TagReconciliation tagReconciliation) {
+    this(executionPlanArnBuilder, stabilizationSchedule, inProcessWait, tagReconciliation, DescribeCache.disabled());
+  }
+
+  UpdateHandler(ExecutionPlanArnBuilder executionPlanArnBuilder, StabilizationSchedule stabilizationSchedule,
+      InProcessWait inProcessWait, TagReconciliation tagReconciliation, DescribeCache describeCache) {
     super();
     this.executionPlanArnBuilder = executionPlanArnBuilder;
-    this.delay = delay;
+    this.tagReconciliation = tagReconciliation;
+    this.describeCache = describeCache;
+    this.stabilizationEngine = new StabilizationEngine(stabilizationSchedule, StabilizationEngine.Target.ACTIVE, inProcessWait);
   }
 
-  private static final BiFunction<ResourceModel, ProxyClient<KendraRankingClient>, ResourceModel> EMPTY_CALL =
-      (model, proxyClient) -> model;
-
 
   protected ProgressEvent<ResourceModel, CallbackContext> handleRequest(
         final AmazonWebServicesClientProxy proxy,
@@ -78,40 +113,92 @@ public class UpdateHandler extends BaseHandlerStd {
         final Logger logger) {
 
         final ResourceModel model = request.getDesiredResourceState();
-//        logger.log("Update has been called>>>>>>");
-//        logger.log("DESIRED STATE>>>>" + model);
+        final ResourceModelDiff diff = ResourceModelDiff.between(model, request.getPreviousResourceState());
+        logger.log(String.format("%s [%s] update classified as %s", ResourceModel.TYPE_NAME,
+            model.getPrimaryIdentifier(), diff.changeType()));
+
+        // Last describe response seen while validating or stabilizing, reused to build the returned model
+        final AtomicReference<DescribeRescoreExecutionPlanResponse> lastDescribeResponse = new AtomicReference<>();
 
         return ProgressEvent.progress(model, callbackContext)
             // First validate the resource actually exists per the contract requirements
             // https://docs.aws.amazon.com/cloudformation-cli/latest/userguide/resource-type-test-contract.html
             .then(progress ->
-                proxy.initiate("AWS-KendraRanking-ExecutionPlan::ValidateResourceExists", proxyClient, model, callbackContext)
+                proxy.initiate(VALIDATE_CALL_GRAPH, InstrumentedProxyClient.forCallGraph(proxyClient, VALIDATE_CALL_GRAPH),
+                        model, callbackContext)
                     .translateToServiceRequest(resourceModel -> Translator.translateToReadRequest(model))
                     .makeServiceCall((describeRescoreExecutionPlanRequest, kendraRankingClientProxyClient) ->
-                        validateResourceExists(describeRescoreExecutionPlanRequest,kendraRankingClientProxyClient,logger) )
+                        validateResourceExists(describeRescoreExecutionPlanRequest, kendraRankingClientProxyClient,
+                            request.getAwsAccountId(), request.getRegion(), lastDescribeResponse, logger))
                     .progress())
-            .then(progress ->
-                proxy.initiate("AWS-KendraRanking-ExecutionPlan::Update", proxyClient, model, callbackContext)
+            // Tag only and no-op changes don't need UpdateRescoreExecutionPlan, nor a wait for the plan to settle
+            .then(progress -> !diff.requiresUpdateCall() ? progress :
+                proxy.initiate(UPDATE_CALL_GRAPH, InstrumentedProxyClient.forCallGraph(proxyClient, UPDATE_CALL_GRAPH),
+                        model, callbackContext)
                     .translateToServiceRequest(resourceModel -> translateToUpdateRequest(model, request.getPreviousResourceState()))
-                    .backoffDelay(delay)
+                    .backoffDelay(stabilizationEngine.backoffDelay(callbackContext))
                     .makeServiceCall((updateRescoreExecutionPlanRequest, kendraRankingClientProxyClient)
-                        -> updateExecutionPlan(updateRescoreExecutionPlanRequest, kendraRankingClientProxyClient, logger))
+                        -> updateExecutionPlan(updateRescoreExecutionPlanRequest, kendraRankingClientProxyClient,
+                            request.getAwsAccountId(), request.getRegion(), logger))
                     .progress())
+            .then(progress -> tagReconciliation != TagReconciliation.AFTER_UPDATE_CALL ? progress :
+                updateTagsOnce(proxyClient, progress, request, diff, logger))
+            .then(progress -> !diff.requiresUpdateCall() ? progress :
+                stabilizationEngine.stabilize(proxy, proxyClient, progress, "AWS-KendraRanking-ExecutionPlan::PostUpdateStabilize",
+                    lastDescribeResponse, logger))
+            .then(progress -> updateTagsOnce(proxyClient, progress, request, diff, logger))
+            .then(progress -> constructResourceModel(proxy, request, callbackContext, proxyClient, diff,
+                lastDescribeResponse.get(), logger));
 
-            .then(progress -> stabilize(proxy, proxyClient, progress, "AWS-KendraRanking-ExecutionPlan::PostUpdateStabilize", logger))
-            .then(progress -> updateTags(proxyClient, progress, request, logger))
-            .then(progress -> new ReadHandler(executionPlanArnBuilder).handleRequest(proxy, request, callbackContext, proxyClient, logger));
+    }
 
+    private ProgressEvent<ResourceModel, CallbackContext> constructResourceModel(
+        final AmazonWebServicesClientProxy proxy,
+        final ResourceHandlerRequest<ResourceModel> request,
+        final CallbackContext callbackContext,
+        final ProxyClient<KendraRankingClient> proxyClient,
+        final ResourceModelDiff diff,
+        final DescribeRescoreExecutionPlanResponse describeRescoreExecutionPlanResponse,
+        final Logger logger) {
+      if (describeRescoreExecutionPlanResponse == null) {
+        // Validation and stabilization ran in an earlier invocation
+        return new ReadHandler(executionPlanArnBuilder, ConcurrentCalls.executor(), describeCache)
+            .handleRequest(proxy, request, callbackContext, proxyClient, logger);
+      }
+      if (diff.requiresUpdateCall()) {
+        // Fresh from stabilization, the read CloudFormation usually sends next can be answered from it
+        describeCache.put(request.getAwsAccountId(), request.getRegion(), describeRescoreExecutionPlanResponse);
+      }
+      String executionPlanArn = executionPlanArnBuilder.build(request);
+      if (diff.isTagsChanged()) {
+        // The tags were just reconciled with the desired ones, no need to list them again
+        return ProgressEvent.defaultSuccessHandler(Translator.translateFromReadResponse(describeRescoreExecutionPlanResponse,
+            request.getDesiredResourceState().getTags(), executionPlanArn));
+      }
+      return ProgressEvent.defaultSuccessHandler(Translator.translateFromReadResponse(describeRescoreExecutionPlanResponse,
+          describeCache.invalidatingOnNotFound(request.getAwsAccountId(), request.getRegion(), describeRescoreExecutionPlanResponse.id(),
+              () -> ReadHandler.listTags(executionPlanArn, proxyClient)),
+          executionPlanArn));
     }
 
     private DescribeRescoreExecutionPlanResponse validateResourceExists(DescribeRescoreExecutionPlanRequest describeRescoreExecutionPlanRequest,
-        ProxyClient<KendraRankingClient> proxyClient, final Logger logger) {
+        ProxyClient<KendraRankingClient> proxyClient,
+        final String accountId,
+        final String region,
+        final AtomicReference<DescribeRescoreExecutionPlanResponse> lastDescribeResponse,
+        final Logger logger) {
     //logger.log("In validateResource");
-      DescribeRescoreExecutionPlanResponse describeRescoreExecutionPlanResponse = null;
+      DescribeRescoreExecutionPlanResponse describeRescoreExecutionPlanResponse =
+          describeCache.get(accountId, region, describeRescoreExecutionPlanRequest.id());
+      if (describeRescoreExecutionPlanResponse != null) {
+        lastDescribeResponse.set(describeRescoreExecutionPlanResponse);
+        return describeRescoreExecutionPlanResponse;
+      }
       try {
         describeRescoreExecutionPlanResponse = proxyClient.injectCredentialsAndInvokeV2(
             describeRescoreExecutionPlanRequest,proxyClient.client()::describeRescoreExecutionPlan);
       } catch (ResourceNotFoundException e) {
+        describeCache.invalidate(accountId, region, describeRescoreExecutionPlanRequest.id());
         throw new CfnNotFoundException(ResourceModel.TYPE_NAME, describeRescoreExecutionPlanRequest.id(), e);
       } catch (ThrottlingException e) {
         throw RetryableException.builder().cause(e).build();
@@ -122,6 +209,8 @@ public class UpdateHandler extends BaseHandlerStd {
       }
 
       //logger.log("describeRescoreExecutionPlanResponse>>>>" + describeRescoreExecutionPlanResponse);
+      describeCache.put(accountId, region, describeRescoreExecutionPlanResponse);
+      lastDescribeResponse.set(describeRescoreExecutionPlanResponse);
       return describeRescoreExecutionPlanResponse;
     }
 
@@ -134,57 +223,6 @@ public class UpdateHandler extends BaseHandlerStd {
       }
     }
 
-  private ProgressEvent<ResourceModel, CallbackContext> stabilize(
-      final AmazonWebServicesClientProxy proxy,
-      final ProxyClient<KendraRankingClient> proxyClient,
-      final ProgressEvent<ResourceModel, CallbackContext> progress,
-      String callGraph,
-      final Logger logger) {
-//    logger.log("In Stabilize>>>>>");
-//    logger.log("PROGRESS>>>>" + progress.toString());
-    return proxy.initiate(callGraph, proxyClient, progress.getResourceModel(),
-            progress.getCallbackContext())
-        .translateToServiceRequest(Function.identity())
-        .backoffDelay(delay)
-        .makeServiceCall(EMPTY_CALL)
-        .stabilize((request, response, proxyInvocation, model, callbackContext) ->
-            isStabilized(proxyInvocation, model, logger)).progress();
-  }
-
-  private boolean isStabilized(final ProxyClient<KendraRankingClient> proxyClient,
-      final ResourceModel model,
-      final Logger logger) {
-    //logger.log("In isStablilized");
-    DescribeRescoreExecutionPlanRequest describeRescoreExecutionPlanRequest = DescribeRescoreExecutionPlanRequest.builder()
-        .id(model.getId())
-        .build();
-
-    //logger.log("In stabilized and calling describe>>>>" + describeRescoreExecutionPlanRequest);
-//    final long startTime = System.currentTimeMillis();
-//    logger.log("StartTIME>>>>" + startTime);
-
-    DescribeRescoreExecutionPlanResponse describeRescoreExecutionPlanResponse = null;
-    try {
-      describeRescoreExecutionPlanResponse = proxyClient.injectCredentialsAndInvokeV2(describeRescoreExecutionPlanRequest,
-          proxyClient.client()::describeRescoreExecutionPlan);
-    } catch (ThrottlingException e) {
-      return false;
-    }
-//    logger.log("describeRescoreExecutionPlanResponse>>>>>>" + describeRescoreExecutionPlanResponse);
-//    final long endTime = System.currentTimeMillis();
-//    logger.log("ENDTIME>>>>" + endTime);
-    RescoreExecutionPlanStatus rerankingEndpointStatus = describeRescoreExecutionPlanResponse.status();
-    if (RescoreExecutionPlanStatus.FAILED.equals(rerankingEndpointStatus)) {
-      throw new CfnNotStabilizedException(ResourceModel.TYPE_NAME, model.getId());
-    }
-
-    //logger.log("STATUS>>>" +  rerankingEndpointStatus);
-    boolean stabilized = RescoreExecutionPlanStatus.ACTIVE.equals(rerankingEndpointStatus);
-    logger.log(String.format("%s [%s] update has stabilized: %s", ResourceModel.TYPE_NAME, model.getPrimaryIdentifier(), stabilized));
-    return stabilized;
-  }
-
-
     /**
      * Implement client invocation of the update request through the proxyClient, which is already initialised with
      * caller credentials, correct region and retry settings
@@ -195,15 +233,20 @@ public class UpdateHandler extends BaseHandlerStd {
     private UpdateRescoreExecutionPlanResponse updateExecutionPlan(
         final UpdateRescoreExecutionPlanRequest updateRescoreExecutionPlanRequest,
         final ProxyClient<KendraRankingClient> proxyClient,
+        final String accountId,
+        final String region,
         final Logger logger) {
 //      logger.log("calling update>>>>");
 //      logger.log("updateRescoreExecutionPlanRequest>>>>>" + updateRescoreExecutionPlanRequest.toString());
       UpdateRescoreExecutionPlanResponse updateRescoreExecutionPlanResponse = null;
-      // In this code block we assume the previous DescribeExecutionPlan API call validated the resource exists and so doesn't
-      // catch and re-throw here.
+      // The existence check may have been answered from the describe cache, so a plan deleted since is only found
+      // gone here
       try {
         updateRescoreExecutionPlanResponse = proxyClient.injectCredentialsAndInvokeV2(updateRescoreExecutionPlanRequest,
             proxyClient.client()::updateRescoreExecutionPlan);
+      } catch (ResourceNotFoundException e) {
+        describeCache.invalidate(accountId, region, updateRescoreExecutionPlanRequest.id());
+        throw new CfnNotFoundException(ResourceModel.TYPE_NAME, updateRescoreExecutionPlanRequest.id(), e);
       } catch (ValidationException e) {
         throw new CfnInvalidRequestException(e.getMessage(), e);
       } catch (AccessDeniedException e) {
@@ -225,6 +268,7 @@ public class UpdateHandler extends BaseHandlerStd {
         //logger.log("AwsServiceException>>>>>"+ e);
         throw new CfnGeneralServiceException(UPDATE_EXECUTION_PLAN, e);
       }
+      describeCache.invalidate(accountId, region, updateRescoreExecutionPlanRequest.id());
 //      catch (Exception e) {
 //        //logger.log("EXCEPTION IN UPDATE>>>>" + e);
 //      }
@@ -236,53 +280,37 @@ public class UpdateHandler extends BaseHandlerStd {
       return updateRescoreExecutionPlanResponse;
     }
 
+    private ProgressEvent<ResourceModel, CallbackContext> updateTagsOnce(
+        final ProxyClient<KendraRankingClient> proxyClient,
+        final ProgressEvent<ResourceModel, CallbackContext> progress,
+        final ResourceHandlerRequest<ResourceModel> request,
+        final ResourceModelDiff diff,
+        final Logger logger) {
+      CallbackContext callbackContext = progress.getCallbackContext();
+      if (!diff.isTagsChanged() || callbackContext.isTagsReconciled()) {
+        return progress;
+      }
+      ProgressEvent<ResourceModel, CallbackContext> tagged = updateTags(proxyClient, progress, request, logger);
+      callbackContext.setTagsReconciled(true);
+      return tagged;
+    }
+
     private ProgressEvent<ResourceModel, CallbackContext> updateTags(
         final ProxyClient<KendraRankingClient> proxyClient,
         final ProgressEvent<ResourceModel, CallbackContext> progress,
         ResourceHandlerRequest<ResourceModel> request, Logger logger) {
-      CallbackContext callbackContext = progress.getCallbackContext();
       ResourceModel currResourceModel = request.getDesiredResourceState();
       ResourceModel prevResourceModel = request.getPreviousResourceState();
-      Set<Tag> currentTags;
-      //logger.log("In update tags");
-      if (currResourceModel.getTags() != null) {
-        //logger.log("current tags>>>>>" + currResourceModel.getTags().toString());
-
-        currentTags = currResourceModel.getTags().stream().collect(Collectors.toSet());
-      } else {
-        currentTags = new HashSet<>();
-      }
-
-
-      String arn = executionPlanArnBuilder.build(request);
-      Set<Tag> existingTags = new HashSet<>();
-      if (prevResourceModel != null && prevResourceModel.getTags() != null) {
-        //logger.log("previous tags>>>>>" + prevResourceModel.getTags().toString());
-
-        existingTags = prevResourceModel.getTags().stream().collect(Collectors.toSet());
-      }
-      final Set<Tag> tagsToAdd = Sets.difference(currentTags, existingTags);
-      //logger.log("tagsToAdd>>>>" + tagsToAdd.toString());
-      if (!tagsToAdd.isEmpty()) {
-        TagResourceRequest tagResourceRequest = Translator.translateToTagResourceRequest(tagsToAdd, arn);
-        try {
-          proxyClient.injectCredentialsAndInvokeV2(tagResourceRequest, proxyClient.client()::tagResource);
-        } catch (ValidationException e) {
-          throw new CfnInvalidRequestException(e.getMessage(), e);
-        }
-      }
-
-      final Set<Tag> tagsToRemove = Sets.difference(existingTags, currentTags);
-      //logger.log("tagstoremove>>>>" + tagsToRemove.toString());
-      if (!tagsToRemove.isEmpty()) {
-        UntagResourceRequest untagResourceRequest = Translator.translateToUntagResourceRequest(tagsToRemove, arn);
-        try {
-          proxyClient.injectCredentialsAndInvokeV2(untagResourceRequest, proxyClient.client()::untagResource);
-        } catch (ValidationException e) {
-          throw new CfnInvalidRequestException(e.getMessage(), e);
-        }
-      }
-      //logger.log("currResourceModel>>>>" + currResourceModel.getTags().toString());
-      return ProgressEvent.progress(currResourceModel, callbackContext);
+      TagReconciler.TagDiff tagDiff = TagReconciler.diff(currResourceModel.getTags(),
+          prevResourceModel == null ? null : prevResourceModel.getTags());
+      logger.log(String.format("%s [%s] tags to add: %d, to update: %d, to remove: %d", ResourceModel.TYPE_NAME,
+          currResourceModel.getPrimaryIdentifier(), tagDiff.getAdded().size(), tagDiff.getUpdated().size(),
+          tagDiff.getRemovedKeys().size()));
+      describeCache.invalidatingOnNotFound(request.getAwsAccountId(), request.getRegion(), currResourceModel.getId(), () -> {
+        tagReconciler.reconcile(tagDiff, executionPlanArnBuilder.build(request), proxyClient);
+        return null;
+      });
+      describeCache.invalidate(request.getAwsAccountId(), request.getRegion(), currResourceModel.getId());
+      return ProgressEvent.progress(currResourceModel, progress.getCallbackContext());
     }
 }
@@ -0,0 +1,66 @@
+#!/usr/bin/env bash
+# Invokes the deployable native zip the way Lambda does: bootstrap, run from the unpacked zip behind the Lambda
+# Runtime Interface Emulator with _HANDLER set to the template's handler, starts the executable, which then
+# receives a CloudFormation request. The request is a create whose model fails schema validation, so the
+# wrapper must answer it with an InvalidRequest failure without calling the service, instead of the runtime
+# error a class or resource missing from the native image configuration would end in.
+#
+# Runs in the integration-test phase of mvn -Pnative verify, with aws-lambda-rie on the path, see
+# https://github.com/aws/aws-lambda-runtime-interface-emulator.
+set -euo pipefail
+
+cd "$(dirname "$0")/../.."
+
+PORT="${PORT:-9001}"
+ZIP="${ZIP:-target/aws-kendraranking-executionplan-handler-1.0-SNAPSHOT-native.zip}"
+HANDLER="software.amazon.kendraranking.executionplan.HandlerWrapper::handleRequest"
+URL="http://localhost:${PORT}/2015-03-31/functions/function/invocations"
+
+for dependency in aws-lambda-rie curl unzip; do
+  command -v "${dependency}" > /dev/null || { echo "${dependency} is not on the path" >&2; exit 1; }
+done
+[[ -f "${ZIP}" ]] || { echo "${ZIP} is missing, build it with mvn -Pnative package" >&2; exit 1; }
+
+TASK_ROOT="$(mktemp -d)"
+RIE_PID=""
+cleanup() {
+  [[ -n "${RIE_PID}" ]] && kill "${RIE_PID}" 2> /dev/null
+  rm -rf "${TASK_ROOT}"
+}
+trap cleanup EXIT
+unzip -q "${ZIP}" -d "${TASK_ROOT}"
+
+LAMBDA_TASK_ROOT="${TASK_ROOT}" _HANDLER="${HANDLER}" \
+  aws-lambda-rie --runtime-interface-emulator-address "0.0.0.0:${PORT}" "${TASK_ROOT}/bootstrap" &
+RIE_PID=$!
+
+REQUEST='{
+  "awsAccountId": "123456789012",
+  "bearerToken": "native-smoke-test",
+  "region": "us-east-1",
+  "action": "CREATE",
+  "resourceType": "AWS::KendraRanking::ExecutionPlan",
+  "resourceTypeVersion": "00000001",
+  "requestData": {
+    "callerCredentials": {"accessKeyId": "accessKey", "secretAccessKey": "secretKey", "sessionToken": "token"},
+    "logicalResourceId": "Plan",
+    "resourceProperties": {"Name": "plan", "Unknown": "property"}
+  },
+  "stackId": "arn:aws:cloudformation:us-east-1:123456789012:stack/native-smoke-test/1",
+  "callbackContext": null
+}'
+
+# The emulator only accepts connections once it is up
+for ((attempt = 0; ; attempt++)); do
+  if RESPONSE="$(curl -s -d "${REQUEST}" "${URL}")"; then
+    break
+  fi
+  (( attempt < 500 )) || { echo "the emulator didn't start" >&2; exit 1; }
+  sleep 0.01
+done
+
+echo "${RESPONSE}"
+if [[ "${RESPONSE}" != *'"status":"FAILED"'* || "${RESPONSE}" != *'"errorCode":"InvalidRequest"'* ]]; then
+  echo "the native entry point didn't answer the request with an InvalidRequest failure" >&2
+  exit 1
+fi
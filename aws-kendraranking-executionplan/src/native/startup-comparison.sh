@@ -0,0 +1,90 @@
+#!/usr/bin/env bash
+# Compares the cold start of the native executable with the JVM jar's. Each run starts a fresh process
+# behind the Lambda Runtime Interface Emulator and times launch to first response, then one warm invocation.
+#
+# Build both with `mvn -Pnative package` (the shaded jar then carries the runtime interface client too) and
+# put aws-lambda-rie on the path, see https://github.com/aws/aws-lambda-runtime-interface-emulator.
+#
+# Usage: src/native/startup-comparison.sh [runs] [event.json]
+# The default event is a test entrypoint READ of a plan that needn't exist: it loads the wrapper,
+# deserializes the request and makes one service call, which is what a stabilization callback pays for.
+set -euo pipefail
+
+cd "$(dirname "$0")/../.."
+
+RUNS="${1:-5}"
+EVENT="${2:-}"
+PORT="${PORT:-9000}"
+JAR="${JAR:-target/aws-kendraranking-executionplan-handler-1.0-SNAPSHOT.jar}"
+NATIVE="${NATIVE:-target/aws-kendraranking-executionplan}"
+RIC_MAIN="com.amazonaws.services.lambda.runtime.api.client.AWSLambda"
+HANDLER="software.amazon.kendraranking.executionplan.HandlerWrapper::testEntrypoint"
+URL="http://localhost:${PORT}/2015-03-31/functions/function/invocations"
+
+if [[ -z "${EVENT}" ]]; then
+  EVENT="$(mktemp)"
+  trap 'rm -f "${EVENT}"' EXIT
+  cat > "${EVENT}" <<JSON
+{
+  "credentials": {
+    "accessKeyId": "${AWS_ACCESS_KEY_ID:-accessKey}",
+    "secretAccessKey": "${AWS_SECRET_ACCESS_KEY:-secretKey}",
+    "sessionToken": "${AWS_SESSION_TOKEN:-token}"
+  },
+  "action": "READ",
+  "request": {
+    "clientRequestToken": "startup-comparison",
+    "desiredResourceState": {"Id": "startup-comparison"},
+    "logicalResourceIdentifier": "Plan",
+    "region": "${AWS_REGION:-us-east-1}"
+  },
+  "callbackContext": null
+}
+JSON
+fi
+
+for dependency in aws-lambda-rie curl java; do
+  command -v "${dependency}" > /dev/null || { echo "${dependency} is not on the path" >&2; exit 1; }
+done
+for artifact in "${JAR}" "${NATIVE}"; do
+  [[ -f "${artifact}" ]] || { echo "${artifact} is missing, build it with mvn -Pnative package" >&2; exit 1; }
+done
+
+millis() {
+  date +%s%3N
+}
+
+# Prints the launch to first response and warm invocation times of one run, in milliseconds
+run() {
+  local start first warm pid
+  start="$(millis)"
+  aws-lambda-rie --runtime-interface-emulator-address "0.0.0.0:${PORT}" --log-level error "$@" > /dev/null 2>&1 &
+  pid=$!
+  # The emulator only accepts connections once it is up, the first invocation then starts the runtime
+  until curl -s -o /dev/null -d @"${EVENT}" "${URL}"; do
+    sleep 0.01
+  done
+  first="$(millis)"
+  curl -s -o /dev/null -d @"${EVENT}" "${URL}"
+  warm="$(( $(millis) - first ))"
+  kill "${pid}"
+  wait "${pid}" 2> /dev/null || true
+  echo "$(( first - start )) ${warm}"
+}
+
+report() {
+  local name="$1"
+  shift
+  local total_cold=0 total_warm=0 cold warm
+  for ((i = 0; i < RUNS; i++)); do
+    read -r cold warm < <(run "$@")
+    total_cold=$((total_cold + cold))
+    total_warm=$((total_warm + warm))
+  done
+  printf '%-8s cold start %6d ms   warm invocation %6d ms   (mean of %d runs)\n' \
+    "${name}" $((total_cold / RUNS)) $((total_warm / RUNS)) "${RUNS}"
+}
+
+# Tiered compilation stopped at C1, the usual cold start tuning of Java functions
+report jvm java -XX:+TieredCompilation -XX:TieredStopAtLevel=1 -cp "${JAR}" "${RIC_MAIN}" "${HANDLER}"
+report native "${NATIVE}" "${HANDLER}"
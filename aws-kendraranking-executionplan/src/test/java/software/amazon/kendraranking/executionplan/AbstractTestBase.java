@@ -1,5 +1,9 @@
 package software.amazon.kendraranking.executionplan;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import software.amazon.awssdk.awscore.AwsRequest;
@@ -22,6 +26,21 @@ public class AbstractTestBase {
     MOCK_CREDENTIALS = new Credentials("accessKey", "secretKey", "token");
     logger = new LoggerProxy();
   }
+  // How long the breaker of openCircuitBreaker() pauses calls for
+  protected static final int OPEN_CIRCUIT_BREAKER_SECONDS = 30;
+
+  /**
+   * @return breaker of us-west-2 that has just opened, on a clock that stands still
+   */
+  static CircuitBreaker openCircuitBreaker() {
+    final CircuitBreaker circuitBreaker = new CircuitBreaker("us-west-2", 50, 1, 1,
+      Duration.ofSeconds(OPEN_CIRCUIT_BREAKER_SECONDS), Clock.fixed(Instant.EPOCH, ZoneOffset.UTC));
+    final CircuitBreaker.Listener listener = (from, to) -> { };
+    circuitBreaker.tryAcquire(listener);
+    circuitBreaker.recordFailure(listener);
+    return circuitBreaker;
+  }
+
   static ProxyClient<KendraRankingClient> MOCK_PROXY(
     final AmazonWebServicesClientProxy proxy,
     final KendraRankingClient sdkClient) {
@@ -0,0 +1,112 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.http.SdkHttpFullRequest;
+import software.amazon.awssdk.http.SdkHttpMethod;
+import software.amazon.awssdk.http.SdkHttpResponse;
+import software.amazon.awssdk.services.kendraranking.KendraRankingClient;
+import software.amazon.awssdk.services.kendraranking.model.DescribeRescoreExecutionPlanRequest;
+import software.amazon.awssdk.services.kendraranking.model.DescribeRescoreExecutionPlanResponse;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.ProxyClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CallTraceTest extends AbstractTestBase {
+
+    private static final String CALL_GRAPH = "AWS-KendraRanking-ExecutionPlan::PostCreateStabilize";
+
+    private final AtomicLong nanoTime = new AtomicLong(1L);
+
+    private final TracingInterceptor interceptor = new TracingInterceptor();
+
+    private CallTrace trace;
+
+    private ProxyClient<KendraRankingClient> proxyClient;
+
+    @BeforeEach
+    public void setup() {
+        final AmazonWebServicesClientProxy proxy =
+            new AmazonWebServicesClientProxy(logger, MOCK_CREDENTIALS, () -> Duration.ofSeconds(600).toMillis());
+        trace = new CallTrace("Create", nanoTime::get);
+        proxyClient = new InstrumentedProxyClient(MOCK_PROXY(proxy, mock(KendraRankingClient.class)),
+            new HandlerMetrics("Test/Namespace", "Create", Clock.systemUTC()), trace);
+    }
+
+    @Test
+    public void testSpansEveryAttemptUnderTheCallGraph() {
+        final ProxyClient<KendraRankingClient> stabilizeClient = InstrumentedProxyClient.forCallGraph(proxyClient, CALL_GRAPH);
+
+        // Stands in for the SDK, which runs the interceptor around each attempt on the calling thread
+        stabilizeClient.injectCredentialsAndInvokeV2(DescribeRescoreExecutionPlanRequest.builder().id("id").build(),
+            request -> {
+                nanoTime.addAndGet(millis(5));
+                attempt(503, 0L, millis(20));
+                nanoTime.addAndGet(millis(100));
+                attempt(200, 120L, millis(30));
+                return DescribeRescoreExecutionPlanResponse.builder().id("id").build();
+            });
+        nanoTime.addAndGet(millis(1000));
+
+        final List<CallTrace.Call> calls = trace.getCalls();
+        assertThat(calls).hasSize(1);
+        assertThat(calls.get(0).getCallGraph()).isEqualTo(CALL_GRAPH);
+        assertThat(calls.get(0).getApi()).isEqualTo(ApiName.DESCRIBE_EXECUTION_PLAN);
+        assertThat(calls.get(0).getAttempts()).hasSize(2);
+        assertThat(CallTrace.current()).isNull();
+
+        assertThat(trace.summary())
+            .contains("elapsedMillis=1155 inSdkMillis=155 onWireMillis=50 handlerMillis=1000 calls=1 attempts=2 retries=1")
+            .contains(CALL_GRAPH + " DescribeRescoreExecutionPlan calls=1 failures=0 attempts=2 sdkMillis=155 wireMillis=50"
+                + " status=503x1,200x1 bytesOut=24 bytesIn=120");
+    }
+
+    @Test
+    public void testCallsOutsideOfACallGraphAreLabelledWithTheOperation() {
+        proxyClient.injectCredentialsAndInvokeV2(DescribeRescoreExecutionPlanRequest.builder().id("id").build(),
+            request -> DescribeRescoreExecutionPlanResponse.builder().id("id").build());
+
+        assertThat(trace.getCalls().get(0).getCallGraph()).isEqualTo("Create");
+        assertThat(trace.getCalls().get(0).getAttempts()).isEmpty();
+    }
+
+    @Test
+    public void testInterceptorIgnoresUntracedCalls() {
+        attempt(200, 0L, 0L);
+
+        assertThat(trace.getCalls()).isEmpty();
+    }
+
+    private void attempt(int statusCode, long responseBytes, long wireNanos) {
+        final Context.BeforeTransmission beforeTransmission = mock(Context.BeforeTransmission.class);
+        when(beforeTransmission.httpRequest()).thenReturn(SdkHttpFullRequest.builder()
+            .method(SdkHttpMethod.POST)
+            .protocol("https")
+            .host("kendra-ranking.us-west-2.api.aws")
+            .putHeader("Content-Length", "12")
+            .build());
+        final Context.AfterTransmission afterTransmission = mock(Context.AfterTransmission.class);
+        when(afterTransmission.httpResponse()).thenReturn(SdkHttpResponse.builder()
+            .statusCode(statusCode)
+            .putHeader("Content-Length", String.valueOf(responseBytes))
+            .build());
+
+        interceptor.beforeTransmission(beforeTransmission, new ExecutionAttributes());
+        nanoTime.addAndGet(wireNanos);
+        interceptor.afterTransmission(afterTransmission, new ExecutionAttributes());
+    }
+
+    private static long millis(long millis) {
+        return Duration.ofMillis(millis).toNanos();
+    }
+}
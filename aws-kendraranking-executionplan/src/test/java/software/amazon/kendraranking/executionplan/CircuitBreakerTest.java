@@ -0,0 +1,178 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.json.JSONObject;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.kendraranking.KendraRankingClient;
+import software.amazon.awssdk.services.kendraranking.model.DescribeRescoreExecutionPlanRequest;
+import software.amazon.awssdk.services.kendraranking.model.InternalServerException;
+import software.amazon.awssdk.services.kendraranking.model.ThrottlingException;
+import software.amazon.awssdk.services.kendraranking.model.ValidationException;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.ProxyClient;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+public class CircuitBreakerTest extends AbstractTestBase {
+
+  private static final Duration OPEN_DURATION = Duration.ofSeconds(30);
+
+  private final MutableClock clock = new MutableClock();
+
+  private final List<String> transitions = new ArrayList<>();
+
+  private final CircuitBreaker.Listener listener = (from, to) -> transitions.add(from + "->" + to);
+
+  @Test
+  public void testIsFailure() {
+    assertThat(CircuitBreaker.isFailure(InternalServerException.builder().statusCode(500).build())).isTrue();
+    assertThat(CircuitBreaker.isFailure(SdkClientException.builder().message("timed out").build())).isTrue();
+    assertThat(CircuitBreaker.isFailure(ThrottlingException.builder().statusCode(400).build())).isFalse();
+    assertThat(CircuitBreaker.isFailure(ValidationException.builder().statusCode(400).build())).isFalse();
+  }
+
+  @Test
+  public void testOpensAtFailureRateOnceMinimumCallsAreMade() {
+    CircuitBreaker breaker = breaker();
+
+    for (int i = 0; i < 4; i++) {
+      call(breaker, true);
+    }
+    assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+    call(breaker, false);
+    call(breaker, true);
+    assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    assertThat(transitions).containsExactly("CLOSED->OPEN");
+  }
+
+  @Test
+  public void testOldOutcomesLeaveTheWindow() {
+    CircuitBreaker breaker = breaker();
+
+    for (int i = 0; i < 10; i++) {
+      call(breaker, false);
+    }
+    for (int i = 0; i < 4; i++) {
+      call(breaker, true);
+    }
+    assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+    // Five failures out of the last ten calls, though only a third of all calls failed
+    call(breaker, true);
+    assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+  }
+
+  @Test
+  public void testRejectsWhileOpenThenLetsOneProbeThrough() {
+    CircuitBreaker breaker = openBreaker();
+
+    assertThat(breaker.tryAcquire(listener)).isFalse();
+    assertThat(breaker.retryAfter()).isEqualTo(OPEN_DURATION);
+    clock.advance(Duration.ofSeconds(20));
+    assertThat(breaker.tryAcquire(listener)).isFalse();
+    assertThat(breaker.retryAfter()).isEqualTo(Duration.ofSeconds(10));
+
+    clock.advance(Duration.ofSeconds(10));
+    assertThat(breaker.tryAcquire(listener)).isTrue();
+    assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+    assertThat(breaker.tryAcquire(listener)).isFalse();
+    assertThat(breaker.retryAfter()).isEqualTo(CircuitBreaker.PROBE_RETRY_AFTER);
+
+    breaker.recordSuccess(listener);
+    assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    assertThat(breaker.tryAcquire(listener)).isTrue();
+    assertThat(transitions).containsExactly("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->CLOSED");
+  }
+
+  @Test
+  public void testFailedProbeOpensAgain() {
+    CircuitBreaker breaker = openBreaker();
+    clock.advance(OPEN_DURATION);
+
+    assertThat(breaker.tryAcquire(listener)).isTrue();
+    breaker.recordFailure(listener);
+
+    assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    assertThat(breaker.retryAfter()).isEqualTo(OPEN_DURATION);
+    assertThat(transitions).containsExactly("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->OPEN");
+  }
+
+  @Test
+  public void testInstrumentedProxyClientFailsFastWhileOpen() {
+    KendraRankingClient sdkClient = mock(KendraRankingClient.class);
+    HandlerMetrics metrics = new HandlerMetrics("Test/Namespace", "Update", Clock.systemUTC());
+    ProxyClient<KendraRankingClient> proxyClient = new InstrumentedProxyClient(
+        MOCK_PROXY(new AmazonWebServicesClientProxy(logger, MOCK_CREDENTIALS, () -> Duration.ofSeconds(600).toMillis()),
+            sdkClient),
+        metrics, new CallTrace("Update"), openBreaker());
+
+    CircuitBreakerOpenException exception = assertThrows(CircuitBreakerOpenException.class, () ->
+        proxyClient.injectCredentialsAndInvokeV2(DescribeRescoreExecutionPlanRequest.builder().id("id").build(),
+            proxyClient.client()::describeRescoreExecutionPlan));
+
+    assertThat(exception.getRetryAfter()).isEqualTo(OPEN_DURATION);
+    verifyNoInteractions(sdkClient);
+    JSONObject document = new JSONObject(metrics.toEmf());
+    assertThat(document.getString("Region")).isEqualTo("us-west-2");
+    assertThat(document.getInt("CircuitBreakerState")).isEqualTo(2);
+    assertThat(document.getInt("CircuitBreakerRejections")).isEqualTo(1);
+    assertThat(document.getInt("ApiCalls")).isEqualTo(0);
+    assertThat(document.getJSONObject("_aws").getJSONArray("CloudWatchMetrics").getJSONObject(1)
+        .getJSONArray("Dimensions").getJSONArray(0).toList()).containsExactly("Region");
+  }
+
+  @Test
+  public void testInstrumentedProxyClientFreesTheProbeWhenItThrowsAnError() {
+    KendraRankingClient sdkClient = mock(KendraRankingClient.class);
+    CircuitBreaker breaker = openBreaker();
+    ProxyClient<KendraRankingClient> proxyClient = new InstrumentedProxyClient(
+        MOCK_PROXY(new AmazonWebServicesClientProxy(logger, MOCK_CREDENTIALS, () -> Duration.ofSeconds(600).toMillis()),
+            sdkClient),
+        new HandlerMetrics("Test/Namespace", "Update", Clock.systemUTC()), null, breaker);
+    when(sdkClient.describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class)))
+        .thenThrow(new StackOverflowError());
+    clock.advance(OPEN_DURATION);
+
+    assertThrows(StackOverflowError.class, () ->
+        proxyClient.injectCredentialsAndInvokeV2(DescribeRescoreExecutionPlanRequest.builder().id("id").build(),
+            proxyClient.client()::describeRescoreExecutionPlan));
+
+    assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    clock.advance(OPEN_DURATION);
+    assertThat(breaker.tryAcquire(listener)).isTrue();
+    assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+  }
+
+  private CircuitBreaker breaker() {
+    return new CircuitBreaker("us-west-2", 50, 10, 6, OPEN_DURATION, clock);
+  }
+
+  private CircuitBreaker openBreaker() {
+    CircuitBreaker breaker = breaker();
+    for (int i = 0; i < 6; i++) {
+      call(breaker, true);
+    }
+    assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    return breaker;
+  }
+
+  private void call(CircuitBreaker breaker, boolean failure) {
+    assertThat(breaker.tryAcquire(listener)).isTrue();
+    if (failure) {
+      breaker.recordFailure(listener);
+    } else {
+      breaker.recordSuccess(listener);
+    }
+  }
+}
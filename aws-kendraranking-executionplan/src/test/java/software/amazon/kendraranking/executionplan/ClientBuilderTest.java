@@ -0,0 +1,49 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.util.function.BiFunction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.kendraranking.KendraRankingClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class ClientBuilderTest {
+
+  @AfterEach
+  public void tear_down() {
+    ClientBuilder.clearCachedClients();
+  }
+
+  @Test
+  public void testGetClientReusesClientForRegion() {
+    KendraRankingClient first = ClientBuilder.getClient("us-west-2");
+    KendraRankingClient second = ClientBuilder.getClient("us-west-2");
+
+    assertThat(second).isSameAs(first);
+    assertThat(ClientBuilder.cachedClientCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testGetClientBuildsSeparateClientPerRegion() {
+    KendraRankingClient usWest2 = ClientBuilder.getClient("us-west-2");
+    KendraRankingClient usEast1 = ClientBuilder.getClient("us-east-1");
+
+    assertThat(usEast1).isNotSameAs(usWest2);
+    assertThat(ClientBuilder.cachedClientCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void testGetClientEvictsLeastRecentlyUsedClient() {
+    // Made-up regions have no SDK region, so only stand-ins are built for them
+    BiFunction<String, String, KendraRankingClient> factory = (region, endpoint) -> mock(KendraRankingClient.class);
+    KendraRankingClient first = ClientBuilder.getClient("region-first", factory);
+    for (int i = 0; i < ClientBuilder.MAX_CACHED_CLIENTS; i++) {
+      ClientBuilder.getClient("region-" + i, factory);
+    }
+
+    assertThat(ClientBuilder.cachedClientCount()).isEqualTo(ClientBuilder.MAX_CACHED_CLIENTS);
+    assertThat(ClientBuilder.getClient("region-first", factory)).isNotSameAs(first);
+  }
+}
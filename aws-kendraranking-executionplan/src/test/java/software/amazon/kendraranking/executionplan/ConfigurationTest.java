@@ -0,0 +1,17 @@
+package software.amazon.kendraranking.executionplan;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConfigurationTest {
+
+  @Test
+  public void testSchemaIsParsedOncePerContainer() {
+    final Configuration first = new Configuration();
+    final Configuration second = new Configuration();
+
+    assertThat(first.resourceSchemaJSONObject().getString("typeName")).isEqualTo(ResourceModel.TYPE_NAME);
+    assertThat(second.resourceSchemaJSONObject()).isSameAs(first.resourceSchemaJSONObject());
+  }
+}
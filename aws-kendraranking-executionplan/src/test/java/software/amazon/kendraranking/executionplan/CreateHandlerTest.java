@@ -34,6 +34,7 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -42,6 +43,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -109,8 +111,6 @@ public class CreateHandlerTest extends AbstractTestBase {
                     .builder().rescoreCapacityUnits(10).build())
                 .description(description)
                 .build());
-        when(proxyClient.client().listTagsForResource(any(ListTagsForResourceRequest.class)))
-            .thenReturn(ListTagsForResourceResponse.builder().build());
 
         final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
 
@@ -132,8 +132,8 @@ public class CreateHandlerTest extends AbstractTestBase {
         assertThat(response.getErrorCode()).isNull();
 
         verify(proxyClient.client(), times(1)).createRescoreExecutionPlan(any(CreateRescoreExecutionPlanRequest.class));
-        verify(proxyClient.client(), times(2)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
-        verify(proxyClient.client(), times(1)).listTagsForResource(any(ListTagsForResourceRequest.class));
+        verify(proxyClient.client(), times(1)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+        verify(proxyClient.client(), never()).listTagsForResource(any(ListTagsForResourceRequest.class));
     }
 
     @Test
@@ -165,8 +165,6 @@ public class CreateHandlerTest extends AbstractTestBase {
                     .name(name)
                     .status(RescoreExecutionPlanStatus.ACTIVE)
                     .build());
-        when(proxyClient.client().listTagsForResource(any(ListTagsForResourceRequest.class)))
-            .thenReturn(ListTagsForResourceResponse.builder().build());
 
 
         final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
@@ -187,8 +185,8 @@ public class CreateHandlerTest extends AbstractTestBase {
         assertThat(response.getErrorCode()).isNull();
 
         verify(proxyClient.client(), times(1)).createRescoreExecutionPlan(any(CreateRescoreExecutionPlanRequest.class));
-        verify(proxyClient.client(), times(3)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
-        verify(proxyClient.client(), times(1)).listTagsForResource(any(ListTagsForResourceRequest.class));
+        verify(proxyClient.client(), times(2)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+        verify(proxyClient.client(), never()).listTagsForResource(any(ListTagsForResourceRequest.class));
     }
 
     @Test
@@ -290,12 +288,6 @@ public class CreateHandlerTest extends AbstractTestBase {
                 .name(name)
                 .status(RescoreExecutionPlanStatus.ACTIVE.toString())
                 .build());
-        when(proxyClient.client().listTagsForResource(any(ListTagsForResourceRequest.class)))
-            .thenReturn(ListTagsForResourceResponse
-                .builder()
-                .tags(Arrays.asList(software.amazon.awssdk.services.kendraranking.model.Tag
-                    .builder().key(key).value(value).build()))
-                .build());
 
 
         final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
@@ -317,8 +309,8 @@ public class CreateHandlerTest extends AbstractTestBase {
         assertThat(response.getErrorCode()).isNull();
 
         verify(proxyClient.client(), times(1)).createRescoreExecutionPlan(any(CreateRescoreExecutionPlanRequest.class));
-        verify(proxyClient.client(), times(2)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
-        verify(proxyClient.client(), times(1)).listTagsForResource(any(ListTagsForResourceRequest.class));
+        verify(proxyClient.client(), times(1)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+        verify(proxyClient.client(), never()).listTagsForResource(any(ListTagsForResourceRequest.class));
     }
 
     @Test
@@ -384,4 +376,82 @@ public class CreateHandlerTest extends AbstractTestBase {
         });
     }
 
+
+    @Test
+    public void handleRequest_ReusesClientTokenAcrossInvocations() {
+        final CreateHandler handler = new CreateHandler(testExecutionArnBuilder, testDelay);
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(ResourceModel.builder().name("testName").build())
+            .clientRequestToken("clientRequestToken")
+            .logicalResourceIdentifier("ExecutionPlan")
+            .build();
+
+        when(proxyClient.client().createRescoreExecutionPlan(any(CreateRescoreExecutionPlanRequest.class)))
+            .thenThrow(AwsServiceException.builder().build());
+
+        final CallbackContext callbackContext = new CallbackContext();
+        assertThrows(CfnGeneralServiceException.class, () ->
+            handler.handleRequest(proxy, request, callbackContext, proxyClient, logger));
+        // A re-invocation that lost its callback context derives the same token
+        assertThrows(CfnGeneralServiceException.class, () ->
+            handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger));
+
+        ArgumentCaptor<CreateRescoreExecutionPlanRequest> captor = ArgumentCaptor.forClass(CreateRescoreExecutionPlanRequest.class);
+        verify(proxyClient.client(), times(2)).createRescoreExecutionPlan(captor.capture());
+        assertThat(captor.getAllValues()).extracting(CreateRescoreExecutionPlanRequest::clientToken)
+            .containsOnly(callbackContext.getClientToken())
+            .doesNotContainNull();
+
+        // Another resource of the same stack operation gets its own token
+        final ResourceHandlerRequest<ResourceModel> otherResource = ResourceHandlerRequest.<ResourceModel>builder()
+            .clientRequestToken("clientRequestToken")
+            .logicalResourceIdentifier("OtherExecutionPlan")
+            .build();
+        assertThat(CreateHandler.clientToken(request)).isEqualTo(callbackContext.getClientToken());
+        assertThat(CreateHandler.clientToken(otherResource)).isNotEqualTo(callbackContext.getClientToken());
+    }
+
+    @Test
+    public void clientToken_SeparatesStacksAndRequestsWithoutAToken() {
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .clientRequestToken("clientRequestToken")
+            .stackId("stack1")
+            .logicalResourceIdentifier("ExecutionPlan")
+            .build();
+        // The same logical id and request token in another stack
+        final ResourceHandlerRequest<ResourceModel> otherStack = ResourceHandlerRequest.<ResourceModel>builder()
+            .clientRequestToken("clientRequestToken")
+            .stackId("stack2")
+            .logicalResourceIdentifier("ExecutionPlan")
+            .build();
+        final ResourceHandlerRequest<ResourceModel> withoutToken = ResourceHandlerRequest.<ResourceModel>builder()
+            .stackId("stack1")
+            .logicalResourceIdentifier("ExecutionPlan")
+            .build();
+
+        assertThat(CreateHandler.clientToken(request)).isEqualTo(CreateHandler.clientToken(request));
+        assertThat(CreateHandler.clientToken(otherStack)).isNotEqualTo(CreateHandler.clientToken(request));
+        assertThat(CreateHandler.clientToken(withoutToken)).isNotEqualTo(CreateHandler.clientToken(withoutToken));
+    }
+
+    @Test
+    public void handleRequest_CallsBackWhileTheCircuitBreakerIsOpen() {
+        final CreateHandler handler = new CreateHandler(testExecutionArnBuilder, testDelay);
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(ResourceModel.builder().name("testName").build())
+            .clientRequestToken("token")
+            .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleInstrumentedRequest(
+            proxy, request, null, proxyClient, openCircuitBreaker(), logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackDelaySeconds()).isEqualTo(OPEN_CIRCUIT_BREAKER_SECONDS);
+        assertThat(response.getCallbackContext()).isNotNull();
+        assertThat(response.getErrorCode()).isNull();
+        // The breaker turns the call away before it reaches the client
+        verify(sdkClient, never()).createRescoreExecutionPlan(any(CreateRescoreExecutionPlanRequest.class));
+        verify(sdkClient, never()).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+    }
 }
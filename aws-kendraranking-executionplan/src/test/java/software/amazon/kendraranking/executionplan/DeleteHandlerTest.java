@@ -30,6 +30,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -142,6 +143,34 @@ public class DeleteHandlerTest extends AbstractTestBase {
         verify(proxyClient.client(), times(3)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
     }
 
+    @Test
+    public void handleRequest_FailedPlanUntilNotFound() {
+        // The rollback of a failed create, describe reports FAILED for a while after the delete call
+        final DeleteHandler handler = new DeleteHandler(testDelay);
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(ResourceModel.builder().name("name").id("id").build())
+            .build();
+
+        when(proxyClient.client().describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class)))
+            .thenReturn(DescribeRescoreExecutionPlanResponse.builder().status(RescoreExecutionPlanStatus.FAILED).build())
+            .thenReturn(DescribeRescoreExecutionPlanResponse.builder().status(RescoreExecutionPlanStatus.FAILED).build())
+            .thenThrow(ResourceNotFoundException.builder().build());
+
+        when(proxyClient.client().deleteRescoreExecutionPlan(any(DeleteRescoreExecutionPlanRequest.class)))
+            .thenReturn(DeleteRescoreExecutionPlanResponse.builder().build());
+
+        final ProgressEvent<ResourceModel, CallbackContext> response =
+            handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel()).isNull();
+        assertThat(response.getErrorCode()).isNull();
+
+        verify(proxyClient.client(), times(1)).deleteRescoreExecutionPlan(any(DeleteRescoreExecutionPlanRequest.class));
+        verify(proxyClient.client(), times(3)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+    }
+
     @Test
     public void handleRequest_FailWith_ConflictException() {
         final DeleteHandler handler = new DeleteHandler(testDelay);
@@ -168,4 +197,24 @@ public class DeleteHandlerTest extends AbstractTestBase {
         verify(proxyClient.client(), times(1)).deleteRescoreExecutionPlan(any(DeleteRescoreExecutionPlanRequest.class));
         //verify(proxyClient.client(), times(1)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
     }
+
+    @Test
+    public void handleRequest_CallsBackWhileTheCircuitBreakerIsOpen() {
+        final DeleteHandler handler = new DeleteHandler(testDelay);
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(ResourceModel.builder().id("id").build())
+            .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleInstrumentedRequest(
+            proxy, request, null, proxyClient, openCircuitBreaker(), logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackDelaySeconds()).isEqualTo(OPEN_CIRCUIT_BREAKER_SECONDS);
+        assertThat(response.getCallbackContext()).isNotNull();
+        assertThat(response.getErrorCode()).isNull();
+        // The breaker turns the call away before it reaches the client
+        verify(sdkClient, never()).deleteRescoreExecutionPlan(any(DeleteRescoreExecutionPlanRequest.class));
+        verify(sdkClient, never()).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+    }
 }
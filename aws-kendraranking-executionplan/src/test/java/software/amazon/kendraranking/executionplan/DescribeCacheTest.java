@@ -0,0 +1,91 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.kendraranking.model.DescribeRescoreExecutionPlanResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DescribeCacheTest {
+
+  private static final String ACCOUNT = "123456789012";
+  private static final String REGION = "us-west-2";
+
+  private final MutableClock clock = new MutableClock();
+
+  @Test
+  public void testGetCountsHitsAndMisses() {
+    DescribeCache cache = new DescribeCache(Duration.ofSeconds(5), 10, clock);
+    DescribeRescoreExecutionPlanResponse response = describeResponse("id");
+
+    assertThat(cache.get(ACCOUNT, REGION, "id")).isNull();
+    cache.put(ACCOUNT, REGION, response);
+
+    assertThat(cache.get(ACCOUNT, REGION, "id")).isSameAs(response);
+    assertThat(cache.get("210987654321", REGION, "id")).isNull();
+    assertThat(cache.hits()).isEqualTo(1);
+    assertThat(cache.misses()).isEqualTo(2);
+  }
+
+  @Test
+  public void testKeepsRegionsApart() {
+    DescribeCache cache = new DescribeCache(Duration.ofSeconds(5), 10, clock);
+    DescribeRescoreExecutionPlanResponse response = describeResponse("id");
+    cache.put(ACCOUNT, REGION, response);
+
+    // Plan ids are only unique within a region
+    assertThat(cache.get(ACCOUNT, "eu-west-1", "id")).isNull();
+    cache.invalidate(ACCOUNT, "eu-west-1", "id");
+    assertThat(cache.get(ACCOUNT, REGION, "id")).isSameAs(response);
+  }
+
+  @Test
+  public void testEntriesExpireAfterTtl() {
+    DescribeCache cache = new DescribeCache(Duration.ofSeconds(5), 10, clock);
+    cache.put(ACCOUNT, REGION, describeResponse("id"));
+
+    clock.advance(Duration.ofSeconds(4));
+    assertThat(cache.get(ACCOUNT, REGION, "id")).isNotNull();
+    clock.advance(Duration.ofSeconds(1));
+    assertThat(cache.get(ACCOUNT, REGION, "id")).isNull();
+    assertThat(cache.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyUsedEntry() {
+    DescribeCache cache = new DescribeCache(Duration.ofSeconds(5), 2, clock);
+    cache.put(ACCOUNT, REGION, describeResponse("first"));
+    cache.put(ACCOUNT, REGION, describeResponse("second"));
+    cache.get(ACCOUNT, REGION, "first");
+    cache.put(ACCOUNT, REGION, describeResponse("third"));
+
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(cache.get(ACCOUNT, REGION, "first")).isNotNull();
+    assertThat(cache.get(ACCOUNT, REGION, "second")).isNull();
+    assertThat(cache.get(ACCOUNT, REGION, "third")).isNotNull();
+  }
+
+  @Test
+  public void testInvalidate() {
+    DescribeCache cache = new DescribeCache(Duration.ofSeconds(5), 10, clock);
+    cache.put(ACCOUNT, REGION, describeResponse("id"));
+    cache.invalidate(ACCOUNT, REGION, "id");
+
+    assertThat(cache.get(ACCOUNT, REGION, "id")).isNull();
+  }
+
+  @Test
+  public void testDisabledCacheHoldsNothing() {
+    DescribeCache cache = DescribeCache.disabled();
+    cache.put(ACCOUNT, REGION, describeResponse("id"));
+
+    assertThat(cache.isEnabled()).isFalse();
+    assertThat(cache.get(ACCOUNT, REGION, "id")).isNull();
+    assertThat(cache.size()).isEqualTo(0);
+  }
+
+  private static DescribeRescoreExecutionPlanResponse describeResponse(String id) {
+    return DescribeRescoreExecutionPlanResponse.builder().id(id).build();
+  }
+}
@@ -24,6 +24,17 @@ class ExecutionPlanArnTest {
   }
 
 
+  @Test
+  public void testBuildForPlanId() {
+    ResourceHandlerRequest<ResourceModel> request = new ResourceHandlerRequest<>();
+    request.setAwsPartition("aws");
+    request.setAwsAccountId("0123456789");
+    request.setRegion("us-west-2");
+    request.setDesiredResourceState(ResourceModel.builder().build());
+    assertThat(new ExecutionPlanPlanArn().build(request, "0123456789abcdef"))
+        .isEqualTo("arn:aws:kendra-ranking:us-west-2:0123456789:rescore-execution-plan/0123456789abcdef");
+  }
+
   @Test
   public void testBuildThrowsExceptionWhenPartitionIsNull() {
     String region = "us-west-2";
@@ -0,0 +1,72 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.kendraranking.model.RescoreExecutionPlanStatus;
+import software.amazon.cloudformation.proxy.Delay;
+import software.amazon.cloudformation.proxy.delay.Constant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ExponentialJitterDelayTest {
+
+  @Test
+  public void testNextDelayGrowsExponentiallyUpToCap() {
+    Delay delay = ExponentialJitterDelay.of()
+        .initialDelay(Duration.ofSeconds(5))
+        .maxDelay(Duration.ofSeconds(30))
+        .jitter(0.0)
+        .build();
+
+    assertThat(delay.nextDelay(0)).isEqualTo(Duration.ofSeconds(5));
+    assertThat(delay.nextDelay(1)).isEqualTo(Duration.ofSeconds(5));
+    assertThat(delay.nextDelay(2)).isEqualTo(Duration.ofSeconds(10));
+    assertThat(delay.nextDelay(3)).isEqualTo(Duration.ofSeconds(20));
+    assertThat(delay.nextDelay(4)).isEqualTo(Duration.ofSeconds(30));
+    assertThat(delay.nextDelay(50)).isEqualTo(Duration.ofSeconds(30));
+  }
+
+  @Test
+  public void testNextDelayJittersDownwards() {
+    Delay delay = ExponentialJitterDelay.of()
+        .initialDelay(Duration.ofSeconds(10))
+        .maxDelay(Duration.ofSeconds(10))
+        .jitter(0.5)
+        .random(() -> 1.0)
+        .build();
+
+    assertThat(delay.nextDelay(1)).isEqualTo(Duration.ofSeconds(5));
+  }
+
+  @Test
+  public void testNextDelayReturnsZeroOnceTimeoutElapsed() {
+    Delay delay = ExponentialJitterDelay.of()
+        .initialDelay(Duration.ofSeconds(10))
+        .maxDelay(Duration.ofSeconds(20))
+        .timeout(Duration.ofSeconds(50))
+        .jitter(0.0)
+        .build();
+
+    // 10 + 20 = 30 seconds waited before the third attempt, 50 before the fourth
+    assertThat(delay.nextDelay(3)).isEqualTo(Duration.ofSeconds(20));
+    assertThat(delay.nextDelay(4)).isEqualTo(Duration.ZERO);
+  }
+
+  @Test
+  public void testScheduleFollowsObservedStatus() {
+    Delay defaultDelay = Constant.of().timeout(Duration.ofMinutes(1)).delay(Duration.ofSeconds(1)).build();
+    Delay updatingDelay = Constant.of().timeout(Duration.ofMinutes(1)).delay(Duration.ofSeconds(7)).build();
+    StabilizationSchedule schedule = StabilizationSchedule.builder(defaultDelay)
+        .status(RescoreExecutionPlanStatus.UPDATING, updatingDelay)
+        .build();
+    CallbackContext callbackContext = new CallbackContext();
+    Delay delay = schedule.forContext(callbackContext);
+
+    assertThat(delay.nextDelay(1)).isEqualTo(Duration.ofSeconds(1));
+    callbackContext.setLastObservedStatus(RescoreExecutionPlanStatus.UPDATING.toString());
+    assertThat(delay.nextDelay(1)).isEqualTo(Duration.ofSeconds(7));
+    callbackContext.setLastObservedStatus(RescoreExecutionPlanStatus.ACTIVE.toString());
+    assertThat(delay.nextDelay(1)).isEqualTo(Duration.ofSeconds(1));
+  }
+}
@@ -0,0 +1,127 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import software.amazon.awssdk.services.kendraranking.KendraRankingClient;
+import software.amazon.awssdk.services.kendraranking.model.DescribeRescoreExecutionPlanRequest;
+import software.amazon.awssdk.services.kendraranking.model.DescribeRescoreExecutionPlanResponse;
+import software.amazon.awssdk.services.kendraranking.model.ThrottlingException;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.ProxyClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class HandlerMetricsTest extends AbstractTestBase {
+
+    @Mock
+    private AmazonWebServicesClientProxy proxy;
+
+    @Mock
+    private ProxyClient<KendraRankingClient> proxyClient;
+
+    @Mock
+    KendraRankingClient sdkClient;
+
+    private final HandlerMetrics metrics = new HandlerMetrics("Test/Namespace", "Update",
+        Clock.fixed(Instant.ofEpochMilli(1000L), ZoneOffset.UTC));
+
+    @BeforeEach
+    public void setup() {
+        proxy = new AmazonWebServicesClientProxy(logger, MOCK_CREDENTIALS, () -> Duration.ofSeconds(600).toMillis());
+        sdkClient = mock(KendraRankingClient.class);
+        proxyClient = new InstrumentedProxyClient(MOCK_PROXY(proxy, sdkClient), metrics, new CallTrace("Update"));
+    }
+
+    @AfterEach
+    public void tear_down() {
+        verifyNoMoreInteractions(sdkClient);
+    }
+
+    @Test
+    public void toEmf_RecordsCallsErrorsAndThrottlesPerApi() {
+        when(sdkClient.describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class)))
+            .thenReturn(DescribeRescoreExecutionPlanResponse.builder().id("id").build())
+            .thenThrow(ThrottlingException.builder().build());
+        final DescribeRescoreExecutionPlanRequest request = DescribeRescoreExecutionPlanRequest.builder().id("id").build();
+
+        proxyClient.injectCredentialsAndInvokeV2(request, proxyClient.client()::describeRescoreExecutionPlan);
+        assertThrows(ThrottlingException.class, () ->
+            proxyClient.injectCredentialsAndInvokeV2(request, proxyClient.client()::describeRescoreExecutionPlan));
+        metrics.recordStabilization(2, 1);
+
+        final JSONObject document = new JSONObject(metrics.toEmf());
+        assertThat(document.getString("Operation")).isEqualTo("Update");
+        assertThat(document.getJSONArray("DescribeRescoreExecutionPlan.Latency").length()).isEqualTo(2);
+        assertThat(document.getInt("DescribeRescoreExecutionPlan.Calls")).isEqualTo(2);
+        assertThat(document.getInt("DescribeRescoreExecutionPlan.Errors")).isEqualTo(1);
+        assertThat(document.getInt("DescribeRescoreExecutionPlan.Throttles")).isEqualTo(1);
+        assertThat(document.getInt("DescribeRescoreExecutionPlan.Errors.ThrottlingException")).isEqualTo(1);
+        assertThat(document.getInt("ApiCalls")).isEqualTo(2);
+        assertThat(document.getInt("StabilizationPolls")).isEqualTo(2);
+        assertThat(document.getInt("StabilizationThrottles")).isEqualTo(1);
+        assertThat(document.has("Region")).isFalse();
+
+        assertThat(document.getJSONObject("_aws").getLong("Timestamp")).isEqualTo(1000L);
+        final JSONArray directives = document.getJSONObject("_aws").getJSONArray("CloudWatchMetrics");
+        assertThat(directives.length()).isEqualTo(1);
+        final JSONObject directive = directives.getJSONObject(0);
+        assertThat(directive.getString("Namespace")).isEqualTo("Test/Namespace");
+        assertThat(directive.getJSONArray("Dimensions").getJSONArray(0).toList()).containsExactly("Operation");
+        // Every metric of the directive is a property of the document
+        for (int i = 0; i < directive.getJSONArray("Metrics").length(); i++) {
+            assertThat(document.has(directive.getJSONArray("Metrics").getJSONObject(i).getString("Name"))).isTrue();
+        }
+        assertThat(directive.getJSONArray("Metrics").length()).isEqualTo(8);
+
+        verify(sdkClient, times(2)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+    }
+
+    @Test
+    public void toEmf_RecordsCallsWithoutATrace() {
+        // The trace is off by default, the metrics don't depend on it
+        final ProxyClient<KendraRankingClient> untraced = new InstrumentedProxyClient(MOCK_PROXY(proxy, sdkClient), metrics, null);
+        when(sdkClient.describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class)))
+            .thenReturn(DescribeRescoreExecutionPlanResponse.builder().id("id").build());
+
+        untraced.injectCredentialsAndInvokeV2(DescribeRescoreExecutionPlanRequest.builder().id("id").build(),
+            untraced.client()::describeRescoreExecutionPlan);
+
+        assertThat(CallTrace.current()).isNull();
+        assertThat(new JSONObject(metrics.toEmf()).getInt("DescribeRescoreExecutionPlan.Calls")).isEqualTo(1);
+        verify(sdkClient, times(1)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+    }
+
+    @Test
+    public void toEmf_CapsLatencyValuesButCountsEveryCall() {
+        for (int i = 0; i < HandlerMetrics.MAX_VALUES_PER_METRIC + 1; i++) {
+            metrics.recordCall(ApiName.LIST_TAGS_FOR_RESOURCE, 1L, null);
+        }
+        metrics.recordCall(ApiName.TAG_RESOURCE, 1L, null);
+
+        final JSONObject document = new JSONObject(metrics.toEmf());
+
+        assertThat(document.getJSONArray("ListTagsForResource.Latency").length()).isEqualTo(HandlerMetrics.MAX_VALUES_PER_METRIC);
+        assertThat(document.getInt("ListTagsForResource.Calls")).isEqualTo(HandlerMetrics.MAX_VALUES_PER_METRIC + 1);
+        assertThat(document.getJSONArray("TagResource.Latency").length()).isEqualTo(1);
+        assertThat(document.getInt("ApiCalls")).isEqualTo(HandlerMetrics.MAX_VALUES_PER_METRIC + 2);
+    }
+}
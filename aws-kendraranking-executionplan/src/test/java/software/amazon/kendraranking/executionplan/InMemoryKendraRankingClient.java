@@ -0,0 +1,523 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import software.amazon.awssdk.awscore.AwsRequest;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.core.exception.AbortedException;
+import software.amazon.awssdk.services.kendraranking.KendraRankingClient;
+import software.amazon.awssdk.services.kendraranking.model.CapacityUnitsConfiguration;
+import software.amazon.awssdk.services.kendraranking.model.ConflictException;
+import software.amazon.awssdk.services.kendraranking.model.CreateRescoreExecutionPlanRequest;
+import software.amazon.awssdk.services.kendraranking.model.CreateRescoreExecutionPlanResponse;
+import software.amazon.awssdk.services.kendraranking.model.DeleteRescoreExecutionPlanRequest;
+import software.amazon.awssdk.services.kendraranking.model.DeleteRescoreExecutionPlanResponse;
+import software.amazon.awssdk.services.kendraranking.model.DescribeRescoreExecutionPlanRequest;
+import software.amazon.awssdk.services.kendraranking.model.DescribeRescoreExecutionPlanResponse;
+import software.amazon.awssdk.services.kendraranking.model.ListRescoreExecutionPlansRequest;
+import software.amazon.awssdk.services.kendraranking.model.ListRescoreExecutionPlansResponse;
+import software.amazon.awssdk.services.kendraranking.model.ListTagsForResourceRequest;
+import software.amazon.awssdk.services.kendraranking.model.ListTagsForResourceResponse;
+import software.amazon.awssdk.services.kendraranking.model.RescoreExecutionPlanStatus;
+import software.amazon.awssdk.services.kendraranking.model.RescoreExecutionPlanSummary;
+import software.amazon.awssdk.services.kendraranking.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.kendraranking.model.Tag;
+import software.amazon.awssdk.services.kendraranking.model.TagResourceRequest;
+import software.amazon.awssdk.services.kendraranking.model.TagResourceResponse;
+import software.amazon.awssdk.services.kendraranking.model.ThrottlingException;
+import software.amazon.awssdk.services.kendraranking.model.UntagResourceRequest;
+import software.amazon.awssdk.services.kendraranking.model.UntagResourceResponse;
+import software.amazon.awssdk.services.kendraranking.model.UpdateRescoreExecutionPlanRequest;
+import software.amazon.awssdk.services.kendraranking.model.UpdateRescoreExecutionPlanResponse;
+import software.amazon.awssdk.services.kendraranking.model.ValidationException;
+
+/**
+ * In-memory stand-in for the Kendra Ranking service, so the handlers can be run unchanged through whole
+ * lifecycles without network access. Plans go from CREATING or UPDATING to ACTIVE, or FAILED when a failure
+ * is injected, and from DELETING to gone once their transition time has passed on the clock. Every call
+ * waits out a latency drawn from its api's distribution through the sleeper, and may be throttled at its
+ * api's rate. There is no SDK retry layer in between, throttles reach the caller as they are.
+ */
+class InMemoryKendraRankingClient implements KendraRankingClient {
+
+    private static final String ARN_RESOURCE_PREFIX = "rescore-execution-plan/";
+
+    /**
+     * Draws how long a call takes.
+     */
+    interface LatencyDistribution {
+        Duration sample(Random random);
+
+        static LatencyDistribution none() {
+            return random -> Duration.ZERO;
+        }
+
+        static LatencyDistribution constant(Duration latency) {
+            return random -> latency;
+        }
+
+        static LatencyDistribution uniform(Duration min, Duration max) {
+            return random -> min.plusNanos((long) (random.nextDouble() * max.minus(min).toNanos()));
+        }
+
+        /**
+         * @param median latency half of the calls stay below
+         * @param sigma standard deviation of the latency's logarithm, how long the tail is
+         * @return log-normal latency, the usual shape of service call latencies
+         */
+        static LatencyDistribution logNormal(Duration median, double sigma) {
+            return random -> Duration.ofNanos((long) (median.toNanos() * Math.exp(sigma * random.nextGaussian())));
+        }
+    }
+
+    private static final class Plan {
+        private final String id;
+        private final Instant createdAt;
+        private final Map<String, String> tags = new LinkedHashMap<>();
+        private String name;
+        private String description;
+        private CapacityUnitsConfiguration capacityUnits;
+        private RescoreExecutionPlanStatus status;
+        private String errorMessage;
+        private Instant updatedAt;
+        // When the current CREATING, UPDATING or DELETING status is over
+        private Instant transitionAt;
+
+        private Plan(String id, Instant createdAt) {
+            this.id = id;
+            this.createdAt = createdAt;
+            this.updatedAt = createdAt;
+        }
+    }
+
+    private final Clock clock;
+    private final InProcessWait.Sleeper sleeper;
+    private final Random random;
+    private final LatencyDistribution defaultLatency;
+    private final Map<String, LatencyDistribution> latencies;
+    private final double defaultThrottlingRate;
+    private final Map<String, Double> throttlingRates;
+    private final double failureRate;
+    private final Duration createDuration;
+    private final Duration updateDuration;
+    private final Duration deleteDuration;
+
+    private final Map<String, Plan> plans = new LinkedHashMap<>();
+    private final Map<String, String> idsByClientToken = new HashMap<>();
+    private final Map<String, Integer> calls = new LinkedHashMap<>();
+    private final Map<String, Integer> throttles = new LinkedHashMap<>();
+    private Duration simulatedLatency = Duration.ZERO;
+
+    private InMemoryKendraRankingClient(Builder builder) {
+        this.clock = builder.clock;
+        this.sleeper = builder.sleeper;
+        this.random = new Random(builder.seed);
+        this.defaultLatency = builder.defaultLatency;
+        this.latencies = new HashMap<>(builder.latencies);
+        this.defaultThrottlingRate = builder.defaultThrottlingRate;
+        this.throttlingRates = new HashMap<>(builder.throttlingRates);
+        this.failureRate = builder.failureRate;
+        this.createDuration = builder.createDuration;
+        this.updateDuration = builder.updateDuration;
+        this.deleteDuration = builder.deleteDuration;
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    static final class Builder {
+        private Clock clock = Clock.systemUTC();
+        private InProcessWait.Sleeper sleeper = duration -> Thread.sleep(duration.toMillis());
+        private long seed = 42L;
+        private LatencyDistribution defaultLatency = LatencyDistribution.none();
+        private final Map<String, LatencyDistribution> latencies = new HashMap<>();
+        private double defaultThrottlingRate;
+        private final Map<String, Double> throttlingRates = new HashMap<>();
+        private double failureRate;
+        private Duration createDuration = Duration.ofMinutes(1);
+        private Duration updateDuration = Duration.ofSeconds(30);
+        private Duration deleteDuration = Duration.ofSeconds(30);
+
+        private Builder() {
+        }
+
+        /**
+         * @param clock clock the transitions are timed by
+         * @param sleeper waits out the latencies, e.g. by advancing a test clock instead of sleeping
+         * @return this builder
+         */
+        Builder clock(Clock clock, InProcessWait.Sleeper sleeper) {
+            this.clock = clock;
+            this.sleeper = sleeper;
+            return this;
+        }
+
+        Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        Builder latency(LatencyDistribution latency) {
+            this.defaultLatency = latency;
+            return this;
+        }
+
+        /**
+         * @param api name of the api, one of {@link ApiName}
+         * @param latency latency of the api's calls, instead of the default one
+         * @return this builder
+         */
+        Builder latency(String api, LatencyDistribution latency) {
+            this.latencies.put(api, latency);
+            return this;
+        }
+
+        Builder throttlingRate(double rate) {
+            this.defaultThrottlingRate = rate;
+            return this;
+        }
+
+        /**
+         * @param api name of the api, one of {@link ApiName}
+         * @param rate share of the api's calls that are throttled, instead of the default rate
+         * @return this builder
+         */
+        Builder throttlingRate(String api, double rate) {
+            this.throttlingRates.put(api, rate);
+            return this;
+        }
+
+        /**
+         * @param rate share of creates and updates that end in FAILED rather than ACTIVE
+         * @return this builder
+         */
+        Builder failureRate(double rate) {
+            this.failureRate = rate;
+            return this;
+        }
+
+        Builder createDuration(Duration duration) {
+            this.createDuration = duration;
+            return this;
+        }
+
+        Builder updateDuration(Duration duration) {
+            this.updateDuration = duration;
+            return this;
+        }
+
+        Builder deleteDuration(Duration duration) {
+            this.deleteDuration = duration;
+            return this;
+        }
+
+        InMemoryKendraRankingClient build() {
+            return new InMemoryKendraRankingClient(this);
+        }
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public CreateRescoreExecutionPlanResponse createRescoreExecutionPlan(CreateRescoreExecutionPlanRequest request) {
+        return call(request, () -> {
+            if (request.name() == null || request.name().isEmpty()) {
+                throw validationException("Name is required");
+            }
+            // The client token makes a retried create return the plan the first attempt made
+            String existingId = request.clientToken() == null ? null : idsByClientToken.get(request.clientToken());
+            if (existingId != null) {
+                return CreateRescoreExecutionPlanResponse.builder().id(existingId).arn(arn(existingId)).build();
+            }
+            Instant now = clock.instant();
+            Plan plan = new Plan(new UUID(random.nextLong(), random.nextLong()).toString(), now);
+            plan.name = request.name();
+            plan.description = request.description();
+            plan.capacityUnits = request.capacityUnits();
+            if (request.tags() != null) {
+                request.tags().forEach(tag -> plan.tags.put(tag.key(), tag.value()));
+            }
+            plan.status = RescoreExecutionPlanStatus.CREATING;
+            plan.transitionAt = now.plus(createDuration);
+            plans.put(plan.id, plan);
+            if (request.clientToken() != null) {
+                idsByClientToken.put(request.clientToken(), plan.id);
+            }
+            return CreateRescoreExecutionPlanResponse.builder().id(plan.id).arn(arn(plan.id)).build();
+        });
+    }
+
+    @Override
+    public DescribeRescoreExecutionPlanResponse describeRescoreExecutionPlan(DescribeRescoreExecutionPlanRequest request) {
+        return call(request, () -> {
+            Plan plan = plan(request.id());
+            return DescribeRescoreExecutionPlanResponse.builder()
+                .id(plan.id)
+                .arn(arn(plan.id))
+                .name(plan.name)
+                .description(plan.description)
+                .capacityUnits(plan.capacityUnits)
+                .createdAt(plan.createdAt)
+                .updatedAt(plan.updatedAt)
+                .status(plan.status)
+                .errorMessage(plan.errorMessage)
+                .build();
+        });
+    }
+
+    @Override
+    public UpdateRescoreExecutionPlanResponse updateRescoreExecutionPlan(UpdateRescoreExecutionPlanRequest request) {
+        return call(request, () -> {
+            Plan plan = plan(request.id());
+            if (plan.status != RescoreExecutionPlanStatus.ACTIVE && plan.status != RescoreExecutionPlanStatus.FAILED) {
+                throw conflictException(plan);
+            }
+            if (request.name() != null) {
+                plan.name = request.name();
+            }
+            if (request.description() != null) {
+                plan.description = request.description();
+            }
+            if (request.capacityUnits() != null) {
+                plan.capacityUnits = request.capacityUnits();
+            }
+            Instant now = clock.instant();
+            plan.updatedAt = now;
+            plan.errorMessage = null;
+            plan.status = RescoreExecutionPlanStatus.UPDATING;
+            plan.transitionAt = now.plus(updateDuration);
+            return UpdateRescoreExecutionPlanResponse.builder().build();
+        });
+    }
+
+    @Override
+    public DeleteRescoreExecutionPlanResponse deleteRescoreExecutionPlan(DeleteRescoreExecutionPlanRequest request) {
+        return call(request, () -> {
+            Plan plan = plan(request.id());
+            if (plan.status == RescoreExecutionPlanStatus.CREATING || plan.status == RescoreExecutionPlanStatus.UPDATING
+                || plan.status == RescoreExecutionPlanStatus.DELETING) {
+                throw conflictException(plan);
+            }
+            plan.status = RescoreExecutionPlanStatus.DELETING;
+            plan.transitionAt = clock.instant().plus(deleteDuration);
+            return DeleteRescoreExecutionPlanResponse.builder().build();
+        });
+    }
+
+    @Override
+    public ListRescoreExecutionPlansResponse listRescoreExecutionPlans(ListRescoreExecutionPlansRequest request) {
+        return call(request, () -> {
+            settleAll();
+            List<Plan> all = new ArrayList<>(plans.values());
+            int from = request.nextToken() == null ? 0 : Integer.parseInt(request.nextToken());
+            int pageSize = request.maxResults() == null ? ListOptions.MAX_PAGE_SIZE : request.maxResults();
+            int to = Math.min(all.size(), from + pageSize);
+            List<RescoreExecutionPlanSummary> summaries = all.subList(Math.min(from, to), to).stream()
+                .map(plan -> RescoreExecutionPlanSummary.builder()
+                    .id(plan.id)
+                    .name(plan.name)
+                    .createdAt(plan.createdAt)
+                    .updatedAt(plan.updatedAt)
+                    .status(plan.status)
+                    .build())
+                .collect(Collectors.toList());
+            return ListRescoreExecutionPlansResponse.builder()
+                .summaryItems(summaries)
+                .nextToken(to < all.size() ? String.valueOf(to) : null)
+                .build();
+        });
+    }
+
+    @Override
+    public TagResourceResponse tagResource(TagResourceRequest request) {
+        return call(request, () -> {
+            Plan plan = planOfArn(request.resourceARN());
+            request.tags().forEach(tag -> plan.tags.put(tag.key(), tag.value()));
+            return TagResourceResponse.builder().build();
+        });
+    }
+
+    @Override
+    public UntagResourceResponse untagResource(UntagResourceRequest request) {
+        return call(request, () -> {
+            Plan plan = planOfArn(request.resourceARN());
+            request.tagKeys().forEach(plan.tags::remove);
+            return UntagResourceResponse.builder().build();
+        });
+    }
+
+    @Override
+    public ListTagsForResourceResponse listTagsForResource(ListTagsForResourceRequest request) {
+        return call(request, () -> {
+            Plan plan = planOfArn(request.resourceARN());
+            return ListTagsForResourceResponse.builder()
+                .tags(plan.tags.entrySet().stream()
+                    .map(tag -> Tag.builder().key(tag.getKey()).value(tag.getValue()).build())
+                    .collect(Collectors.toList()))
+                .build();
+        });
+    }
+
+    /**
+     * Fails the plan right away, as if the service gave up on it.
+     * @param id id of the plan
+     * @param errorMessage error message describe reports
+     */
+    synchronized void fail(String id, String errorMessage) {
+        Plan plan = plan(id);
+        plan.status = RescoreExecutionPlanStatus.FAILED;
+        plan.errorMessage = errorMessage;
+        plan.transitionAt = null;
+    }
+
+    /**
+     * @param id id of the plan
+     * @return tags of the plan
+     */
+    synchronized Map<String, String> tags(String id) {
+        return new LinkedHashMap<>(plan(id).tags);
+    }
+
+    synchronized int planCount() {
+        settleAll();
+        return plans.size();
+    }
+
+    /**
+     * @return calls made per api, throttled ones included
+     */
+    synchronized Map<String, Integer> getCalls() {
+        return new LinkedHashMap<>(calls);
+    }
+
+    synchronized int getCalls(String api) {
+        return calls.getOrDefault(api, 0);
+    }
+
+    synchronized int getThrottles(String api) {
+        return throttles.getOrDefault(api, 0);
+    }
+
+    /**
+     * @return latency waited out by all calls together
+     */
+    synchronized Duration getSimulatedLatency() {
+        return simulatedLatency;
+    }
+
+    // The latency is waited out before taking the lock, so concurrent calls overlap as they would over the network
+    private <T> T call(AwsRequest request, Supplier<T> operation) {
+        String api = ApiName.of(request);
+        Duration latency = latencies.getOrDefault(api, defaultLatency).sample(random);
+        try {
+            sleeper.sleep(latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw AbortedException.builder().message(api + " interrupted").cause(e).build();
+        }
+        synchronized (this) {
+            calls.merge(api, 1, Integer::sum);
+            simulatedLatency = simulatedLatency.plus(latency);
+            if (random.nextDouble() < throttlingRates.getOrDefault(api, defaultThrottlingRate)) {
+                throttles.merge(api, 1, Integer::sum);
+                throw throttlingException();
+            }
+            return operation.get();
+        }
+    }
+
+    private Plan plan(String id) {
+        Plan plan = plans.get(id);
+        if (plan == null || !settle(plan)) {
+            throw ResourceNotFoundException.builder()
+                .message(String.format("Rescore execution plan %s not found", id))
+                .statusCode(400)
+                .awsErrorDetails(errorDetails("ResourceNotFoundException"))
+                .build();
+        }
+        return plan;
+    }
+
+    private Plan planOfArn(String arn) {
+        int idStart = arn == null ? -1 : arn.lastIndexOf(ARN_RESOURCE_PREFIX);
+        if (idStart < 0) {
+            throw validationException(String.format("%s is not a rescore execution plan arn", arn));
+        }
+        return plan(arn.substring(idStart + ARN_RESOURCE_PREFIX.length()));
+    }
+
+    private void settleAll() {
+        new ArrayList<>(plans.values()).forEach(this::settle);
+    }
+
+    // Statuses only move when someone looks, by then every transition that is due has happened
+    private boolean settle(Plan plan) {
+        if (plan.transitionAt == null || clock.instant().isBefore(plan.transitionAt)) {
+            return true;
+        }
+        if (plan.status == RescoreExecutionPlanStatus.DELETING) {
+            plans.remove(plan.id);
+            return false;
+        }
+        plan.updatedAt = plan.transitionAt;
+        plan.transitionAt = null;
+        if (random.nextDouble() < failureRate) {
+            plan.status = RescoreExecutionPlanStatus.FAILED;
+            plan.errorMessage = "Injected failure";
+        } else {
+            plan.status = RescoreExecutionPlanStatus.ACTIVE;
+        }
+        return true;
+    }
+
+    private static String arn(String id) {
+        return "arn:aws:kendra-ranking:us-west-2:0123456789:" + ARN_RESOURCE_PREFIX + id;
+    }
+
+    private static ThrottlingException throttlingException() {
+        return ThrottlingException.builder()
+            .message("Rate exceeded")
+            .statusCode(400)
+            .awsErrorDetails(errorDetails("ThrottlingException"))
+            .build();
+    }
+
+    private static ConflictException conflictException(Plan plan) {
+        return ConflictException.builder()
+            .message(String.format("Rescore execution plan %s is %s", plan.id, plan.status))
+            .statusCode(409)
+            .awsErrorDetails(errorDetails("ConflictException"))
+            .build();
+    }
+
+    private static ValidationException validationException(String message) {
+        return ValidationException.builder()
+            .message(message)
+            .statusCode(400)
+            .awsErrorDetails(errorDetails("ValidationException"))
+            .build();
+    }
+
+    private static AwsErrorDetails errorDetails(String errorCode) {
+        return AwsErrorDetails.builder().errorCode(errorCode).serviceName(SERVICE_NAME).build();
+    }
+}
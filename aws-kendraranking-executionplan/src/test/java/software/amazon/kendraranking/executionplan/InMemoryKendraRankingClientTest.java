@@ -0,0 +1,188 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import software.amazon.awssdk.services.kendraranking.KendraRankingClient;
+import software.amazon.awssdk.services.kendraranking.model.CreateRescoreExecutionPlanRequest;
+import software.amazon.awssdk.services.kendraranking.model.DeleteRescoreExecutionPlanRequest;
+import software.amazon.awssdk.services.kendraranking.model.DescribeRescoreExecutionPlanRequest;
+import software.amazon.awssdk.services.kendraranking.model.RescoreExecutionPlanStatus;
+import software.amazon.awssdk.services.kendraranking.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.kendraranking.model.ThrottlingException;
+import software.amazon.cloudformation.exceptions.CfnNotStabilizedException;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Delay;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ProxyClient;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.cloudformation.proxy.delay.Constant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class InMemoryKendraRankingClientTest extends AbstractTestBase {
+
+    private static final Duration LATENCY = Duration.ofMillis(100);
+
+    private final MutableClock clock = new MutableClock();
+
+    private final TestExecutionArnBuilder testExecutionArnBuilder = new TestExecutionArnBuilder();
+
+    private final Delay testDelay = Constant.of().timeout(Duration.ofMinutes(1)).delay(Duration.ofMillis(1L)).build();
+
+    private AmazonWebServicesClientProxy proxy;
+
+    @BeforeEach
+    public void setup() {
+        proxy = new AmazonWebServicesClientProxy(logger, MOCK_CREDENTIALS, () -> Duration.ofSeconds(600).toMillis());
+    }
+
+    @Test
+    public void testLifecycleThroughTheHandlers() {
+        final InMemoryKendraRankingClient service = service().build();
+        final ProxyClient<KendraRankingClient> proxyClient = MOCK_PROXY(proxy, service);
+
+        final ResourceModel created = succeeded(new CreateHandler(testExecutionArnBuilder, testDelay).handleRequest(proxy,
+            request(model(null, 1, Collections.singletonList(tag("team", "search"))), null), new CallbackContext(),
+            proxyClient, logger));
+        assertThat(created.getId()).isNotNull();
+        assertThat(service.tags(created.getId())).containsExactly(entry("team", "search"));
+        // Five seconds of CREATING polled every 100ms
+        assertThat(service.getCalls(ApiName.DESCRIBE_EXECUTION_PLAN)).isEqualTo(50);
+
+        final ResourceModel read = succeeded(new ReadHandler(testExecutionArnBuilder).handleRequest(proxy,
+            request(model(created.getId(), 1, null), null), new CallbackContext(), proxyClient, logger));
+        assertThat(read.getName()).isEqualTo("plan");
+        assertThat(read.getCapacityUnits().getRescoreCapacityUnits()).isEqualTo(1);
+
+        final ResourceModel updated = succeeded(new UpdateHandler(testExecutionArnBuilder, testDelay).handleRequest(proxy,
+            request(model(created.getId(), 2, Arrays.asList(tag("team", "ranking"), tag("stage", "beta"))),
+                model(created.getId(), 1, Collections.singletonList(tag("team", "search")))),
+            new CallbackContext(), proxyClient, logger));
+        assertThat(updated.getCapacityUnits().getRescoreCapacityUnits()).isEqualTo(2);
+        assertThat(service.tags(created.getId())).containsOnly(entry("team", "ranking"), entry("stage", "beta"));
+
+        final ProgressEvent<ResourceModel, CallbackContext> listed = new ListHandler(ListOptions.defaults(),
+            testExecutionArnBuilder).handleRequest(proxy, request(model(null, null, null), null), new CallbackContext(),
+            proxyClient, logger);
+        assertThat(listed.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(listed.getResourceModels()).extracting(ResourceModel::getId).containsExactly(created.getId());
+
+        final ProgressEvent<ResourceModel, CallbackContext> deleted = new DeleteHandler(testDelay).handleRequest(proxy,
+            request(model(created.getId(), 2, null), null), new CallbackContext(), proxyClient, logger);
+        assertThat(deleted.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(service.planCount()).isEqualTo(0);
+
+        final int calls = service.getCalls().values().stream().mapToInt(Integer::intValue).sum();
+        assertThat(service.getSimulatedLatency()).isEqualTo(LATENCY.multipliedBy(calls));
+        assertThat(clock.instant().toEpochMilli()).isEqualTo(LATENCY.multipliedBy(calls).toMillis());
+    }
+
+    @Test
+    public void testInjectedFailureFailsStabilization() {
+        final InMemoryKendraRankingClient service = service().failureRate(1.0).build();
+
+        assertThrows(CfnNotStabilizedException.class, () ->
+            new CreateHandler(testExecutionArnBuilder, testDelay).handleRequest(proxy, request(model(null, 1, null), null),
+                new CallbackContext(), MOCK_PROXY(proxy, service), logger));
+    }
+
+    @Test
+    public void testStabilizationRidesOutThrottledDescribes() {
+        final InMemoryKendraRankingClient service = service()
+            .throttlingRate(ApiName.DESCRIBE_EXECUTION_PLAN, 0.5)
+            .build();
+        final CallbackContext callbackContext = new CallbackContext();
+
+        succeeded(new CreateHandler(testExecutionArnBuilder, testDelay).handleRequest(proxy,
+            request(model(null, 1, null), null), callbackContext, MOCK_PROXY(proxy, service), logger));
+
+        assertThat(service.getThrottles(ApiName.DESCRIBE_EXECUTION_PLAN)).isGreaterThan(0);
+        assertThat(callbackContext.getStabilizationThrottles())
+            .isEqualTo(service.getThrottles(ApiName.DESCRIBE_EXECUTION_PLAN));
+    }
+
+    @Test
+    public void testStateMachine() {
+        final InMemoryKendraRankingClient service = service().build();
+        final CreateRescoreExecutionPlanRequest createRequest = CreateRescoreExecutionPlanRequest.builder()
+            .name("plan")
+            .clientToken("token")
+            .build();
+
+        final String id = service.createRescoreExecutionPlan(createRequest).id();
+        assertThat(service.createRescoreExecutionPlan(createRequest).id()).isEqualTo(id);
+        assertThat(status(service, id)).isEqualTo(RescoreExecutionPlanStatus.CREATING);
+
+        clock.advance(Duration.ofSeconds(5));
+        assertThat(status(service, id)).isEqualTo(RescoreExecutionPlanStatus.ACTIVE);
+
+        service.fail(id, "Out of capacity");
+        assertThat(status(service, id)).isEqualTo(RescoreExecutionPlanStatus.FAILED);
+
+        service.deleteRescoreExecutionPlan(DeleteRescoreExecutionPlanRequest.builder().id(id).build());
+        assertThat(status(service, id)).isEqualTo(RescoreExecutionPlanStatus.DELETING);
+        clock.advance(Duration.ofSeconds(5));
+        assertThrows(ResourceNotFoundException.class, () -> status(service, id));
+    }
+
+    @Test
+    public void testThrottledCallsAreCounted() {
+        final InMemoryKendraRankingClient service = service().throttlingRate(1.0).build();
+
+        final ThrottlingException exception = assertThrows(ThrottlingException.class, () ->
+            service.describeRescoreExecutionPlan(DescribeRescoreExecutionPlanRequest.builder().id("id").build()));
+
+        assertThat(exception.isThrottlingException()).isTrue();
+        assertThat(service.getCalls(ApiName.DESCRIBE_EXECUTION_PLAN)).isEqualTo(1);
+        assertThat(service.getThrottles(ApiName.DESCRIBE_EXECUTION_PLAN)).isEqualTo(1);
+    }
+
+    private InMemoryKendraRankingClient.Builder service() {
+        return InMemoryKendraRankingClient.builder()
+            .clock(clock, clock::advance)
+            .latency(InMemoryKendraRankingClient.LatencyDistribution.constant(LATENCY))
+            .createDuration(Duration.ofSeconds(5))
+            .updateDuration(Duration.ofSeconds(2))
+            .deleteDuration(Duration.ofSeconds(5));
+    }
+
+    private static RescoreExecutionPlanStatus status(InMemoryKendraRankingClient service, String id) {
+        return service.describeRescoreExecutionPlan(DescribeRescoreExecutionPlanRequest.builder().id(id).build()).status();
+    }
+
+    private static ResourceModel succeeded(ProgressEvent<ResourceModel, CallbackContext> event) {
+        assertThat(event.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        return event.getResourceModel();
+    }
+
+    private static ResourceHandlerRequest<ResourceModel> request(ResourceModel model, ResourceModel previousModel) {
+        return ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(model)
+            .previousResourceState(previousModel)
+            .clientRequestToken("token")
+            .logicalResourceIdentifier("Plan")
+            .build();
+    }
+
+    private static ResourceModel model(String id, Integer capacityUnits, List<Tag> tags) {
+        return ResourceModel.builder()
+            .id(id)
+            .name("plan")
+            .capacityUnits(capacityUnits == null ? null
+                : CapacityUnitsConfiguration.builder().rescoreCapacityUnits(capacityUnits).build())
+            .tags(tags)
+            .build();
+    }
+
+    private static Tag tag(String key, String value) {
+        return Tag.builder().key(key).value(value).build();
+    }
+}
@@ -0,0 +1,36 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InProcessWaitTest {
+
+  @Test
+  public void testCapKeepsABudgetThatFitsTheTimeout() {
+    assertThat(InProcessWait.cap(Duration.ofSeconds(30), Duration.ofSeconds(180))).isEqualTo(Duration.ofSeconds(30));
+  }
+
+  @Test
+  public void testCapLeavesTheSafetyMarginBeforeTheTimeout() {
+    assertThat(InProcessWait.cap(Duration.ofSeconds(300), Duration.ofSeconds(180)))
+        .isEqualTo(Duration.ofSeconds(180).minus(InProcessWait.SAFETY_MARGIN));
+    assertThat(InProcessWait.cap(InProcessWait.DEFAULT_BUDGET, InProcessWait.DEFAULT_FUNCTION_TIMEOUT))
+        .isEqualTo(InProcessWait.DEFAULT_BUDGET);
+  }
+
+  @Test
+  public void testCapDisablesTheWaitWhenTheTimeoutIsShorterThanTheMargin() {
+    assertThat(InProcessWait.cap(Duration.ofSeconds(30), Duration.ofSeconds(10))).isEqualTo(Duration.ZERO);
+    assertThat(InProcessWait.of(InProcessWait.cap(Duration.ofSeconds(30), Duration.ofSeconds(10)), Duration.ofSeconds(5))
+        .isEnabled()).isFalse();
+  }
+
+  @Test
+  public void testSafetyMarginCoversALastPollAtTheEndOfTheBudget() {
+    assertThat(InProcessWait.SAFETY_MARGIN.minus(InProcessWait.POLL_TIMEOUT)).isEqualTo(InProcessWait.AFTER_STABILIZATION);
+    assertThat(InProcessWait.AFTER_STABILIZATION).isGreaterThan(Duration.ZERO);
+  }
+}
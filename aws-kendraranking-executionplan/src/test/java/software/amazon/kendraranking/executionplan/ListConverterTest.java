@@ -0,0 +1,44 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ListConverterTest {
+
+    private static final Function<String, Integer> LENGTH = String::length;
+
+    @Test
+    public void testToSdk() {
+        assertThat(ListConverter.toSdk(null, LENGTH)).isNull();
+        assertThat(ListConverter.toSdk(Collections.<String>emptyList(), LENGTH)).isEmpty();
+        assertThat(ListConverter.toSdk(Arrays.asList("ccc", "a", "bb"), LENGTH)).containsExactly(3, 1, 2);
+    }
+
+    @Test
+    public void testToModel() {
+        assertThat(ListConverter.toModel(null, LENGTH)).isNull();
+        assertThat(ListConverter.toModel(Collections.<String>emptyList(), LENGTH)).isNull();
+        assertThat(ListConverter.toModel(Arrays.asList("ccc", "a", "bb"), LENGTH)).containsExactly(3, 1, 2);
+    }
+
+    @Test
+    public void testMapMatchesTheStreamPipeline() {
+        final List<String> items = Collections.nCopies(200, "item").stream()
+            .map(item -> item + Math.random())
+            .collect(Collectors.toList());
+
+        final List<Integer> mapped = ListConverter.map(items, String::hashCode);
+
+        assertThat(mapped).isEqualTo(items.stream().map(String::hashCode).collect(Collectors.toList()));
+        // A list of its own the caller may modify
+        mapped.add(0);
+        assertThat(mapped).hasSize(201);
+    }
+}
@@ -1,10 +1,17 @@
 package software.amazon.kendraranking.executionplan;
 
 import software.amazon.awssdk.services.kendraranking.KendraRankingClient;
+import software.amazon.awssdk.services.kendraranking.model.CapacityUnitsConfiguration;
+import software.amazon.awssdk.services.kendraranking.model.DescribeRescoreExecutionPlanRequest;
+import software.amazon.awssdk.services.kendraranking.model.DescribeRescoreExecutionPlanResponse;
 import software.amazon.awssdk.services.kendraranking.model.ListRescoreExecutionPlansRequest;
 import software.amazon.awssdk.services.kendraranking.model.ListRescoreExecutionPlansResponse;
+import software.amazon.awssdk.services.kendraranking.model.RescoreExecutionPlanStatus;
 import software.amazon.awssdk.services.kendraranking.model.RescoreExecutionPlanSummary;
+import software.amazon.awssdk.services.kendraranking.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.kendraranking.model.ThrottlingException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.HandlerErrorCode;
 import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
@@ -12,20 +19,29 @@ import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
 
 
+import java.time.Clock;
 import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @ExtendWith(MockitoExtension.class)
 public class ListHandlerTest extends AbstractTestBase{
@@ -51,6 +67,7 @@ public class ListHandlerTest extends AbstractTestBase{
         final ListHandler handler = new ListHandler();
 
         String id = "id";
+        String name = "name";
         final ResourceModel model = ResourceModel
             .builder()
             .id(id)
@@ -64,6 +81,7 @@ public class ListHandlerTest extends AbstractTestBase{
             Arrays.asList(RescoreExecutionPlanSummary
                 .builder()
                 .id(id)
+                .name(name)
                 .build());
         when(proxyClient.client().listRescoreExecutionPlans(any(ListRescoreExecutionPlansRequest.class)))
             .thenReturn(ListRescoreExecutionPlansResponse.builder().summaryItems(summaryList).build());
@@ -76,10 +94,269 @@ public class ListHandlerTest extends AbstractTestBase{
         assertThat(response.getCallbackContext()).isNull();
         assertThat(response.getCallbackDelaySeconds()).isEqualTo(0);
         assertThat(response.getResourceModel()).isNull();
-        assertThat(response.getResourceModels()).isNotNull();
+        assertThat(response.getResourceModels()).containsExactly(ResourceModel.builder().id(id).name(name).build());
         assertThat(response.getMessage()).isNull();
         assertThat(response.getErrorCode()).isNull();
 
+        ArgumentCaptor<ListRescoreExecutionPlansRequest> captor = ArgumentCaptor.forClass(ListRescoreExecutionPlansRequest.class);
+        verify(proxyClient.client(), times(1)).listRescoreExecutionPlans(captor.capture());
+        // The largest page the service allows unless configured otherwise
+        assertThat(captor.getValue().maxResults()).isEqualTo(ListOptions.MAX_PAGE_SIZE);
+        verify(proxyClient.client(), never()).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+    }
+
+    @Test
+    public void handleRequest_Hydrated() {
+        final TestExecutionArnBuilder testExecutionArnBuilder = new TestExecutionArnBuilder();
+        final ListHandler handler = new ListHandler(ListOptions.builder().hydrate(true).build(), testExecutionArnBuilder);
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(ResourceModel.builder().build())
+            .build();
+
+        List<RescoreExecutionPlanSummary> summaryList =
+            Arrays.asList(
+                RescoreExecutionPlanSummary.builder().id("id1").name("name1").build(),
+                RescoreExecutionPlanSummary.builder().id("id2").name("name2").build());
+        when(proxyClient.client().listRescoreExecutionPlans(any(ListRescoreExecutionPlansRequest.class)))
+            .thenReturn(ListRescoreExecutionPlansResponse.builder().summaryItems(summaryList).nextToken("token").build());
+        when(proxyClient.client().describeRescoreExecutionPlan(describeRequestOf("id1")))
+            .thenReturn(DescribeRescoreExecutionPlanResponse.builder()
+                .id("id1")
+                .name("name1")
+                .description("description1")
+                .status(RescoreExecutionPlanStatus.ACTIVE.toString())
+                .capacityUnits(CapacityUnitsConfiguration.builder().rescoreCapacityUnits(2).build())
+                .build());
+        // Deleted between the list and the describe call
+        when(proxyClient.client().describeRescoreExecutionPlan(describeRequestOf("id2")))
+            .thenThrow(ResourceNotFoundException.builder().build());
+
+        final ProgressEvent<ResourceModel, CallbackContext> response =
+            handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+
+        assertThat(response).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getNextToken()).isEqualTo("token");
+        assertThat(response.getResourceModels()).containsExactly(
+            ResourceModel.builder()
+                .id("id1")
+                .arn(testExecutionArnBuilder.build(request, "id1"))
+                .name("name1")
+                .description("description1")
+                .capacityUnits(software.amazon.kendraranking.executionplan.CapacityUnitsConfiguration.builder().rescoreCapacityUnits(2).build())
+                .build(),
+            ResourceModel.builder().id("id2").name("name2").build());
+
         verify(proxyClient.client(), times(1)).listRescoreExecutionPlans(any(ListRescoreExecutionPlansRequest.class));
+        verify(proxyClient.client(), times(2)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+    }
+
+    @Test
+    public void handleRequest_AggregatesPagesUntilResultBudget() {
+        final ListHandler handler = new ListHandler(ListOptions.builder()
+            .pageSize(500)
+            .aggregatePages(true)
+            .resultBudget(3)
+            .clock(Clock.fixed(Instant.EPOCH, ZoneOffset.UTC))
+            .build(), new TestExecutionArnBuilder());
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(ResourceModel.builder().build())
+            .nextToken("token0")
+            .build();
+
+        when(proxyClient.client().listRescoreExecutionPlans(any(ListRescoreExecutionPlansRequest.class)))
+            .thenReturn(listPage("token1", "id1", "id2"))
+            .thenReturn(listPage("token2", "id3", "id4"));
+
+        final ProgressEvent<ResourceModel, CallbackContext> response =
+            handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModels()).extracting(ResourceModel::getId).containsExactly("id1", "id2", "id3", "id4");
+        assertThat(response.getNextToken()).isEqualTo("token2");
+
+        ArgumentCaptor<ListRescoreExecutionPlansRequest> captor = ArgumentCaptor.forClass(ListRescoreExecutionPlansRequest.class);
+        verify(proxyClient.client(), times(2)).listRescoreExecutionPlans(captor.capture());
+        assertThat(captor.getAllValues()).extracting(ListRescoreExecutionPlansRequest::nextToken).containsExactly("token0", "token1");
+        // Page size is capped at what the service accepts
+        assertThat(captor.getAllValues()).extracting(ListRescoreExecutionPlansRequest::maxResults).containsOnly(ListOptions.MAX_PAGE_SIZE);
+    }
+
+    @Test
+    public void handleRequest_AggregatesPagesUntilLastPage() {
+        final ListHandler handler = new ListHandler(ListOptions.builder().aggregatePages(true).build(), new TestExecutionArnBuilder());
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(ResourceModel.builder().build())
+            .build();
+
+        when(proxyClient.client().listRescoreExecutionPlans(any(ListRescoreExecutionPlansRequest.class)))
+            .thenReturn(listPage("token1", "id1"))
+            .thenReturn(listPage(null, "id2"));
+
+        final ProgressEvent<ResourceModel, CallbackContext> response =
+            handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+
+        assertThat(response.getResourceModels()).extracting(ResourceModel::getId).containsExactly("id1", "id2");
+        assertThat(response.getNextToken()).isNull();
+
+        verify(proxyClient.client(), times(2)).listRescoreExecutionPlans(any(ListRescoreExecutionPlansRequest.class));
+    }
+
+    @Test
+    public void handleRequest_StopsAggregatingWhenTimeBudgetIsUsedUp() {
+        final ListHandler handler = new ListHandler(ListOptions.builder()
+            .aggregatePages(true)
+            .timeBudget(Duration.ZERO)
+            .build(), new TestExecutionArnBuilder());
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(ResourceModel.builder().build())
+            .build();
+
+        when(proxyClient.client().listRescoreExecutionPlans(any(ListRescoreExecutionPlansRequest.class)))
+            .thenReturn(listPage("token1", "id1"));
+
+        final ProgressEvent<ResourceModel, CallbackContext> response =
+            handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+
+        assertThat(response.getResourceModels()).extracting(ResourceModel::getId).containsExactly("id1");
+        assertThat(response.getNextToken()).isEqualTo("token1");
+
+        verify(proxyClient.client(), times(1)).listRescoreExecutionPlans(any(ListRescoreExecutionPlansRequest.class));
+    }
+
+    @Test
+    public void handleRequest_HydrationFailuresFallBackToSummaries() {
+        final ListHandler handler = new ListHandler(ListOptions.builder().hydrate(true).build(), new TestExecutionArnBuilder());
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(ResourceModel.builder().build())
+            .build();
+
+        when(proxyClient.client().listRescoreExecutionPlans(any(ListRescoreExecutionPlansRequest.class)))
+            .thenReturn(listPage(null, "id1", "id2"));
+        when(proxyClient.client().describeRescoreExecutionPlan(describeRequestOf("id1")))
+            .thenReturn(DescribeRescoreExecutionPlanResponse.builder().id("id1").name("name1").description("description1").build());
+        when(proxyClient.client().describeRescoreExecutionPlan(describeRequestOf("id2")))
+            .thenThrow(ThrottlingException.builder().build());
+
+        final ProgressEvent<ResourceModel, CallbackContext> response =
+            handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModels()).extracting(ResourceModel::getDescription).containsExactly("description1", null);
+        assertThat(response.getResourceModels()).extracting(ResourceModel::getId).containsExactly("id1", "id2");
+    }
+
+    @Test
+    public void handleRequest_HydrationStopsAtTheTimeBudget() {
+        final ListHandler handler = new ListHandler(ListOptions.builder()
+            .hydrate(true)
+            .timeBudget(Duration.ZERO)
+            .build(), new TestExecutionArnBuilder());
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(ResourceModel.builder().build())
+            .build();
+
+        when(proxyClient.client().listRescoreExecutionPlans(any(ListRescoreExecutionPlansRequest.class)))
+            .thenReturn(listPage(null, "id1", "id2"));
+
+        final ProgressEvent<ResourceModel, CallbackContext> response =
+            handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModels()).containsExactly(
+            ResourceModel.builder().id("id1").build(), ResourceModel.builder().id("id2").build());
+        verify(proxyClient.client(), never()).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+    }
+
+    @Test
+    public void handleRequest_HydrationDescribesGiveUpAtTheTimeBudget() {
+        final Duration timeBudget = Duration.ofSeconds(20);
+        final ListHandler handler = new ListHandler(ListOptions.builder()
+            .hydrate(true)
+            .timeBudget(timeBudget)
+            .build(), new TestExecutionArnBuilder());
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(ResourceModel.builder().build())
+            .build();
+
+        when(proxyClient.client().listRescoreExecutionPlans(any(ListRescoreExecutionPlansRequest.class)))
+            .thenReturn(listPage(null, "id1"));
+        when(proxyClient.client().describeRescoreExecutionPlan(describeRequestOf("id1")))
+            .thenReturn(DescribeRescoreExecutionPlanResponse.builder().id("id1").name("name1").build());
+
+        handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+
+        ArgumentCaptor<DescribeRescoreExecutionPlanRequest> captor = ArgumentCaptor.forClass(DescribeRescoreExecutionPlanRequest.class);
+        verify(proxyClient.client(), times(1)).describeRescoreExecutionPlan(captor.capture());
+        // What was left of the budget, retries included
+        final Duration apiCallTimeout = captor.getValue().overrideConfiguration().get().apiCallTimeout().get();
+        assertThat(apiCallTimeout).isGreaterThan(Duration.ZERO);
+        assertThat(apiCallTimeout).isLessThanOrEqualTo(timeBudget);
+    }
+
+    @Test
+    public void handleRequest_HydrationCancelsQueuedDescribesAtTheTimeBudget() {
+        // A pool busy with other calls, nothing it is handed runs before the list has returned
+        final List<Runnable> queued = new ArrayList<>();
+        final ListHandler handler = new ListHandler(ListOptions.builder()
+            .hydrate(true)
+            .timeBudget(Duration.ofMillis(50))
+            .build(), new TestExecutionArnBuilder(), queued::add);
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(ResourceModel.builder().build())
+            .build();
+
+        when(proxyClient.client().listRescoreExecutionPlans(any(ListRescoreExecutionPlansRequest.class)))
+            .thenReturn(listPage(null, "id1", "id2"));
+
+        final ProgressEvent<ResourceModel, CallbackContext> response =
+            handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModels()).containsExactly(
+            ResourceModel.builder().id("id1").build(), ResourceModel.builder().id("id2").build());
+
+        // Once the pool gets to them, the cancelled describes don't run
+        assertThat(queued).hasSize(2);
+        queued.forEach(Runnable::run);
+        verify(proxyClient.client(), never()).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+    }
+
+    private static DescribeRescoreExecutionPlanRequest describeRequestOf(String id) {
+        return argThat(describeRequest -> id.equals(describeRequest.id()));
+    }
+
+    private static ListRescoreExecutionPlansResponse listPage(String nextToken, String... ids) {
+        return ListRescoreExecutionPlansResponse.builder()
+            .summaryItems(Arrays.stream(ids)
+                .map(id -> RescoreExecutionPlanSummary.builder().id(id).build())
+                .collect(Collectors.toList()))
+            .nextToken(nextToken)
+            .build();
+    }
+
+    @Test
+    public void handleRequest_FailsWhileTheCircuitBreakerIsOpen() {
+        final ListHandler handler = new ListHandler();
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(ResourceModel.builder().build())
+            .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleInstrumentedRequest(
+            proxy, request, null, proxyClient, openCircuitBreaker(), logger);
+
+        // Read and list may not return IN_PROGRESS
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.FAILED);
+        assertThat(response.getErrorCode()).isEqualTo(HandlerErrorCode.ServiceInternalError);
+        verifyNoInteractions(sdkClient);
     }
 }
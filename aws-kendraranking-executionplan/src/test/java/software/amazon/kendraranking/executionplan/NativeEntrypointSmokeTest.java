@@ -0,0 +1,131 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import com.amazonaws.services.lambda.runtime.ClientContext;
+import com.amazonaws.services.lambda.runtime.CognitoIdentity;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The custom runtime's entry point: the runtime interface client loads the class named by _HANDLER with
+ * reflection and streams the CloudFormation request through its handleRequest, which is what this test does.
+ * The request is a create whose model fails schema validation, so the wrapper answers it without calling the
+ * service. Run as a native image with mvn -Pnative test, it checks the reflection and resource configuration
+ * of the wrapper itself, on top of the handler paths NativeSmokeTest covers.
+ */
+public class NativeEntrypointSmokeTest {
+
+    // The Handler of NativeTypeFunction in template.yml, passed to the executable as _HANDLER by bootstrap
+    private static final String HANDLER = "software.amazon.kendraranking.executionplan.HandlerWrapper::handleRequest";
+
+    private static final String REQUEST = "{"
+        + "\"awsAccountId\":\"123456789012\","
+        + "\"bearerToken\":\"native-smoke-test\","
+        + "\"region\":\"us-east-1\","
+        + "\"action\":\"CREATE\","
+        + "\"resourceType\":\"" + ResourceModel.TYPE_NAME + "\","
+        + "\"resourceTypeVersion\":\"00000001\","
+        + "\"requestData\":{"
+        + "\"callerCredentials\":{\"accessKeyId\":\"accessKey\",\"secretAccessKey\":\"secretKey\",\"sessionToken\":\"token\"},"
+        + "\"logicalResourceId\":\"Plan\","
+        + "\"resourceProperties\":{\"Name\":\"plan\",\"Unknown\":\"property\"}"
+        + "},"
+        + "\"stackId\":\"arn:aws:cloudformation:us-east-1:123456789012:stack/native-smoke-test/1\","
+        + "\"callbackContext\":null"
+        + "}";
+
+    @Test
+    public void testHandlerNamedByTheRuntimeConfiguration() throws Exception {
+        final String[] handler = HANDLER.split("::");
+        final RequestStreamHandler wrapper = (RequestStreamHandler) Class.forName(handler[0])
+            .getDeclaredConstructor()
+            .newInstance();
+        assertThat(handler[1]).isEqualTo("handleRequest");
+
+        final ByteArrayOutputStream response = new ByteArrayOutputStream();
+        wrapper.handleRequest(new ByteArrayInputStream(REQUEST.getBytes(StandardCharsets.UTF_8)), response, context());
+
+        final JSONObject event = new JSONObject(new String(response.toByteArray(), StandardCharsets.UTF_8));
+        assertThat(event.getString("status")).isEqualTo("FAILED");
+        assertThat(event.getString("errorCode")).isEqualTo("InvalidRequest");
+    }
+
+    // Mockito can't generate mocks in a native image
+    private static Context context() {
+        final LambdaLogger logger = new LambdaLogger() {
+            @Override
+            public void log(String message) {
+                System.out.println(message);
+            }
+
+            @Override
+            public void log(byte[] message) {
+                System.out.println(new String(message, StandardCharsets.UTF_8));
+            }
+        };
+        return new Context() {
+            @Override
+            public String getAwsRequestId() {
+                return "native-smoke-test";
+            }
+
+            @Override
+            public String getLogGroupName() {
+                return null;
+            }
+
+            @Override
+            public String getLogStreamName() {
+                return null;
+            }
+
+            @Override
+            public String getFunctionName() {
+                return "NativeTypeFunction";
+            }
+
+            @Override
+            public String getFunctionVersion() {
+                return "$LATEST";
+            }
+
+            @Override
+            public String getInvokedFunctionArn() {
+                return "arn:aws:lambda:us-east-1:123456789012:function:NativeTypeFunction";
+            }
+
+            @Override
+            public CognitoIdentity getIdentity() {
+                return null;
+            }
+
+            @Override
+            public ClientContext getClientContext() {
+                return null;
+            }
+
+            @Override
+            public int getRemainingTimeInMillis() {
+                return 60_000;
+            }
+
+            @Override
+            public int getMemoryLimitInMB() {
+                return 512;
+            }
+
+            @Override
+            public LambdaLogger getLogger() {
+                return logger;
+            }
+        };
+    }
+}
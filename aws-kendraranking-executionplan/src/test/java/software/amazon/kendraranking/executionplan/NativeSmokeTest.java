@@ -0,0 +1,92 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.time.Duration;
+import java.util.Collections;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.json.JSONObject;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.cloudformation.resource.Serializer;
+import software.amazon.cloudformation.resource.Validator;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The paths of a handler invocation that native-image can't see statically: the schema resource, schema
+ * validation, Jackson on the Lombok models and the callback context with the SDK objects it memoizes, and
+ * the SDK model classes. It runs on the JVM like every other test, and as a native image with
+ * mvn -Pnative test, against the in-memory stand-in for the service, with every event and callback context
+ * serialized like the wrapper hands them to CloudFormation and back.
+ */
+public class NativeSmokeTest extends AbstractTestBase {
+
+    private static final int MAX_INVOCATIONS = 1_000;
+
+    private final MutableClock clock = new MutableClock();
+
+    private final Serializer serializer = new Serializer();
+
+    private final TestExecutionArnBuilder testExecutionArnBuilder = new TestExecutionArnBuilder();
+
+    private final InMemoryKendraRankingClient service = InMemoryKendraRankingClient.builder()
+        .clock(clock, clock::advance)
+        .createDuration(Duration.ofSeconds(30))
+        .deleteDuration(Duration.ofSeconds(30))
+        .build();
+
+    @Test
+    public void testLifecycleThroughTheWrapperSerialization() throws Exception {
+        final ResourceModel desired = serializer.deserialize(
+            "{\"Name\":\"plan\",\"CapacityUnits\":{\"RescoreCapacityUnits\":1},"
+                + "\"Tags\":[{\"Key\":\"team\",\"Value\":\"search\"}]}",
+            new TypeReference<ResourceModel>() {});
+        new Validator().validateObject(new JSONObject(serializer.serialize(desired)), new Configuration().resourceSchemaJSONObject());
+
+        final ProgressEvent<ResourceModel, CallbackContext> created = invokeUntilDone(
+            new CreateHandler(testExecutionArnBuilder, CreateHandler.STABILIZATION_SCHEDULE), desired);
+        assertThat(created.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        final String id = created.getResourceModel().getId();
+        assertThat(service.tags(id)).containsEntry("team", "search");
+
+        final ProgressEvent<ResourceModel, CallbackContext> read = invokeUntilDone(
+            new ReadHandler(testExecutionArnBuilder), ResourceModel.builder().id(id).build());
+        assertThat(read.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(read.getResourceModel().getName()).isEqualTo("plan");
+        assertThat(read.getResourceModel().getCapacityUnits().getRescoreCapacityUnits()).isEqualTo(1);
+        assertThat(read.getResourceModel().getTags())
+            .isEqualTo(Collections.singletonList(Tag.builder().key("team").value("search").build()));
+
+        final ProgressEvent<ResourceModel, CallbackContext> deleted = invokeUntilDone(
+            new DeleteHandler(DeleteHandler.STABILIZATION_SCHEDULE, InProcessWait.disabled()),
+            ResourceModel.builder().id(id).build());
+        assertThat(deleted.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(service.planCount()).isEqualTo(0);
+    }
+
+    // Invokes the handler with no time left until it is done, the way CloudFormation calls back
+    private ProgressEvent<ResourceModel, CallbackContext> invokeUntilDone(BaseHandlerStd handler, ResourceModel model)
+        throws Exception {
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(model)
+            .clientRequestToken("token")
+            .logicalResourceIdentifier("Plan")
+            .build();
+        CallbackContext callbackContext = null;
+        for (int invocations = 1; ; invocations++) {
+            final AmazonWebServicesClientProxy proxy = new AmazonWebServicesClientProxy(logger, MOCK_CREDENTIALS, () -> 0L);
+            final ProgressEvent<ResourceModel, CallbackContext> event = serializer.deserialize(
+                serializer.serialize(handler.handleRequest(proxy, request, callbackContext, MOCK_PROXY(proxy, service), logger)),
+                new TypeReference<ProgressEvent<ResourceModel, CallbackContext>>() {});
+            if (event.getStatus() != OperationStatus.IN_PROGRESS || invocations == MAX_INVOCATIONS) {
+                return event;
+            }
+            clock.advance(Duration.ofSeconds(event.getCallbackDelaySeconds()));
+            callbackContext = event.getCallbackContext();
+            request.setDesiredResourceState(event.getResourceModel());
+        }
+    }
+}
@@ -16,6 +16,7 @@ import software.amazon.awssdk.services.kendraranking.model.RescoreExecutionPlanS
 import software.amazon.cloudformation.exceptions.CfnGeneralServiceException;
 import software.amazon.cloudformation.exceptions.CfnNotFoundException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.HandlerErrorCode;
 import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
@@ -30,6 +31,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -110,6 +112,66 @@ public class ReadHandlerTest extends AbstractTestBase {
         verify(proxyClient.client(), times(1)).listTagsForResource(any(ListTagsForResourceRequest.class));
     }
 
+    @Test
+    public void handleRequest_AnswersRepeatedDescribeFromCache() {
+        final DescribeCache describeCache = new DescribeCache(Duration.ofSeconds(5), 10, new MutableClock());
+        final ReadHandler handler = new ReadHandler(testExecutionArnBuilder, ConcurrentCalls.executor(), describeCache);
+
+        when(proxyClient.client().describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class)))
+            .thenReturn(DescribeRescoreExecutionPlanResponse.builder()
+                .id("testId")
+                .status(RescoreExecutionPlanStatus.ACTIVE.toString())
+                .build());
+        when(proxyClient.client().listTagsForResource(any(ListTagsForResourceRequest.class)))
+            .thenReturn(ListTagsForResourceResponse.builder().build());
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .awsAccountId("123456789012")
+            .desiredResourceState(ResourceModel.builder().id("testId").build())
+            .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> first = handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+        final ProgressEvent<ResourceModel, CallbackContext> second = handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+
+        assertThat(second.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(second.getResourceModel()).isEqualTo(first.getResourceModel());
+        assertThat(describeCache.hits()).isEqualTo(1);
+        assertThat(describeCache.misses()).isEqualTo(1);
+
+        // Tags aren't cached, only the describe call is saved
+        verify(proxyClient.client(), times(1)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+        verify(proxyClient.client(), times(2)).listTagsForResource(any(ListTagsForResourceRequest.class));
+    }
+
+    @Test
+    public void handleRequest_DoesNotAnswerFromAnotherRegionsDescribe() {
+        final DescribeCache describeCache = new DescribeCache(Duration.ofSeconds(5), 10, new MutableClock());
+        final ReadHandler handler = new ReadHandler(testExecutionArnBuilder, ConcurrentCalls.executor(), describeCache);
+
+        when(proxyClient.client().describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class)))
+            .thenReturn(DescribeRescoreExecutionPlanResponse.builder()
+                .id("testId")
+                .status(RescoreExecutionPlanStatus.ACTIVE.toString())
+                .build());
+        when(proxyClient.client().listTagsForResource(any(ListTagsForResourceRequest.class)))
+            .thenReturn(ListTagsForResourceResponse.builder().build());
+
+        // The same id in the same account, but a plan of another region
+        for (String region : new String[] {"us-west-2", "eu-west-1"}) {
+            final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .awsAccountId("123456789012")
+                .region(region)
+                .desiredResourceState(ResourceModel.builder().id("testId").build())
+                .build();
+            handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+        }
+
+        assertThat(describeCache.hits()).isEqualTo(0);
+        assertThat(describeCache.misses()).isEqualTo(2);
+        verify(proxyClient.client(), times(2)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+        verify(proxyClient.client(), times(2)).listTagsForResource(any(ListTagsForResourceRequest.class));
+    }
+
     @Test
     public void handleRequest_Tags() {
         final ReadHandler handler = new ReadHandler(testExecutionArnBuilder);
@@ -182,6 +244,8 @@ public class ReadHandlerTest extends AbstractTestBase {
         });
 
         verify(proxyClient.client(), times(1)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+        // Tags are listed concurrently with the describe call
+        verify(proxyClient.client(), times(1)).listTagsForResource(any(ListTagsForResourceRequest.class));
     }
 
     @Test
@@ -203,5 +267,54 @@ public class ReadHandlerTest extends AbstractTestBase {
         assertThrows(CfnGeneralServiceException.class, () -> {
             handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
         });
+
+        verify(proxyClient.client(), times(1)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+        verify(proxyClient.client(), times(1)).listTagsForResource(any(ListTagsForResourceRequest.class));
+    }
+
+    @Test
+    public void handleRequest_HandlesListTagsServiceException() {
+        final ReadHandler handler = new ReadHandler(testExecutionArnBuilder);
+
+        String id = "testId";
+        when(proxyClient.client().describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class)))
+            .thenReturn(DescribeRescoreExecutionPlanResponse.builder()
+                .id(id)
+                .status(RescoreExecutionPlanStatus.ACTIVE.toString())
+                .build());
+        when(proxyClient.client().listTagsForResource(any(ListTagsForResourceRequest.class)))
+            .thenThrow(AwsServiceException.builder().build());
+
+        final ResourceModel model = ResourceModel
+            .builder()
+            .id(id)
+            .build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(model)
+            .build();
+
+        assertThrows(CfnGeneralServiceException.class, () -> {
+            handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+        });
+
+        verify(proxyClient.client(), times(1)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+        verify(proxyClient.client(), times(1)).listTagsForResource(any(ListTagsForResourceRequest.class));
+    }
+
+    @Test
+    public void handleRequest_FailsWhileTheCircuitBreakerIsOpen() {
+        final ReadHandler handler = new ReadHandler(testExecutionArnBuilder);
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(ResourceModel.builder().id("id").build())
+            .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleInstrumentedRequest(
+            proxy, request, null, proxyClient, openCircuitBreaker(), logger);
+
+        // Read and list may not return IN_PROGRESS
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.FAILED);
+        assertThat(response.getErrorCode()).isEqualTo(HandlerErrorCode.ServiceInternalError);
+        verifyNoInteractions(sdkClient);
     }
 }
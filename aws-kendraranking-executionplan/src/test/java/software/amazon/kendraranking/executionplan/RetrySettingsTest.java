@@ -0,0 +1,38 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.retry.RetryMode;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.core.retry.backoff.FullJitterBackoffStrategy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RetrySettingsTest {
+
+  @Test
+  public void testDefaultsToAdaptiveModeWithFullJitter() {
+    RetryPolicy retryPolicy = RetrySettings.defaults().toRetryPolicy();
+
+    assertThat(retryPolicy.retryMode()).isEqualTo(RetryMode.ADAPTIVE);
+    assertThat(retryPolicy.numRetries()).isEqualTo(RetrySettings.DEFAULT_MAX_RETRIES);
+    assertThat(retryPolicy.backoffStrategy()).isInstanceOf(FullJitterBackoffStrategy.class);
+    assertThat(retryPolicy.throttlingBackoffStrategy()).isInstanceOf(FullJitterBackoffStrategy.class);
+  }
+
+  @Test
+  public void testToRetryPolicyUsesSettings() {
+    RetrySettings retrySettings = new RetrySettings(RetryMode.STANDARD, 2, Duration.ofMillis(10),
+        Duration.ofMillis(50), Duration.ofSeconds(1));
+
+    RetryPolicy retryPolicy = retrySettings.toRetryPolicy();
+
+    assertThat(retryPolicy.retryMode()).isEqualTo(RetryMode.STANDARD);
+    assertThat(retryPolicy.numRetries()).isEqualTo(2);
+    assertThat(retryPolicy.throttlingBackoffStrategy()).isEqualTo(FullJitterBackoffStrategy.builder()
+        .baseDelay(Duration.ofMillis(50))
+        .maxBackoffTime(Duration.ofSeconds(1))
+        .build());
+  }
+}
@@ -0,0 +1,93 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.services.kendraranking.KendraRankingClient;
+import software.amazon.awssdk.services.kendraranking.model.DescribeRescoreExecutionPlanRequest;
+import software.amazon.awssdk.services.kendraranking.model.DescribeRescoreExecutionPlanResponse;
+import software.amazon.awssdk.services.kendraranking.model.KendraRankingException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+public class SnapStartPrimingTest {
+
+  private static final String REGION = "us-west-2";
+
+  private final KendraRankingClient client = mock(KendraRankingClient.class);
+
+  private final SnapStartPriming priming =
+      new SnapStartPriming(REGION, region -> ClientBuilder.getClient(region, (name, endpoint) -> client));
+
+  @BeforeEach
+  @AfterEach
+  public void reset() {
+    ClientBuilder.clearCachedClients();
+    CircuitBreaker.resetAll();
+    DescribeCache.shared().clear();
+  }
+
+  @Test
+  public void testPrimingLeavesOnlyTheWarmClientBehind() throws Exception {
+    final CircuitBreaker circuitBreaker = CircuitBreaker.forRegion(REGION);
+    DescribeCache.shared().put("account", "us-west-2", DescribeRescoreExecutionPlanResponse.builder().id("id").build());
+    when(client.describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class)))
+        .thenThrow(KendraRankingException.builder().statusCode(403).build());
+
+    priming.beforeCheckpoint(null);
+
+    assertThat(ClientBuilder.cachedClientCount()).isEqualTo(1);
+    assertThat(DescribeCache.shared().size()).isEqualTo(0);
+    assertThat(CircuitBreaker.forRegion(REGION)).isNotSameAs(circuitBreaker);
+  }
+
+  @Test
+  public void testPrimingMakesARequestThatLeavesNoConnectionBehind() throws Exception {
+    when(client.describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class)))
+        .thenThrow(KendraRankingException.builder().statusCode(403).build());
+
+    priming.prime();
+
+    final ArgumentCaptor<DescribeRescoreExecutionPlanRequest> captor =
+        ArgumentCaptor.forClass(DescribeRescoreExecutionPlanRequest.class);
+    verify(client, times(1)).describeRescoreExecutionPlan(captor.capture());
+    assertThat(captor.getValue().overrideConfiguration()).hasValueSatisfying(configuration -> {
+      assertThat(configuration.headers()).containsEntry("Connection", Collections.singletonList("close"));
+      assertThat(configuration.credentialsProvider()).containsInstanceOf(StaticCredentialsProvider.class);
+      assertThat(configuration.apiCallTimeout()).contains(SnapStartPriming.PRIMING_TIMEOUT);
+    });
+  }
+
+  @Test
+  public void testRestoreDropsTimeBasedStateAndKeepsTheClient() throws Exception {
+    priming.beforeCheckpoint(null);
+    final KendraRankingClient cached = ClientBuilder.getClient(REGION, (name, endpoint) -> mock(KendraRankingClient.class));
+    final CircuitBreaker circuitBreaker = CircuitBreaker.forRegion(REGION);
+    DescribeCache.shared().put("account", "us-west-2", DescribeRescoreExecutionPlanResponse.builder().id("id").build());
+
+    priming.afterRestore(null);
+
+    assertThat(cached).isSameAs(client);
+    assertThat(ClientBuilder.getClient(REGION, (name, endpoint) -> mock(KendraRankingClient.class))).isSameAs(client);
+    assertThat(DescribeCache.shared().size()).isEqualTo(0);
+    assertThat(CircuitBreaker.forRegion(REGION)).isNotSameAs(circuitBreaker);
+  }
+
+  @Test
+  public void testPrimingWithoutARegionBuildsNoClient() throws Exception {
+    new SnapStartPriming(null, region -> ClientBuilder.getClient(region, (name, endpoint) -> client)).beforeCheckpoint(null);
+
+    assertThat(ClientBuilder.cachedClientCount()).isEqualTo(0);
+    verifyNoInteractions(client);
+  }
+}
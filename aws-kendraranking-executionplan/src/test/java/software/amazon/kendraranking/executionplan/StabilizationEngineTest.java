@@ -0,0 +1,242 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicReference;
+
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
+import software.amazon.awssdk.services.kendraranking.KendraRankingClient;
+import software.amazon.awssdk.services.kendraranking.model.DescribeRescoreExecutionPlanRequest;
+import software.amazon.awssdk.services.kendraranking.model.DescribeRescoreExecutionPlanResponse;
+import software.amazon.awssdk.services.kendraranking.model.RescoreExecutionPlanStatus;
+import software.amazon.awssdk.services.kendraranking.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.kendraranking.model.ThrottlingException;
+import software.amazon.cloudformation.exceptions.CfnNotFoundException;
+import software.amazon.cloudformation.exceptions.CfnNotStabilizedException;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.ProxyClient;
+import software.amazon.cloudformation.proxy.delay.Constant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class StabilizationEngineTest extends AbstractTestBase {
+
+    @Mock
+    private AmazonWebServicesClientProxy proxy;
+
+    @Mock
+    private ProxyClient<KendraRankingClient> proxyClient;
+
+    @Mock
+    KendraRankingClient sdkClient;
+
+    private final StabilizationSchedule schedule = StabilizationSchedule.uniform(
+        Constant.of().timeout(Duration.ofMinutes(1)).delay(Duration.ofMillis(1L)).build());
+
+    private final Clock clock = Clock.fixed(Instant.ofEpochMilli(1000L), ZoneOffset.UTC);
+
+    private final ResourceModel model = ResourceModel.builder().id("id").build();
+
+    @BeforeEach
+    public void setup() {
+        proxy = new AmazonWebServicesClientProxy(logger, MOCK_CREDENTIALS, () -> Duration.ofSeconds(600).toMillis());
+        sdkClient = mock(KendraRankingClient.class);
+        proxyClient = MOCK_PROXY(proxy, sdkClient);
+    }
+
+    @AfterEach
+    public void tear_down() {
+        verifyNoMoreInteractions(sdkClient);
+    }
+
+    @Test
+    public void isStabilized_ActiveTargetTracksPollsAndLastDescribe() {
+        final StabilizationEngine engine = new StabilizationEngine(schedule, StabilizationEngine.Target.ACTIVE, InProcessWait.disabled(), clock);
+        final DescribeRescoreExecutionPlanResponse updating = describeResponse(RescoreExecutionPlanStatus.UPDATING);
+        final DescribeRescoreExecutionPlanResponse active = describeResponse(RescoreExecutionPlanStatus.ACTIVE);
+        when(proxyClient.client().describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class)))
+            .thenReturn(updating)
+            .thenReturn(active);
+
+        final CallbackContext callbackContext = new CallbackContext();
+        final AtomicReference<DescribeRescoreExecutionPlanResponse> lastDescribeResponse = new AtomicReference<>();
+
+        assertThat(engine.isStabilized(proxyClient, model, callbackContext, lastDescribeResponse, logger)).isFalse();
+        assertThat(callbackContext.getLastObservedStatus()).isEqualTo(RescoreExecutionPlanStatus.UPDATING.toString());
+        assertThat(engine.isStabilized(proxyClient, model, callbackContext, lastDescribeResponse, logger)).isTrue();
+        assertThat(lastDescribeResponse.get()).isSameAs(active);
+        assertThat(callbackContext.getStabilizationPolls()).isEqualTo(2);
+        assertThat(callbackContext.getStabilizationThrottles()).isEqualTo(0);
+        assertThat(callbackContext.getStabilizationStartedAt()).isEqualTo(1000L);
+
+        verify(proxyClient.client(), times(2)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+    }
+
+    @Test
+    public void isStabilized_ThrottledPollIsNotStabilized() {
+        final StabilizationEngine engine = new StabilizationEngine(schedule, StabilizationEngine.Target.ACTIVE, InProcessWait.disabled(), clock);
+        when(proxyClient.client().describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class)))
+            .thenThrow(ThrottlingException.builder().build());
+
+        final CallbackContext callbackContext = new CallbackContext();
+        final AtomicReference<DescribeRescoreExecutionPlanResponse> lastDescribeResponse = new AtomicReference<>();
+
+        assertThat(engine.isStabilized(proxyClient, model, callbackContext, lastDescribeResponse, logger)).isFalse();
+        assertThat(lastDescribeResponse.get()).isNull();
+        assertThat(callbackContext.getStabilizationPolls()).isEqualTo(1);
+        assertThat(callbackContext.getStabilizationThrottles()).isEqualTo(1);
+
+        verify(proxyClient.client(), times(1)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+    }
+
+    @Test
+    public void isStabilized_FailedPlanIsNotStabilized() {
+        final StabilizationEngine engine = new StabilizationEngine(schedule, StabilizationEngine.Target.ACTIVE, InProcessWait.disabled(), clock);
+        when(proxyClient.client().describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class)))
+            .thenReturn(describeResponse(RescoreExecutionPlanStatus.FAILED));
+
+        assertThrows(CfnNotStabilizedException.class, () ->
+            engine.isStabilized(proxyClient, model, new CallbackContext(), new AtomicReference<>(), logger));
+
+        verify(proxyClient.client(), times(1)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+    }
+
+    @Test
+    public void isStabilized_ActiveTargetFailsWhenPlanIsGone() {
+        final StabilizationEngine engine = new StabilizationEngine(schedule, StabilizationEngine.Target.ACTIVE, InProcessWait.disabled(), clock);
+        when(proxyClient.client().describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class)))
+            .thenThrow(ResourceNotFoundException.builder().build());
+
+        assertThrows(CfnNotFoundException.class, () ->
+            engine.isStabilized(proxyClient, model, new CallbackContext(), new AtomicReference<>(), logger));
+
+        verify(proxyClient.client(), times(1)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+    }
+
+    @Test
+    public void isStabilized_DeletedTarget() {
+        final StabilizationEngine engine = new StabilizationEngine(schedule, StabilizationEngine.Target.DELETED, InProcessWait.disabled(), clock);
+        when(proxyClient.client().describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class)))
+            .thenReturn(describeResponse(RescoreExecutionPlanStatus.DELETING))
+            .thenThrow(ResourceNotFoundException.builder().build());
+
+        final CallbackContext callbackContext = new CallbackContext();
+
+        assertThat(engine.isStabilized(proxyClient, model, callbackContext, new AtomicReference<>(), logger)).isFalse();
+        assertThat(engine.isStabilized(proxyClient, model, callbackContext, new AtomicReference<>(), logger)).isTrue();
+        assertThat(callbackContext.getStabilizationPolls()).isEqualTo(2);
+
+        verify(proxyClient.client(), times(2)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+    }
+
+    @Test
+    public void isStabilized_DeletedTargetKeepsPollingAFailedPlan() {
+        final StabilizationEngine engine = new StabilizationEngine(schedule, StabilizationEngine.Target.DELETED, InProcessWait.disabled(), clock);
+        when(proxyClient.client().describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class)))
+            .thenReturn(describeResponse(RescoreExecutionPlanStatus.FAILED))
+            .thenThrow(ResourceNotFoundException.builder().build());
+
+        final CallbackContext callbackContext = new CallbackContext();
+
+        assertThat(engine.isStabilized(proxyClient, model, callbackContext, new AtomicReference<>(), logger)).isFalse();
+        assertThat(engine.isStabilized(proxyClient, model, callbackContext, new AtomicReference<>(), logger)).isTrue();
+    }
+
+    @Test
+    public void isStabilized_PollsInProcessWithinBudget() {
+        final MutableClock mutableClock = new MutableClock();
+        final InProcessWait inProcessWait = new InProcessWait(Duration.ofSeconds(30), Duration.ofSeconds(5),
+            duration -> mutableClock.advance(duration));
+        final StabilizationEngine engine = new StabilizationEngine(schedule, StabilizationEngine.Target.ACTIVE, inProcessWait, mutableClock);
+        when(proxyClient.client().describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class)))
+            .thenReturn(describeResponse(RescoreExecutionPlanStatus.UPDATING))
+            .thenReturn(describeResponse(RescoreExecutionPlanStatus.UPDATING))
+            .thenReturn(describeResponse(RescoreExecutionPlanStatus.ACTIVE));
+
+        final CallbackContext callbackContext = new CallbackContext();
+
+        assertThat(engine.isStabilized(proxyClient, model, callbackContext, new AtomicReference<>(), logger)).isTrue();
+        assertThat(callbackContext.getStabilizationPolls()).isEqualTo(3);
+        assertThat(mutableClock.millis()).isEqualTo(Duration.ofSeconds(10).toMillis());
+
+        verify(proxyClient.client(), times(3)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+    }
+
+    @Test
+    public void isStabilized_HandsBackOnceBudgetIsUsedUp() {
+        final MutableClock mutableClock = new MutableClock();
+        final InProcessWait inProcessWait = new InProcessWait(Duration.ofSeconds(12), Duration.ofSeconds(5),
+            duration -> mutableClock.advance(duration));
+        final StabilizationEngine engine = new StabilizationEngine(schedule, StabilizationEngine.Target.ACTIVE, inProcessWait, mutableClock);
+        when(proxyClient.client().describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class)))
+            .thenReturn(describeResponse(RescoreExecutionPlanStatus.UPDATING));
+
+        final CallbackContext callbackContext = new CallbackContext();
+
+        // Polls at 0s, 5s and 10s, a fourth one at 15s wouldn't fit the 12s budget
+        assertThat(engine.isStabilized(proxyClient, model, callbackContext, new AtomicReference<>(), logger)).isFalse();
+        assertThat(callbackContext.getStabilizationPolls()).isEqualTo(3);
+
+        verify(proxyClient.client(), times(3)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+    }
+
+    @Test
+    public void isStabilized_InProcessPollsGiveUpAfterThePollTimeout() {
+        final MutableClock mutableClock = new MutableClock();
+        final InProcessWait inProcessWait = new InProcessWait(Duration.ofSeconds(30), Duration.ofSeconds(5),
+            duration -> mutableClock.advance(duration));
+        final StabilizationEngine engine = new StabilizationEngine(schedule, StabilizationEngine.Target.ACTIVE, inProcessWait, mutableClock);
+        when(proxyClient.client().describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class)))
+            .thenReturn(describeResponse(RescoreExecutionPlanStatus.ACTIVE));
+
+        assertThat(engine.isStabilized(proxyClient, model, new CallbackContext(), new AtomicReference<>(), logger)).isTrue();
+
+        ArgumentCaptor<DescribeRescoreExecutionPlanRequest> captor = ArgumentCaptor.forClass(DescribeRescoreExecutionPlanRequest.class);
+        verify(proxyClient.client(), times(1)).describeRescoreExecutionPlan(captor.capture());
+        assertThat(captor.getValue().overrideConfiguration().get().apiCallTimeout()).contains(InProcessWait.POLL_TIMEOUT);
+    }
+
+    @Test
+    public void isStabilized_TimedOutPollIsNotStabilized() {
+        final MutableClock mutableClock = new MutableClock();
+        final InProcessWait inProcessWait = new InProcessWait(Duration.ofSeconds(12), Duration.ofSeconds(5),
+            duration -> mutableClock.advance(duration));
+        final StabilizationEngine engine = new StabilizationEngine(schedule, StabilizationEngine.Target.ACTIVE, inProcessWait, mutableClock);
+        when(proxyClient.client().describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class)))
+            .thenThrow(ApiCallTimeoutException.builder().message("poll timed out").build())
+            .thenReturn(describeResponse(RescoreExecutionPlanStatus.ACTIVE));
+
+        final CallbackContext callbackContext = new CallbackContext();
+
+        // The poll that ran out of time is followed by another one instead of failing the operation
+        assertThat(engine.isStabilized(proxyClient, model, callbackContext, new AtomicReference<>(), logger)).isTrue();
+        assertThat(callbackContext.getStabilizationPolls()).isEqualTo(2);
+        assertThat(callbackContext.getStabilizationThrottles()).isEqualTo(0);
+
+        verify(proxyClient.client(), times(2)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+    }
+
+    private static DescribeRescoreExecutionPlanResponse describeResponse(RescoreExecutionPlanStatus status) {
+        return DescribeRescoreExecutionPlanResponse.builder()
+            .id("id")
+            .status(status.toString())
+            .build();
+    }
+}
@@ -0,0 +1,39 @@
+package software.amazon.kendraranking.executionplan;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StartupProfileTest {
+
+  @Test
+  public void testDisabledProfileRecordsNothing() {
+    final StartupProfile profile = new StartupProfile(false);
+
+    profile.firstInvocation();
+    profile.record(StartupProfile.Phase.SCHEMA, System.nanoTime());
+
+    assertThat(profile.isEnabled()).isFalse();
+    assertThat(profile.report()).isNull();
+  }
+
+  @Test
+  public void testEveryPhaseIsReportedOnce() {
+    final StartupProfile profile = new StartupProfile(true);
+
+    profile.firstInvocation();
+    profile.record(StartupProfile.Phase.SCHEMA, System.nanoTime() - 5_000_000L);
+    // Only the first client of the container counts, later ones are warm
+    profile.record(StartupProfile.Phase.CLIENT, System.nanoTime() - 7_000_000L);
+    profile.record(StartupProfile.Phase.CLIENT, System.nanoTime() - 100_000_000L);
+
+    final String report = profile.report();
+    assertThat(report).startsWith(ResourceModel.TYPE_NAME + " startup profile:")
+        .containsPattern("INITMillis=\\d+")
+        .containsPattern("SCHEMAMillis=([5-9]|[1-9]\\d+)\\b")
+        .containsPattern("CLIENTMillis=([7-9]|[1-9]\\d)\\b")
+        .contains("FIRST_CALLMillis=-")
+        .containsPattern("loadedClasses=[1-9]\\d*");
+    assertThat(profile.report()).isNull();
+  }
+}
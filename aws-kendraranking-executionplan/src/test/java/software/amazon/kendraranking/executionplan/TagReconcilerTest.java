@@ -0,0 +1,153 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import software.amazon.awssdk.services.kendraranking.KendraRankingClient;
+import software.amazon.awssdk.services.kendraranking.model.TagResourceRequest;
+import software.amazon.awssdk.services.kendraranking.model.TagResourceResponse;
+import software.amazon.awssdk.services.kendraranking.model.UntagResourceRequest;
+import software.amazon.awssdk.services.kendraranking.model.UntagResourceResponse;
+import software.amazon.awssdk.services.kendraranking.model.ValidationException;
+import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.ProxyClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class TagReconcilerTest extends AbstractTestBase {
+
+    private static final String ARN = "arn:aws:kendra-ranking:us-west-2:0123456789:rescore-execution-plan/id";
+
+    @Mock
+    private AmazonWebServicesClientProxy proxy;
+
+    @Mock
+    private ProxyClient<KendraRankingClient> proxyClient;
+
+    @Mock
+    KendraRankingClient sdkClient;
+
+    @BeforeEach
+    public void setup() {
+        proxy = new AmazonWebServicesClientProxy(logger, MOCK_CREDENTIALS, () -> Duration.ofSeconds(600).toMillis());
+        sdkClient = mock(KendraRankingClient.class);
+        proxyClient = MOCK_PROXY(proxy, sdkClient);
+    }
+
+    @AfterEach
+    public void tear_down() {
+        verifyNoMoreInteractions(sdkClient);
+    }
+
+    @Test
+    public void diff_IndexesTagsByKey() {
+        final TagReconciler.TagDiff diff = TagReconciler.diff(
+            Arrays.asList(tag("same", "1"), tag("changed", "new"), tag("added", "1")),
+            Arrays.asList(tag("same", "1"), tag("changed", "old"), tag("removed", "1")));
+
+        assertThat(diff.getAdded()).containsExactly(tag("added", "1"));
+        assertThat(diff.getUpdated()).containsExactly(tag("changed", "new"));
+        assertThat(diff.getRemovedKeys()).containsExactly("removed");
+        assertThat(diff.upserts()).containsExactly(tag("added", "1"), tag("changed", "new"));
+    }
+
+    @Test
+    public void diff_NullTags() {
+        assertThat(TagReconciler.diff(null, null).isEmpty()).isTrue();
+        assertThat(TagReconciler.diff(null, Arrays.asList(tag("key", "value"))).getRemovedKeys()).containsExactly("key");
+        assertThat(TagReconciler.diff(Arrays.asList(tag("key", "value")), null).getAdded()).containsExactly(tag("key", "value"));
+    }
+
+    @Test
+    public void reconcile_ValueChangeOnlyTags() {
+        when(proxyClient.client().tagResource(any(TagResourceRequest.class)))
+            .thenReturn(TagResourceResponse.builder().build());
+
+        new TagReconciler().reconcile(
+            TagReconciler.diff(Arrays.asList(tag("key", "new")), Arrays.asList(tag("key", "old"))), ARN, proxyClient);
+
+        ArgumentCaptor<TagResourceRequest> captor = ArgumentCaptor.forClass(TagResourceRequest.class);
+        verify(proxyClient.client(), times(1)).tagResource(captor.capture());
+        assertThat(captor.getValue().resourceARN()).isEqualTo(ARN);
+        assertThat(captor.getValue().tags()).containsExactly(
+            software.amazon.awssdk.services.kendraranking.model.Tag.builder().key("key").value("new").build());
+        verify(proxyClient.client(), never()).untagResource(any(UntagResourceRequest.class));
+    }
+
+    @Test
+    public void reconcile_UntagsBeforeTagging() {
+        when(proxyClient.client().tagResource(any(TagResourceRequest.class)))
+            .thenReturn(TagResourceResponse.builder().build());
+        when(proxyClient.client().untagResource(any(UntagResourceRequest.class)))
+            .thenReturn(UntagResourceResponse.builder().build());
+
+        new TagReconciler().reconcile(TagReconciler.diff(tags("added", 200), tags("removed", 200)), ARN, proxyClient);
+
+        final InOrder inOrder = inOrder(proxyClient.client());
+        ArgumentCaptor<UntagResourceRequest> untagCaptor = ArgumentCaptor.forClass(UntagResourceRequest.class);
+        inOrder.verify(proxyClient.client(), times(1)).untagResource(untagCaptor.capture());
+        ArgumentCaptor<TagResourceRequest> tagCaptor = ArgumentCaptor.forClass(TagResourceRequest.class);
+        inOrder.verify(proxyClient.client(), times(1)).tagResource(tagCaptor.capture());
+        assertThat(untagCaptor.getValue().tagKeys()).hasSize(200);
+        assertThat(tagCaptor.getValue().tags()).hasSize(200);
+    }
+
+    @Test
+    public void reconcile_FailedUntagSkipsTagging() {
+        when(proxyClient.client().untagResource(any(UntagResourceRequest.class)))
+            .thenThrow(ValidationException.builder().build());
+
+        assertThrows(CfnInvalidRequestException.class, () -> new TagReconciler().reconcile(
+            TagReconciler.diff(Arrays.asList(tag("added", "1")), Arrays.asList(tag("removed", "1"))), ARN, proxyClient));
+
+        verify(proxyClient.client(), times(1)).untagResource(any(UntagResourceRequest.class));
+        verify(proxyClient.client(), never()).tagResource(any(TagResourceRequest.class));
+    }
+
+    @Test
+    public void reconcile_FailedTagAfterUntag() {
+        when(proxyClient.client().tagResource(any(TagResourceRequest.class)))
+            .thenThrow(ValidationException.builder().build());
+        when(proxyClient.client().untagResource(any(UntagResourceRequest.class)))
+            .thenReturn(UntagResourceResponse.builder().build());
+
+        assertThrows(CfnInvalidRequestException.class, () -> new TagReconciler().reconcile(
+            TagReconciler.diff(Arrays.asList(tag("added", "1")), Arrays.asList(tag("removed", "1"))), ARN, proxyClient));
+
+        verify(proxyClient.client(), times(1)).tagResource(any(TagResourceRequest.class));
+        verify(proxyClient.client(), times(1)).untagResource(any(UntagResourceRequest.class));
+    }
+
+    private static Tag tag(String key, String value) {
+        return Tag.builder().key(key).value(value).build();
+    }
+
+    private static List<Tag> tags(String prefix, int count) {
+        return IntStream.range(0, count)
+            .mapToObj(i -> tag(prefix + i, "value" + i))
+            .collect(Collectors.toCollection(ArrayList::new));
+    }
+}
@@ -6,7 +6,11 @@ public class TestExecutionArnBuilder implements ExecutionPlanArnBuilder {
 
   @Override
   public String build(ResourceHandlerRequest<ResourceModel> request) {
-    return String.format("arn:aws:kendra-ranking:us-west-2:0123456789:rescore-execution-plan/%s", request.getDesiredResourceState().getId());
+    return build(request, request.getDesiredResourceState().getId());
   }
-}
 
+  @Override
+  public String build(ResourceHandlerRequest<ResourceModel> request, String executionPlanId) {
+    return String.format("arn:aws:kendra-ranking:us-west-2:0123456789:rescore-execution-plan/%s", executionPlanId);
+  }
+}
@@ -0,0 +1,148 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import software.amazon.awssdk.services.kendraranking.model.DescribeRescoreExecutionPlanResponse;
+import software.amazon.awssdk.services.kendraranking.model.ListRescoreExecutionPlansResponse;
+import software.amazon.awssdk.services.kendraranking.model.ListTagsForResourceResponse;
+import software.amazon.awssdk.services.kendraranking.model.RescoreExecutionPlanSummary;
+import software.amazon.awssdk.services.kendraranking.model.UpdateRescoreExecutionPlanRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TranslatorTest {
+
+  private static final ResourceModel PREVIOUS = model("name", "description", 2);
+
+  // Previous model, desired model, then the name, description and capacity expected on the wire (null when left out)
+  static Stream<Arguments> updateRequests() {
+    return Stream.of(
+        Arguments.of("no change", PREVIOUS, model("name", "description", 2), null, null, null),
+        Arguments.of("tags only", PREVIOUS, tagged(model("name", "description", 2)), null, null, null),
+        Arguments.of("name", PREVIOUS, model("new-name", "description", 2), "new-name", null, null),
+        Arguments.of("description", PREVIOUS, model("name", "new-description", 2), null, "new-description", null),
+        Arguments.of("description removed", PREVIOUS, model("name", null, 2), null, "", null),
+        Arguments.of("capacity", PREVIOUS, model("name", "description", 3), null, null, 3),
+        Arguments.of("capacity removed", PREVIOUS, model("name", "description", null), null, null, 0),
+        Arguments.of("unset capacity stays unset", model("name", "description", null),
+            model("name", "new-description", null), null, "new-description", null),
+        Arguments.of("everything", PREVIOUS, model("new-name", "new-description", 3), "new-name", "new-description", 3),
+        Arguments.of("unknown previous model", null, model("name", null, null), "name", "", 0));
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("updateRequests")
+  public void testTranslateToUpdateRequestSendsOnlyChangedFields(String change, ResourceModel previousModel,
+      ResourceModel desiredModel, String name, String description, Integer capacityUnits) throws Exception {
+    UpdateRescoreExecutionPlanRequest request = Translator.translateToUpdateRequest(desiredModel, previousModel);
+
+    assertThat(request.id()).isEqualTo("id");
+    assertThat(request.name()).isEqualTo(name);
+    assertThat(request.description()).isEqualTo(description);
+    if (capacityUnits == null) {
+      assertThat(request.capacityUnits()).isNull();
+    } else {
+      assertThat(request.capacityUnits().rescoreCapacityUnits()).isEqualTo(capacityUnits);
+    }
+  }
+
+  @ParameterizedTest(name = "{0} summaries")
+  @ValueSource(ints = {0, 1, 100})
+  public void testTranslateFromListResponseMatchesTheStreamPipeline(int size) {
+    final List<RescoreExecutionPlanSummary> summaries = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      summaries.add(RescoreExecutionPlanSummary.builder().id("id" + i).name("plan" + i).build());
+    }
+
+    final List<ResourceModel> models = Translator.translateFromListResponse(
+        ListRescoreExecutionPlansResponse.builder().summaryItems(summaries).build());
+
+    assertThat(models).isEqualTo(summaries.stream()
+        .map(summary -> ResourceModel.builder().id(summary.id()).name(summary.name()).build())
+        .collect(Collectors.toList()));
+  }
+
+  @ParameterizedTest(name = "{0} tags")
+  @ValueSource(ints = {0, 1, 10, 200})
+  public void testTagTranslationsMatchTheStreamPipelines(int size) {
+    final List<Tag> modelTags = modelTags(size);
+    final List<software.amazon.awssdk.services.kendraranking.model.Tag> sdkTags = modelTags.stream()
+        .map(tag -> software.amazon.awssdk.services.kendraranking.model.Tag.builder()
+            .key(tag.getKey()).value(tag.getValue()).build())
+        .collect(Collectors.toList());
+    final Map<String, String> tagMap = new LinkedHashMap<>();
+    modelTags.forEach(tag -> tagMap.put(tag.getKey(), tag.getValue()));
+    final ResourceModel model = model("name", "description", 2);
+    model.setTags(size == 0 ? null : modelTags);
+
+    assertThat(Translator.translateToTagResourceRequest(modelTags, "arn").tags()).isEqualTo(sdkTags);
+    assertThat(Translator.transformTags(tagMap)).isEqualTo(modelTags);
+    assertThat(Translator.translateToCreateRequest(model, "token").tags()).isEqualTo(sdkTags);
+    assertThat(Translator.translateFromReadResponse(DescribeRescoreExecutionPlanResponse.builder().id("id").build(),
+        ListTagsForResourceResponse.builder().tags(sdkTags).build(), "arn").getTags())
+        .isEqualTo(size == 0 ? null : modelTags);
+  }
+
+  @Test
+  public void testTranslateFromReadResponseCopiesKnownTags() {
+    final List<Tag> tags = new ArrayList<>(modelTags(2));
+    final DescribeRescoreExecutionPlanResponse response = DescribeRescoreExecutionPlanResponse.builder().id("id").build();
+
+    final ResourceModel model = Translator.translateFromReadResponse(response, tags, "arn");
+    tags.clear();
+
+    assertThat(model.getTags()).isEqualTo(modelTags(2));
+    assertThat(Translator.translateFromReadResponse(response, Collections.emptyList(), "arn").getTags()).isNull();
+  }
+
+  @Test
+  public void testCapacityUnitsNullEquivalents() {
+    final software.amazon.awssdk.services.kendraranking.model.CapacityUnitsConfiguration sdkDefault =
+        Translator.translateToCapacityUnitsConfiguration(null);
+
+    // Immutable, so one instance serves every request
+    assertThat(Translator.translateToCapacityUnitsConfiguration(null)).isSameAs(sdkDefault);
+    assertThat(sdkDefault).isEqualTo(software.amazon.awssdk.services.kendraranking.model.CapacityUnitsConfiguration
+        .builder().rescoreCapacityUnits(0).build());
+
+    // Mutable, so every model gets its own
+    final CapacityUnitsConfiguration modelDefault = Translator.translateFromCapacityUnitsConfiguration(null);
+    assertThat(modelDefault.getRescoreCapacityUnits()).isEqualTo(0);
+    assertThat(Translator.translateFromCapacityUnitsConfiguration(null)).isNotSameAs(modelDefault);
+  }
+
+  private static List<Tag> modelTags(int size) {
+    final List<Tag> tags = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      tags.add(Tag.builder().key("key" + i).value("value" + i).build());
+    }
+    return tags;
+  }
+
+  private static ResourceModel model(String name, String description, Integer capacityUnits) {
+    return ResourceModel.builder()
+        .id("id")
+        .name(name)
+        .description(description)
+        .capacityUnits(capacityUnits == null ? null
+            : CapacityUnitsConfiguration.builder().rescoreCapacityUnits(capacityUnits).build())
+        .build();
+  }
+
+  private static ResourceModel tagged(ResourceModel model) {
+    model.setTags(Arrays.asList(Tag.builder().key("key").value("value").build()));
+    return model;
+  }
+}
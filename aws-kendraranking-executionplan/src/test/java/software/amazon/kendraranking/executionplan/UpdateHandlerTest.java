@@ -45,6 +45,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -62,6 +63,9 @@ public class UpdateHandlerTest extends AbstractTestBase {
     @Mock
     KendraRankingClient sdkClient;
 
+    private static final String ACCOUNT_ID = "123456789012";
+    private static final String REGION = "us-west-2";
+
     TestExecutionArnBuilder testExecutionArnBuilder = new TestExecutionArnBuilder();
 
     Delay testDelay = Constant.of().timeout(Duration.ofMinutes(1)).delay(Duration.ofMillis(1L)).build();
@@ -102,11 +106,6 @@ public class UpdateHandlerTest extends AbstractTestBase {
                 .name(name)
                 .status(RescoreExecutionPlanStatus.ACTIVE.toString())
                 .build());
-        when(proxyClient.client().listTagsForResource(any(ListTagsForResourceRequest.class)))
-            .thenReturn(ListTagsForResourceResponse
-                .builder()
-                .tags((java.util.Collection<Tag>) null)
-                .build());
         final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
 
         assertThat(response).isNotNull();
@@ -126,8 +125,8 @@ public class UpdateHandlerTest extends AbstractTestBase {
         assertThat(response.getErrorCode()).isNull();
 
         verify(proxyClient.client(), times(1)).updateRescoreExecutionPlan(any(UpdateRescoreExecutionPlanRequest.class));
-        verify(proxyClient.client(), times(3)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
-        verify(proxyClient.client(), times(1)).listTagsForResource(any(ListTagsForResourceRequest.class));
+        verify(proxyClient.client(), times(2)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+        verify(proxyClient.client(), never()).listTagsForResource(any(ListTagsForResourceRequest.class));
         verify(sdkClient, atLeastOnce()).serviceName();
     }
 
@@ -168,8 +167,6 @@ public class UpdateHandlerTest extends AbstractTestBase {
                     .name(name)
                     .status(RescoreExecutionPlanStatus.ACTIVE.toString())
                     .build());
-        when(proxyClient.client().listTagsForResource(any(ListTagsForResourceRequest.class)))
-            .thenReturn(ListTagsForResourceResponse.builder().build());
 
         final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
 
@@ -190,8 +187,8 @@ public class UpdateHandlerTest extends AbstractTestBase {
         assertThat(response.getErrorCode()).isNull();
 
         verify(proxyClient.client(), times(1)).updateRescoreExecutionPlan(any(UpdateRescoreExecutionPlanRequest.class));
-        verify(proxyClient.client(), times(4)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
-        verify(proxyClient.client(), times(1)).listTagsForResource(any(ListTagsForResourceRequest.class));
+        verify(proxyClient.client(), times(3)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+        verify(proxyClient.client(), never()).listTagsForResource(any(ListTagsForResourceRequest.class));
         verify(sdkClient, atLeastOnce()).serviceName();
     }
 
@@ -253,12 +250,6 @@ public class UpdateHandlerTest extends AbstractTestBase {
                 .status(RescoreExecutionPlanStatus.ACTIVE.toString())
                 .build());
 
-        when(proxyClient.client().listTagsForResource(any(ListTagsForResourceRequest.class)))
-            .thenReturn(ListTagsForResourceResponse
-                .builder()
-                .tags(Arrays.asList(Tag
-                    .builder().key(key).value(value).build()))
-                .build());
         when(proxyClient.client().tagResource(any(TagResourceRequest.class)))
             .thenReturn(TagResourceResponse.builder().build());
 
@@ -281,8 +272,8 @@ public class UpdateHandlerTest extends AbstractTestBase {
         assertThat(response.getErrorCode()).isNull();
 
         verify(proxyClient.client(), times(1)).updateRescoreExecutionPlan(any(UpdateRescoreExecutionPlanRequest.class));
-        verify(proxyClient.client(), times(3)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
-        verify(proxyClient.client(), times(1)).listTagsForResource(any(ListTagsForResourceRequest.class));
+        verify(proxyClient.client(), times(2)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+        verify(proxyClient.client(), never()).listTagsForResource(any(ListTagsForResourceRequest.class));
         verify(proxyClient.client(), times(1)).tagResource(any(TagResourceRequest.class));
         verify(sdkClient, atLeastOnce()).serviceName();
     }
@@ -320,8 +311,6 @@ public class UpdateHandlerTest extends AbstractTestBase {
                 .status(RescoreExecutionPlanStatus.ACTIVE.toString())
                 .build());
 
-        when(proxyClient.client().listTagsForResource(any(ListTagsForResourceRequest.class)))
-            .thenReturn(ListTagsForResourceResponse.builder().build());
         when(proxyClient.client().untagResource(any(UntagResourceRequest.class)))
             .thenReturn(UntagResourceResponse.builder().build());
 
@@ -343,8 +332,8 @@ public class UpdateHandlerTest extends AbstractTestBase {
         assertThat(response.getErrorCode()).isNull();
 
         verify(proxyClient.client(), times(1)).updateRescoreExecutionPlan(any(UpdateRescoreExecutionPlanRequest.class));
-        verify(proxyClient.client(), times(3)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
-        verify(proxyClient.client(), times(1)).listTagsForResource(any(ListTagsForResourceRequest.class));
+        verify(proxyClient.client(), times(2)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+        verify(proxyClient.client(), never()).listTagsForResource(any(ListTagsForResourceRequest.class));
         verify(proxyClient.client(), times(1)).untagResource(any(UntagResourceRequest.class));
         verify(sdkClient, atLeastOnce()).serviceName();
     }
@@ -386,13 +375,6 @@ public class UpdateHandlerTest extends AbstractTestBase {
                 .status(RescoreExecutionPlanStatus.ACTIVE.toString())
                 .build());
 
-        when(proxyClient.client().listTagsForResource(any(ListTagsForResourceRequest.class)))
-            .thenReturn(ListTagsForResourceResponse
-                .builder()
-                .tags(Arrays.asList(Tag
-                    .builder().key(keyAdd).value(valueAdd).build()))
-                .build());
-
         when(proxyClient.client().untagResource(any(UntagResourceRequest.class)))
             .thenReturn(UntagResourceResponse.builder().build());
 
@@ -415,13 +397,105 @@ public class UpdateHandlerTest extends AbstractTestBase {
         assertThat(response.getErrorCode()).isNull();
 
         verify(proxyClient.client(), times(1)).updateRescoreExecutionPlan(any(UpdateRescoreExecutionPlanRequest.class));
-        verify(proxyClient.client(), times(3)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
-        verify(proxyClient.client(), times(1)).listTagsForResource(any(ListTagsForResourceRequest.class));
+        verify(proxyClient.client(), times(2)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+        verify(proxyClient.client(), never()).listTagsForResource(any(ListTagsForResourceRequest.class));
         verify(proxyClient.client(), times(1)).tagResource(any(TagResourceRequest.class));
         verify(proxyClient.client(), times(1)).untagResource(any(UntagResourceRequest.class));
         verify(sdkClient, atLeastOnce()).serviceName();
     }
 
+    @Test
+    public void handleRequest_NoChangeSkipsUpdate() {
+        final UpdateHandler handler = new UpdateHandler(testExecutionArnBuilder, testDelay);
+
+        String name = "name";
+        String id = "id";
+        final ResourceModel model = ResourceModel
+            .builder()
+            .id(id)
+            .name(name)
+            .build();
+        final ResourceModel prevModel = ResourceModel
+            .builder()
+            .id(id)
+            .name(name)
+            .capacityUnits(software.amazon.kendraranking.executionplan.CapacityUnitsConfiguration.builder().rescoreCapacityUnits(0).build())
+            .build();
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(model)
+            .previousResourceState(prevModel)
+            .build();
+
+        when(proxyClient.client().describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class)))
+            .thenReturn(DescribeRescoreExecutionPlanResponse.builder()
+                .id(id)
+                .name(name)
+                .status(RescoreExecutionPlanStatus.ACTIVE.toString())
+                .build());
+        when(proxyClient.client().listTagsForResource(any(ListTagsForResourceRequest.class)))
+            .thenReturn(ListTagsForResourceResponse.builder().build());
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+
+        assertThat(response).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getCallbackDelaySeconds()).isEqualTo(0);
+
+        verify(proxyClient.client(), times(1)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+        verify(proxyClient.client(), times(1)).listTagsForResource(any(ListTagsForResourceRequest.class));
+        verify(sdkClient, atLeastOnce()).serviceName();
+    }
+
+    @Test
+    public void handleRequest_TagOnlyChangeSkipsUpdateAndStabilization() {
+        final UpdateHandler handler = new UpdateHandler(testExecutionArnBuilder, testDelay);
+
+        String name = "name";
+        String id = "id";
+        String key = "key";
+        String value = "value";
+        List<software.amazon.kendraranking.executionplan.Tag> tags =
+            Arrays.asList(software.amazon.kendraranking.executionplan.Tag.builder().key(key).value(value).build());
+        final ResourceModel model = ResourceModel
+            .builder()
+            .id(id)
+            .name(name)
+            .tags(tags)
+            .build();
+        final ResourceModel prevModel = ResourceModel
+            .builder()
+            .id(id)
+            .name(name)
+            .build();
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(model)
+            .previousResourceState(prevModel)
+            .build();
+
+        when(proxyClient.client().describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class)))
+            .thenReturn(DescribeRescoreExecutionPlanResponse.builder()
+                .id(id)
+                .name(name)
+                .status(RescoreExecutionPlanStatus.ACTIVE.toString())
+                .build());
+        when(proxyClient.client().tagResource(any(TagResourceRequest.class)))
+            .thenReturn(TagResourceResponse.builder().build());
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+
+        assertThat(response).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getCallbackDelaySeconds()).isEqualTo(0);
+        assertThat(response.getResourceModel().getTags()).isEqualTo(tags);
+
+        verify(proxyClient.client(), times(1)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+        verify(proxyClient.client(), never()).listTagsForResource(any(ListTagsForResourceRequest.class));
+        verify(proxyClient.client(), times(1)).tagResource(any(TagResourceRequest.class));
+        verify(sdkClient, atLeastOnce()).serviceName();
+    }
+
     @Test
     public void handleRequest_FailWith_TagResourceThrowsException() {
         final UpdateHandler handler = new UpdateHandler(testExecutionArnBuilder, testDelay);
@@ -460,7 +534,8 @@ public class UpdateHandlerTest extends AbstractTestBase {
         });
 
         verify(proxyClient.client(), times(1)).updateRescoreExecutionPlan(any(UpdateRescoreExecutionPlanRequest.class));
-        verify(proxyClient.client(), times(2)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+        // Tags are reconciled right after the update call, before stabilization
+        verify(proxyClient.client(), times(1)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
         verify(sdkClient, atLeastOnce()).serviceName();
     }
 
@@ -503,7 +578,8 @@ public class UpdateHandlerTest extends AbstractTestBase {
         });
 
         verify(proxyClient.client(), times(1)).updateRescoreExecutionPlan(any(UpdateRescoreExecutionPlanRequest.class));
-        verify(proxyClient.client(), times(2)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+        // Tags are reconciled right after the update call, before stabilization
+        verify(proxyClient.client(), times(1)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
         verify(sdkClient, atLeastOnce()).serviceName();
     }
 
@@ -556,4 +632,208 @@ public class UpdateHandlerTest extends AbstractTestBase {
         verify(proxyClient.client(), times(1)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
         verify(sdkClient, atLeastOnce()).serviceName();
     }
+
+    @Test
+    public void handleRequest_FailWith_TagResourceThrowsExceptionAfterStabilization() {
+        final UpdateHandler handler = new UpdateHandler(testExecutionArnBuilder, StabilizationSchedule.uniform(testDelay),
+            InProcessWait.disabled(), UpdateHandler.TagReconciliation.AFTER_STABILIZATION);
+
+        String name = "name";
+        String id = "id";
+        final ResourceModel model = ResourceModel
+            .builder()
+            .id(id)
+            .name(name)
+            .tags(Arrays.asList(software.amazon.kendraranking.executionplan.Tag.builder().key("key").value("value").build()))
+            .build();
+
+        when(proxyClient.client().updateRescoreExecutionPlan(any(UpdateRescoreExecutionPlanRequest.class)))
+            .thenReturn(UpdateRescoreExecutionPlanResponse.builder().build());
+        when(proxyClient.client().describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class)))
+            .thenReturn(DescribeRescoreExecutionPlanResponse.builder()
+                .id(id)
+                .name(name)
+                .status(RescoreExecutionPlanStatus.ACTIVE.toString())
+                .build());
+        when(proxyClient.client().tagResource(any(TagResourceRequest.class)))
+            .thenThrow(ValidationException.builder().build());
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(model)
+            .build();
+
+        assertThrows(CfnInvalidRequestException.class, () -> {
+            handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+        });
+
+        verify(proxyClient.client(), times(1)).updateRescoreExecutionPlan(any(UpdateRescoreExecutionPlanRequest.class));
+        verify(proxyClient.client(), times(2)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+        verify(proxyClient.client(), times(1)).tagResource(any(TagResourceRequest.class));
+        verify(sdkClient, atLeastOnce()).serviceName();
+    }
+
+    @Test
+    public void handleRequest_TagsReconciledInEarlierInvocationAreNotRepeated() {
+        final UpdateHandler handler = new UpdateHandler(testExecutionArnBuilder, testDelay);
+
+        String name = "name";
+        String id = "id";
+        List<software.amazon.kendraranking.executionplan.Tag> tags = Arrays.asList(
+            software.amazon.kendraranking.executionplan.Tag.builder().key("key").value("value").build());
+        final ResourceModel model = ResourceModel
+            .builder()
+            .id(id)
+            .name(name)
+            .tags(tags)
+            .build();
+        final ResourceModel prevModel = ResourceModel
+            .builder()
+            .id(id)
+            .name(name)
+            .build();
+
+        when(proxyClient.client().describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class)))
+            .thenReturn(DescribeRescoreExecutionPlanResponse.builder()
+                .id(id)
+                .name(name)
+                .status(RescoreExecutionPlanStatus.ACTIVE.toString())
+                .build());
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(model)
+            .previousResourceState(prevModel)
+            .build();
+
+        final CallbackContext callbackContext = new CallbackContext();
+        callbackContext.setTagsReconciled(true);
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, callbackContext, proxyClient, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel().getTags()).isEqualTo(tags);
+
+        verify(proxyClient.client(), times(1)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+        verify(proxyClient.client(), never()).tagResource(any(TagResourceRequest.class));
+        verify(sdkClient, atLeastOnce()).serviceName();
+    }
+
+    @Test
+    public void handleRequest_DeletedPlanIsNotFoundWithAColdCache() {
+        final DescribeCache describeCache = new DescribeCache(Duration.ofSeconds(5), 10, new MutableClock());
+        final UpdateHandler handler = new UpdateHandler(testExecutionArnBuilder, StabilizationSchedule.uniform(testDelay),
+            InProcessWait.disabled(), UpdateHandler.TagReconciliation.AFTER_UPDATE_CALL, describeCache);
+
+        when(proxyClient.client().describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class)))
+            .thenThrow(ResourceNotFoundException.builder().build());
+
+        assertThrows(CfnNotFoundException.class, () -> {
+            handler.handleRequest(proxy, deletedPlanRequest(), new CallbackContext(), proxyClient, logger);
+        });
+
+        assertThat(describeCache.size()).isEqualTo(0);
+        verify(proxyClient.client(), times(1)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+        verify(proxyClient.client(), never()).updateRescoreExecutionPlan(any(UpdateRescoreExecutionPlanRequest.class));
+        verify(sdkClient, atLeastOnce()).serviceName();
+    }
+
+    @Test
+    public void handleRequest_DeletedPlanIsNotFoundWithAWarmCache() {
+        // Described a moment ago, then deleted outside CloudFormation
+        final DescribeCache describeCache = new DescribeCache(Duration.ofSeconds(5), 10, new MutableClock());
+        describeCache.put(ACCOUNT_ID, REGION, DescribeRescoreExecutionPlanResponse.builder()
+            .id("id")
+            .name("name")
+            .status(RescoreExecutionPlanStatus.ACTIVE.toString())
+            .build());
+        final UpdateHandler handler = new UpdateHandler(testExecutionArnBuilder, StabilizationSchedule.uniform(testDelay),
+            InProcessWait.disabled(), UpdateHandler.TagReconciliation.AFTER_UPDATE_CALL, describeCache);
+
+        when(proxyClient.client().updateRescoreExecutionPlan(any(UpdateRescoreExecutionPlanRequest.class)))
+            .thenThrow(ResourceNotFoundException.builder().build());
+        when(proxyClient.client().describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class)))
+            .thenThrow(ResourceNotFoundException.builder().build());
+
+        assertThrows(CfnNotFoundException.class, () -> {
+            handler.handleRequest(proxy, deletedPlanRequest(), new CallbackContext(), proxyClient, logger);
+        });
+        assertThat(describeCache.get(ACCOUNT_ID, REGION, "id")).isNull();
+
+        // The next update no longer trusts the cache
+        assertThrows(CfnNotFoundException.class, () -> {
+            handler.handleRequest(proxy, deletedPlanRequest(), new CallbackContext(), proxyClient, logger);
+        });
+
+        verify(proxyClient.client(), times(1)).updateRescoreExecutionPlan(any(UpdateRescoreExecutionPlanRequest.class));
+        verify(proxyClient.client(), times(1)).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+        verify(sdkClient, atLeastOnce()).serviceName();
+    }
+
+    @Test
+    public void handleRequest_DeletedPlanIsNotFoundWithAWarmCacheAndNoChange() {
+        final DescribeCache describeCache = new DescribeCache(Duration.ofSeconds(5), 10, new MutableClock());
+        describeCache.put(ACCOUNT_ID, REGION, DescribeRescoreExecutionPlanResponse.builder()
+            .id("id")
+            .name("name")
+            .status(RescoreExecutionPlanStatus.ACTIVE.toString())
+            .build());
+        final UpdateHandler handler = new UpdateHandler(testExecutionArnBuilder, StabilizationSchedule.uniform(testDelay),
+            InProcessWait.disabled(), UpdateHandler.TagReconciliation.AFTER_UPDATE_CALL, describeCache);
+
+        when(proxyClient.client().listTagsForResource(any(ListTagsForResourceRequest.class)))
+            .thenThrow(ResourceNotFoundException.builder().build());
+
+        final ResourceModel model = ResourceModel.builder().id("id").name("name").build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .awsAccountId(ACCOUNT_ID)
+            .region(REGION)
+            .desiredResourceState(model)
+            .previousResourceState(model)
+            .build();
+
+        assertThrows(CfnNotFoundException.class, () -> {
+            handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+        });
+
+        assertThat(describeCache.get(ACCOUNT_ID, REGION, "id")).isNull();
+        verify(proxyClient.client(), times(1)).listTagsForResource(any(ListTagsForResourceRequest.class));
+        verify(proxyClient.client(), never()).updateRescoreExecutionPlan(any(UpdateRescoreExecutionPlanRequest.class));
+        verify(sdkClient, atLeastOnce()).serviceName();
+    }
+
+    private static ResourceHandlerRequest<ResourceModel> deletedPlanRequest() {
+        return ResourceHandlerRequest.<ResourceModel>builder()
+            .awsAccountId(ACCOUNT_ID)
+            .region(REGION)
+            .desiredResourceState(ResourceModel.builder()
+                .id("id")
+                .name("name")
+                .capacityUnits(software.amazon.kendraranking.executionplan.CapacityUnitsConfiguration.builder().rescoreCapacityUnits(2).build())
+                .build())
+            .previousResourceState(ResourceModel.builder()
+                .id("id")
+                .name("name")
+                .capacityUnits(software.amazon.kendraranking.executionplan.CapacityUnitsConfiguration.builder().rescoreCapacityUnits(1).build())
+                .build())
+            .build();
+    }
+
+    @Test
+    public void handleRequest_CallsBackWhileTheCircuitBreakerIsOpen() {
+        final UpdateHandler handler = new UpdateHandler(testExecutionArnBuilder, testDelay);
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(ResourceModel.builder().id("id").name("name").build())
+            .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleInstrumentedRequest(
+            proxy, request, null, proxyClient, openCircuitBreaker(), logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackDelaySeconds()).isEqualTo(OPEN_CIRCUIT_BREAKER_SECONDS);
+        assertThat(response.getCallbackContext()).isNotNull();
+        assertThat(response.getErrorCode()).isNull();
+        // The breaker turns the existence check away before it reaches the client, nothing is updated
+        verify(sdkClient, never()).describeRescoreExecutionPlan(any(DescribeRescoreExecutionPlanRequest.class));
+        verify(sdkClient, never()).updateRescoreExecutionPlan(any(UpdateRescoreExecutionPlanRequest.class));
+        verify(sdkClient, atLeastOnce()).serviceName();
+    }
 }
@@ -0,0 +1,109 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import lombok.Getter;
+import software.amazon.cloudformation.exceptions.BaseHandlerException;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+/**
+ * Plays CloudFormation for a handler in simulated time. Every invocation gets a proxy with no time left,
+ * so the proxy hands each wait of the {@link software.amazon.cloudformation.proxy.Delay} back as a callback
+ * instead of sleeping. The harness then moves the clock on by the callback delay and invokes the handler
+ * again with the returned model and context, until the operation completes or runs out of its timeout.
+ * Run against an {@link InMemoryKendraRankingClient} on the same clock, hours of stabilization take
+ * milliseconds.
+ */
+class VirtualTimeHarness {
+
+  // Well above what any schedule needs, only there to stop a handler that never completes
+  static final int MAX_INVOCATIONS = 100_000;
+
+  /**
+   * What one operation cost in simulated time.
+   */
+  @Getter
+  static final class Result {
+    private final ProgressEvent<ResourceModel, CallbackContext> event;
+    private final Duration simulatedTime;
+    private final boolean timedOut;
+    private final int invocations;
+    private final int polls;
+    private final int throttles;
+    private final Map<String, Integer> apiCalls;
+
+    private Result(ProgressEvent<ResourceModel, CallbackContext> event, Duration simulatedTime, boolean timedOut,
+        int invocations, CallbackContext callbackContext, Map<String, Integer> apiCalls) {
+      this.event = event;
+      this.simulatedTime = simulatedTime;
+      this.timedOut = timedOut;
+      this.invocations = invocations;
+      this.polls = callbackContext.getStabilizationPolls();
+      this.throttles = callbackContext.getStabilizationThrottles();
+      this.apiCalls = apiCalls;
+    }
+
+    OperationStatus getStatus() {
+      return event.getStatus();
+    }
+
+    @Override
+    public String toString() {
+      return String.format("status=%s timedOut=%s simulatedTime=%s invocations=%d polls=%d throttles=%d apiCalls=%s",
+          event.getStatus(), timedOut, simulatedTime, invocations, polls, throttles, apiCalls);
+    }
+  }
+
+  private final MutableClock clock;
+  private final InMemoryKendraRankingClient service;
+
+  VirtualTimeHarness(MutableClock clock, InMemoryKendraRankingClient service) {
+    this.clock = clock;
+    this.service = service;
+  }
+
+  /**
+   * Runs the operation to completion. Like CloudFormation, the request's desired state is replaced by the
+   * model each IN_PROGRESS event returns.
+   * @param handler handler of the operation
+   * @param request request of the first invocation
+   * @param timeout how long CloudFormation lets the operation run, the schema's timeoutInMinutes
+   * @return the last event with what it took to get there, api calls counted since the service was built
+   */
+  Result run(BaseHandlerStd handler, ResourceHandlerRequest<ResourceModel> request, Duration timeout) {
+    final Instant start = clock.instant();
+    CallbackContext callbackContext = new CallbackContext();
+    for (int invocations = 1; ; invocations++) {
+      final AmazonWebServicesClientProxy proxy =
+          new AmazonWebServicesClientProxy(AbstractTestBase.logger, AbstractTestBase.MOCK_CREDENTIALS, () -> 0L);
+      ProgressEvent<ResourceModel, CallbackContext> event;
+      try {
+        event = handler.handleRequest(proxy, request, callbackContext,
+            AbstractTestBase.MOCK_PROXY(proxy, service), AbstractTestBase.logger);
+      } catch (BaseHandlerException e) {
+        // What the handler wrapper turns a thrown handler exception into
+        event = ProgressEvent.defaultFailureHandler(e, e.getErrorCode());
+      }
+      final Duration elapsed = Duration.between(start, clock.instant());
+      final boolean timedOut = event.getStatus() == OperationStatus.IN_PROGRESS && elapsed.compareTo(timeout) >= 0;
+      if (event.getStatus() != OperationStatus.IN_PROGRESS || timedOut) {
+        return new Result(event, elapsed, timedOut, invocations, callbackContext, service.getCalls());
+      }
+      if (invocations == MAX_INVOCATIONS) {
+        throw new IllegalStateException(String.format("Still IN_PROGRESS after %d invocations", invocations));
+      }
+      clock.advance(Duration.ofSeconds(event.getCallbackDelaySeconds()));
+      if (event.getCallbackContext() != null) {
+        callbackContext = event.getCallbackContext();
+      }
+      if (event.getResourceModel() != null) {
+        request.setDesiredResourceState(event.getResourceModel());
+      }
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package software.amazon.kendraranking.executionplan;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import software.amazon.awssdk.services.kendraranking.model.CreateRescoreExecutionPlanRequest;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.cloudformation.proxy.delay.Constant;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class VirtualTimeHarnessTest {
+
+    // The schema's handler timeouts
+    private static final Duration CREATE_TIMEOUT = Duration.ofMinutes(240);
+    private static final Duration DELETE_TIMEOUT = Duration.ofMinutes(720);
+
+    private final MutableClock clock = new MutableClock();
+
+    private final TestExecutionArnBuilder testExecutionArnBuilder = new TestExecutionArnBuilder();
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testTwelveHourDeleteWithTheProductionSchedule() {
+        final InMemoryKendraRankingClient service = service().deleteDuration(Duration.ofHours(11)).build();
+        final String id = activePlan(service);
+
+        final VirtualTimeHarness.Result result = new VirtualTimeHarness(clock, service).run(
+            new DeleteHandler(DeleteHandler.STABILIZATION_SCHEDULE, InProcessWait.disabled()), request(id), DELETE_TIMEOUT);
+        AbstractTestBase.logger.log(result.toString());
+
+        assertThat(result.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        // Done within one capped poll interval of the plan going away
+        assertThat(result.getSimulatedTime()).isBetween(Duration.ofHours(11), Duration.ofHours(11).plusMinutes(3));
+        assertThat(result.getPolls()).isEqualTo(service.getCalls(ApiName.DESCRIBE_EXECUTION_PLAN));
+        assertThat(result.getInvocations()).isEqualTo(result.getPolls());
+        assertThat(result.getApiCalls()).containsEntry(ApiName.DELETE_EXECUTION_PLAN, 1);
+        assertThat(service.planCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testDeleteOutlastingTheTimeoutIsReported() {
+        final InMemoryKendraRankingClient service = service().deleteDuration(Duration.ofHours(13)).build();
+        final String id = activePlan(service);
+
+        final VirtualTimeHarness.Result result = new VirtualTimeHarness(clock, service).run(
+            new DeleteHandler(DeleteHandler.STABILIZATION_SCHEDULE, InProcessWait.disabled()), request(id), DELETE_TIMEOUT);
+
+        assertThat(result.isTimedOut()).isTrue();
+        assertThat(result.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(result.getSimulatedTime()).isGreaterThanOrEqualTo(DELETE_TIMEOUT);
+        assertThat(service.planCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testProductionScheduleFinishesFastCreatesSoonerThanAUniformOne() {
+        final VirtualTimeHarness.Result production = create(
+            new CreateHandler(testExecutionArnBuilder, CreateHandler.STABILIZATION_SCHEDULE));
+        final VirtualTimeHarness.Result uniform = create(new CreateHandler(testExecutionArnBuilder,
+            Constant.of().timeout(CREATE_TIMEOUT).delay(Duration.ofMinutes(2)).build()));
+        AbstractTestBase.logger.log("production " + production + ", uniform " + uniform);
+
+        assertThat(production.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(uniform.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        // Short polls early on are paid for with more of them
+        assertThat(production.getSimulatedTime()).isLessThan(Duration.ofMinutes(1));
+        assertThat(uniform.getSimulatedTime()).isGreaterThanOrEqualTo(Duration.ofMinutes(2));
+        assertThat(production.getPolls()).isGreaterThan(uniform.getPolls());
+    }
+
+    private VirtualTimeHarness.Result create(CreateHandler handler) {
+        final InMemoryKendraRankingClient service = service().createDuration(Duration.ofSeconds(30)).build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(ResourceModel.builder().name("plan").build())
+            .clientRequestToken("token")
+            .logicalResourceIdentifier("Plan")
+            .build();
+        return new VirtualTimeHarness(clock, service).run(handler, request, CREATE_TIMEOUT);
+    }
+
+    private InMemoryKendraRankingClient.Builder service() {
+        return InMemoryKendraRankingClient.builder()
+            .clock(clock, clock::advance)
+            .latency(InMemoryKendraRankingClient.LatencyDistribution.constant(Duration.ofMillis(100)));
+    }
+
+    private String activePlan(InMemoryKendraRankingClient service) {
+        final String id = service.createRescoreExecutionPlan(CreateRescoreExecutionPlanRequest.builder()
+            .name("plan")
+            .build()).id();
+        clock.advance(Duration.ofMinutes(2));
+        return id;
+    }
+
+    private static ResourceHandlerRequest<ResourceModel> request(String id) {
+        return ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(ResourceModel.builder().id(id).build())
+            .build();
+    }
+}